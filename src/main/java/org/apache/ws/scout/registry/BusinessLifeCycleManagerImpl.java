@@ -26,7 +26,6 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.Vector;
 
 import javax.xml.registry.BulkResponse;
 import javax.xml.registry.BusinessLifeCycleManager;
@@ -92,6 +91,9 @@ public class BusinessLifeCycleManagerImpl extends LifeCycleManagerImpl
 		
 	private static final long serialVersionUID = -4533264314909343311L;
 
+	/** The most assertions sent in one delete_publisherAssertions call. */
+	static final int MAX_DELETE_ASSERTIONS = 100;
+
 	private Log log = LogFactory.getLog(this.getClass());
     
     private transient ObjectFactory objectFactory = new ObjectFactory();
@@ -725,57 +727,30 @@ public class BusinessLifeCycleManagerImpl extends LifeCycleManagerImpl
         return regobj;
     }
 
-    private void clearPublisherAssertions( String authinfo,IRegistry ireg)
+    /**
+     * Deletes all publisher assertions of the caller. The assertion status
+     * report is fetched once, without a completionStatus, so that it holds
+     * the assertions in every state, and the assertions are deleted in calls
+     * of at most {@link #MAX_DELETE_ASSERTIONS}. A failure is thrown to the
+     * caller, which renews the auth token and retries once, and otherwise
+     * reports it in the response of the delete.
+     */
+    private void clearPublisherAssertions(String authinfo, IRegistry ireg) throws RegistryException
     {
-       Vector<PublisherAssertion> pasvect  = new Vector<PublisherAssertion>();
-       
-       try
+       AssertionStatusReport report = ireg.getAssertionStatusReport(authinfo, null);
+       List<AssertionStatusItem> assertionStatusItemList = report.getAssertionStatusItem();
+       for (int from = 0; from < assertionStatusItemList.size(); from += MAX_DELETE_ASSERTIONS)
        {
-          AssertionStatusReport report = ireg.getAssertionStatusReport(authinfo,"status:complete");
-          List<AssertionStatusItem> assertionStatusItemList = report.getAssertionStatusItem();
-          for (AssertionStatusItem assertionStatusItem : assertionStatusItemList) {
-              pasvect.add(this.getPublisherAssertion(assertionStatusItem));
-		  }
-
-          report = ireg.getAssertionStatusReport(authinfo,"status:toKey_incomplete");
-          assertionStatusItemList = report.getAssertionStatusItem();
-          for (AssertionStatusItem assertionStatusItem : assertionStatusItemList) {
-              pasvect.add(this.getPublisherAssertion(assertionStatusItem));
-		  }
-
-          report = ireg.getAssertionStatusReport(authinfo,"status:fromKey_incomplete");
-          assertionStatusItemList = report.getAssertionStatusItem();
-          for (AssertionStatusItem assertionStatusItem : assertionStatusItemList) {
-              pasvect.add(this.getPublisherAssertion(assertionStatusItem));
-		  }
-
-          if (pasvect.size() > 0) {
-        	  PublisherAssertion[] pasarr = new PublisherAssertion[pasvect.size()];
-        	  int i=0;
-              for (PublisherAssertion publisherAssertion : pasvect) {
-				  pasarr[i++] = publisherAssertion;
-			  }
-        	  ireg.deletePublisherAssertions(authinfo, pasarr);
+          int to = Math.min(assertionStatusItemList.size(), from + MAX_DELETE_ASSERTIONS);
+          PublisherAssertion[] pasarr = new PublisherAssertion[to - from];
+          for (int i = from; i < to; i++)
+          {
+             pasarr[i - from] = this.getPublisherAssertion(assertionStatusItemList.get(i));
           }
-       }
-       catch (RegistryException e)
-       {
-           ConnectionImpl connection = registry.getConnection();
-    	   String username = getUsernameFromCredentials(connection.getCredentials());
-    	   if (AuthTokenSingleton.getToken(username) != null) {
-    		   AuthTokenSingleton.deleteAuthToken(username);
-    	   }
-    	   AuthToken token = null;
-    	   try {
-    		   token = getAuthToken(connection, ireg);
-    	   } catch (JAXRException je) {
-    	   }
-   		   clearPublisherAssertions( token.getAuthInfo(), ireg);
+          ireg.deletePublisherAssertions(authinfo, pasarr);
        }
     }
 
-
-
     protected BulkResponse deleteOperation(Collection<Key> keys, String op)
             throws JAXRException {
         if(keys == null)
@@ -26,7 +26,6 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.Vector;
 
 import javax.xml.registry.BulkResponse;
 import javax.xml.registry.BusinessLifeCycleManager;
@@ -92,6 +91,9 @@ public class BusinessLifeCycleManagerV3Impl extends LifeCycleManagerImpl
 		
 	private static final long serialVersionUID = -1145007155334678356L;
 
+	/** The most assertions sent in one delete_publisherAssertions call. */
+	static final int MAX_DELETE_ASSERTIONS = 100;
+
 	private Log log = LogFactory.getLog(this.getClass());
     
     private transient ObjectFactory objectFactory = new ObjectFactory();
@@ -639,7 +641,7 @@ public class BusinessLifeCycleManagerV3Impl extends LifeCycleManagerImpl
         			AuthTokenV3Singleton.deleteAuthToken(username);
         		}
         		token = getAuthToken(connection, ireg);
-                //clearPublisherAssertions(token.getAuthInfo(), ireg);
+                clearPublisherAssertions(token.getAuthInfo(), ireg);
         		regobj = ireg.deleteBusiness(token.getAuthInfo(), (String[]) dataarray);
         	}
         }
@@ -722,85 +724,29 @@ public class BusinessLifeCycleManagerV3Impl extends LifeCycleManagerImpl
         return regobj;
     }
 
-    private void clearPublisherAssertions( String authinfo,IRegistryV3 ireg)
+    /**
+     * Deletes all publisher assertions of the caller. The assertion status
+     * report is fetched once, without a completionStatus, so that it holds
+     * the assertions in every state, and the assertions are deleted in calls
+     * of at most {@link #MAX_DELETE_ASSERTIONS}. A failure is thrown to the
+     * caller, which renews the auth token and retries once, and otherwise
+     * reports it in the response of the delete.
+     */
+    private void clearPublisherAssertions(String authinfo, IRegistryV3 ireg) throws RegistryV3Exception
     {
-       Vector<PublisherAssertion> pasvect  = null;
-       PublisherAssertion[] pasarr  = null;
-       try
+       AssertionStatusReport report = ireg.getAssertionStatusReport(authinfo, null);
+       List<AssertionStatusItem> assertionStatusItemList = report.getAssertionStatusItem();
+       for (int from = 0; from < assertionStatusItemList.size(); from += MAX_DELETE_ASSERTIONS)
        {
-          AssertionStatusReport report = ireg.getAssertionStatusReport(authinfo,"status:complete");
-          List<AssertionStatusItem> assertionStatusItemList = report.getAssertionStatusItem();
-          AssertionStatusItem[] assertionStatusItemArr = 
-        	  new AssertionStatusItem[assertionStatusItemList.size()];
-
-          int len = assertionStatusItemArr != null? assertionStatusItemArr.length : 0;
-          for (int i = 0; i < len; i++)
-          {
-                AssertionStatusItem asi = assertionStatusItemArr[i];
-               /* String sourceKey = asi.getFromKey();
-                String targetKey = asi.getToKey();
-                PublisherAssertion pa = new PublisherAssertion();
-                pa.setFromKey(sourceKey);
-                pa.setToKey(targetKey);
-                KeyedReference keyr = asi.getKeyedReference();
-                pa.setKeyedReference(keyr);
-                pa.setTModelKey(keyr.getTModelKey());
-                pa.setKeyName(keyr.getKeyName());
-                pa.setKeyValue(keyr.getKeyValue());
-                if(pasvect == null) pasvect = new Vector(len);
-                pasvect.add(pa);*/
-                if(pasvect == null) pasvect = new Vector<PublisherAssertion>(len);
-                pasvect.add(this.getPublisherAssertion(asi));
-           }
-          report = ireg.getAssertionStatusReport(authinfo,"status:toKey_incomplete");
-          assertionStatusItemArr = report.getAssertionStatusItem().toArray(assertionStatusItemArr);
-
-          len = assertionStatusItemArr != null? assertionStatusItemArr.length : 0;
-          for (int i = 0; i < len; i++)
-          {
-                AssertionStatusItem asi = (AssertionStatusItem) assertionStatusItemArr[i];
-                if(pasvect == null) pasvect = new Vector<PublisherAssertion>(len);
-                pasvect.add(this.getPublisherAssertion(asi));
-          }
-
-          report = ireg.getAssertionStatusReport(authinfo,"status:fromKey_incomplete");
-          assertionStatusItemArr = report.getAssertionStatusItem().toArray(assertionStatusItemArr);
-
-          len = assertionStatusItemArr != null? assertionStatusItemArr.length : 0;
-          for (int i = 0; i < len; i++)
+          int to = Math.min(assertionStatusItemList.size(), from + MAX_DELETE_ASSERTIONS);
+          PublisherAssertion[] pasarr = new PublisherAssertion[to - from];
+          for (int i = from; i < to; i++)
           {
-                AssertionStatusItem asi = (AssertionStatusItem) assertionStatusItemArr[i];
-                if(pasvect == null) pasvect = new Vector<PublisherAssertion>(len);
-                pasvect.add(this.getPublisherAssertion(asi));
-          }
-
-          if (pasvect != null) {
-        	  pasarr = new PublisherAssertion[pasvect.size()];
-        	  Iterator iter = pasvect.iterator();
-        	  int pasarrPos = 0;
-        	  while (iter.hasNext()) {
-        		  pasarr[pasarrPos] = ((PublisherAssertion) iter.next());
-        		  pasarrPos++;
-        	  }
+             pasarr[i - from] = this.getPublisherAssertion(assertionStatusItemList.get(i));
           }
+          ireg.deletePublisherAssertions(authinfo, pasarr);
        }
-       catch (RegistryV3Exception e)
-       {
-          throw new RuntimeException(e);
-       }
-
-          if(pasarr != null && pasarr.length > 0)
-             try
-             {
-                ireg.deletePublisherAssertions(authinfo, pasarr);
-             }
-             catch (RegistryV3Exception e)
-             { 
-                log.debug("Ignoring exception " + e.getMessage(),e);
-             }
-       }
-
-
+    }
 
     protected BulkResponse deleteOperation(Collection<Key> keys, String op)
             throws JAXRException {
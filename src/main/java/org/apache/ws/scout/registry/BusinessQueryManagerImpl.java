@@ -19,10 +19,15 @@ package org.apache.ws.scout.registry;
 import java.net.PasswordAuthentication;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import javax.xml.registry.BulkResponse;
 import javax.xml.registry.BusinessLifeCycleManager;
@@ -50,6 +55,7 @@ import org.apache.ws.scout.model.uddi.v2.AuthToken;
 import org.apache.ws.scout.model.uddi.v2.BindingDetail;
 import org.apache.ws.scout.model.uddi.v2.BindingTemplate;
 import org.apache.ws.scout.model.uddi.v2.BusinessDetail;
+import org.apache.ws.scout.model.uddi.v2.BusinessEntity;
 import org.apache.ws.scout.model.uddi.v2.BusinessInfo;
 import org.apache.ws.scout.model.uddi.v2.BusinessInfos;
 import org.apache.ws.scout.model.uddi.v2.BusinessList;
@@ -78,6 +84,7 @@ import org.apache.ws.scout.registry.infomodel.KeyImpl;
 import org.apache.ws.scout.registry.infomodel.ServiceBindingImpl;
 import org.apache.ws.scout.registry.infomodel.ServiceImpl;
 import org.apache.ws.scout.util.EnumerationHelper;
+import org.apache.ws.scout.util.QueryScope;
 import org.apache.ws.scout.util.ScoutJaxrUddiHelper;
 import org.apache.ws.scout.util.ScoutUddiJaxrHelper;
 
@@ -90,13 +97,16 @@ import org.apache.ws.scout.util.ScoutUddiJaxrHelper;
  * @author <a href="mailto:jboynes@apache.org">Jeremy Boynes</a>
  * @author <a href="mailto:geirm@apache.org">Geir Magnusson Jr.</a>
  */
-public class BusinessQueryManagerImpl implements BusinessQueryManager
+public class BusinessQueryManagerImpl implements PublishingQueryManager
 {
     private final RegistryServiceImpl registryService;
     private Log log = LogFactory.getLog(this.getClass());
 
     private static ObjectFactory objectFactory = new ObjectFactory();
 
+    /** The most keys sent in one get_businessDetail call. */
+    static final int MAX_DETAIL_KEYS = 100;
+
     public BusinessQueryManagerImpl(RegistryServiceImpl registry)
     {
         this.registryService = registry;
@@ -127,6 +137,7 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
                                           Collection externalLinks) throws JAXRException
     {
         IRegistry registry = (IRegistry) registryService.getRegistry();
+        QueryScope scope = enterQuery();
         try
         {
             FindQualifiers juddiFindQualifiers = mapFindQualifiers(findQualifiers);
@@ -158,6 +169,10 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
         {
             throw new JAXRException(e);
         }
+        finally
+        {
+            QueryScope.exit(scope);
+        }
     }
 
     public BulkResponse findAssociations(Collection findQualifiers,
@@ -167,6 +182,7 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
     {
         //TODO: Currently we just return all the Association objects owned by the caller
         IRegistry registry = (IRegistry) registryService.getRegistry();
+        QueryScope scope = enterQuery();
         try
         {
             ConnectionImpl con = ((RegistryServiceImpl)getRegistryService()).getConnection();
@@ -184,34 +200,41 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
         	}
 
             List<PublisherAssertion> publisherAssertionList = result.getPublisherAssertion();
-            LinkedHashSet<Association> col = new LinkedHashSet<Association>();
+            List<PublisherAssertion> matches = new ArrayList<PublisherAssertion>();
+            Set<String> orgKeys = new LinkedHashSet<String>();
             for (PublisherAssertion pas : publisherAssertionList) {
                 String sourceKey = pas.getFromKey();
                 String targetKey = pas.getToKey();
-				
-				if ((sourceObjectId==null || sourceObjectId.equals(sourceKey))
-					&& (targetObjectId==null || targetObjectId.equals(targetKey))) {
-						Collection<Key> orgcol = new ArrayList<Key>();
-						orgcol.add(new KeyImpl(sourceKey));
-						orgcol.add(new KeyImpl(targetKey));
-						BulkResponse bl = getRegistryObjects(orgcol, LifeCycleManager.ORGANIZATION);
-						Association asso = ScoutUddiJaxrHelper.getAssociation(bl.getCollection(),
-							registryService.getBusinessLifeCycleManager());
-						KeyedReference keyr = pas.getKeyedReference();
-						Concept c = new ConceptImpl(getRegistryService().getBusinessLifeCycleManager());
-						c.setName(new InternationalStringImpl(keyr.getKeyName()));
-						c.setKey( new KeyImpl(keyr.getTModelKey()) );
-						c.setValue(keyr.getKeyValue());
-						asso.setAssociationType(c);
-						col.add(asso);
-				}
 
+                if ((sourceObjectId==null || sourceObjectId.equals(sourceKey))
+                    && (targetObjectId==null || targetObjectId.equals(targetKey))) {
+                    matches.add(pas);
+                    orgKeys.add(sourceKey);
+                    orgKeys.add(targetKey);
+                }
+            }
+
+            // resolve the organizations of all assertions at once
+            Collection<Exception> exceptions = new ArrayList<Exception>();
+            Map<String, RegistryObject> orgs = getOrganizations(orgKeys, exceptions);
+            LinkedHashSet<Association> col = new LinkedHashSet<Association>();
+            for (PublisherAssertion pas : matches) {
+                Association asso = getAssociation(pas, orgs);
+                if (asso != null) {
+                    col.add(asso);
+                }
             }
-            return new BulkResponseImpl(col);
+            BulkResponseImpl response = new BulkResponseImpl(col);
+            response.setExceptions(exceptions);
+            return response;
         } catch (RegistryException e)
         {
             throw new JAXRException(e);
         }
+        finally
+        {
+            QueryScope.exit(scope);
+        }
     }
 
     public BulkResponse findCallerAssociations(Collection findQualifiers,
@@ -221,6 +244,7 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
     {
         //TODO: Currently we just return all the Association objects owned by the caller
         IRegistry registry = (IRegistry) registryService.getRegistry();
+        QueryScope scope = enterQuery();
         try
         {
             ConnectionImpl con = ((RegistryServiceImpl)getRegistryService()).getConnection();
@@ -253,39 +277,124 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
         	}
             
             List<AssertionStatusItem> assertionStatusItemList = report.getAssertionStatusItem();
-            LinkedHashSet<Association> col = new LinkedHashSet<Association>();
+            Set<String> orgKeys = new LinkedHashSet<String>();
             for (AssertionStatusItem asi : assertionStatusItemList) {
-                String sourceKey = asi.getFromKey();
-                String targetKey = asi.getToKey();
-                Collection<Key> orgcol = new ArrayList<Key>();
-                orgcol.add(new KeyImpl(sourceKey));
-                orgcol.add(new KeyImpl(targetKey));
-                BulkResponse bl = getRegistryObjects(orgcol, LifeCycleManager.ORGANIZATION);
-                Association asso = ScoutUddiJaxrHelper.getAssociation(bl.getCollection(),
-                                             registryService.getBusinessLifeCycleManager());
-                //Set Confirmation
-                ((AssociationImpl)asso).setConfirmedBySourceOwner(caller);
-                ((AssociationImpl)asso).setConfirmedByTargetOwner(other);
-
-                if(confirm != Constants.COMPLETION_STATUS_COMPLETE)
-                     ((AssociationImpl)asso).setConfirmed(false);
-
-                Concept c = new ConceptImpl(getRegistryService().getBusinessLifeCycleManager());
-                KeyedReference keyr = asi.getKeyedReference();
-                c.setKey(new KeyImpl(keyr.getTModelKey()));
-                c.setName(new InternationalStringImpl(keyr.getKeyName()));
-                c.setValue(keyr.getKeyValue());
-                asso.setKey(new KeyImpl(keyr.getTModelKey())); //TODO:Validate this
-                asso.setAssociationType(c);
-                col.add(asso);
+                orgKeys.add(asi.getFromKey());
+                orgKeys.add(asi.getToKey());
             }
 
+            // resolve the organizations of all assertions at once
+            Collection<Exception> exceptions = new ArrayList<Exception>();
+            Map<String, RegistryObject> orgs = getOrganizations(orgKeys, exceptions);
+            LinkedHashSet<Association> col = new LinkedHashSet<Association>();
+            for (AssertionStatusItem asi : assertionStatusItemList) {
+                Association asso = getAssociation(asi, orgs, caller, other, confirm);
+                if (asso != null) {
+                    col.add(asso);
+                }
+            }
 
-            return new BulkResponseImpl(col);
+            BulkResponseImpl response = new BulkResponseImpl(col);
+            response.setExceptions(exceptions);
+            return response;
         } catch (RegistryException e)
         {
             throw new JAXRException(e);
         }
+        finally
+        {
+            QueryScope.exit(scope);
+        }
+    }
+
+    /**
+     * Fetches the organizations with the given keys in as few calls as
+     * possible, see {@link #getRegistryObjects(Collection, String)}.
+     *
+     * @return the organizations by lower case key
+     */
+    private Map<String, RegistryObject> getOrganizations(Set<String> keys, Collection<Exception> exceptions)
+        throws JAXRException
+    {
+        Collection<Key> orgcol = new ArrayList<Key>(keys.size());
+        for (String key : keys) {
+            orgcol.add(new KeyImpl(key));
+        }
+        BulkResponse bl = getRegistryObjects(orgcol, LifeCycleManager.ORGANIZATION);
+        if (bl.getExceptions() != null) {
+            exceptions.addAll(bl.getExceptions());
+        }
+        Map<String, RegistryObject> orgs = new HashMap<String, RegistryObject>();
+        for (Object org : bl.getCollection()) {
+            RegistryObject registryObject = (RegistryObject) org;
+            orgs.put(registryObject.getKey().getId().toLowerCase(Locale.ENGLISH), registryObject);
+        }
+        return orgs;
+    }
+
+    /**
+     * @return the Association between two of the given organizations, or
+     * null when one of them could not be found.
+     */
+    private Association getAssociation(String sourceKey, String targetKey, Map<String, RegistryObject> orgs)
+        throws JAXRException
+    {
+        RegistryObject source = orgs.get(sourceKey.toLowerCase(Locale.ENGLISH));
+        RegistryObject target = orgs.get(targetKey.toLowerCase(Locale.ENGLISH));
+        if (source == null || target == null) {
+            return null;
+        }
+        List<RegistryObject> ends = new ArrayList<RegistryObject>(2);
+        ends.add(source);
+        ends.add(target);
+        return ScoutUddiJaxrHelper.getAssociation(ends, registryService.getBusinessLifeCycleManager());
+    }
+
+    /**
+     * Builds the Association for a publisher assertion.
+     */
+    private Association getAssociation(PublisherAssertion pas, Map<String, RegistryObject> orgs)
+        throws JAXRException
+    {
+        Association asso = getAssociation(pas.getFromKey(), pas.getToKey(), orgs);
+        if (asso == null) {
+            return null;
+        }
+        KeyedReference keyr = pas.getKeyedReference();
+        Concept c = new ConceptImpl(getRegistryService().getBusinessLifeCycleManager());
+        c.setName(new InternationalStringImpl(keyr.getKeyName()));
+        c.setKey( new KeyImpl(keyr.getTModelKey()) );
+        c.setValue(keyr.getKeyValue());
+        asso.setAssociationType(c);
+        return asso;
+    }
+
+    /**
+     * Builds the Association for an item of the caller's assertion status report.
+     */
+    private Association getAssociation(AssertionStatusItem asi, Map<String, RegistryObject> orgs,
+                                       boolean caller, boolean other, String confirm)
+        throws JAXRException
+    {
+        Association asso = getAssociation(asi.getFromKey(), asi.getToKey(), orgs);
+        if (asso == null) {
+            return null;
+        }
+        //Set Confirmation
+        ((AssociationImpl)asso).setConfirmedBySourceOwner(caller);
+        ((AssociationImpl)asso).setConfirmedByTargetOwner(other);
+
+        if(confirm != Constants.COMPLETION_STATUS_COMPLETE)
+             ((AssociationImpl)asso).setConfirmed(false);
+
+        Concept c = new ConceptImpl(getRegistryService().getBusinessLifeCycleManager());
+        KeyedReference keyr = asi.getKeyedReference();
+        c.setKey(new KeyImpl(keyr.getTModelKey()));
+        c.setName(new InternationalStringImpl(keyr.getKeyName()));
+        c.setValue(keyr.getKeyValue());
+        asso.setKey(new KeyImpl(keyr.getTModelKey())); //TODO:Validate this
+        asso.setAssociationType(c);
+        return asso;
     }
 
     /**
@@ -533,6 +642,23 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
                                      Collection classifications,
                                      Collection externalIdentifiers,
                                      Collection externalLinks) throws JAXRException
+    {
+        QueryScope scope = enterQuery();
+        try
+        {
+            return loadConcepts(findQualifiers, namePatterns, classifications, externalIdentifiers, externalLinks);
+        }
+        finally
+        {
+            QueryScope.exit(scope);
+        }
+    }
+
+    private BulkResponse loadConcepts(Collection findQualifiers,
+                                      Collection namePatterns,
+                                      Collection classifications,
+                                      Collection externalIdentifiers,
+                                      Collection externalLinks) throws JAXRException
     {
         LinkedHashSet<Concept> col = new LinkedHashSet<Concept>();
 
@@ -579,6 +705,22 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
                                             Collection findQualifiers,
                                             Collection classifications,
                                             Collection specifications) throws JAXRException
+    {
+        QueryScope scope = enterQuery();
+        try
+        {
+            return loadServiceBindings(serviceKey, findQualifiers, classifications, specifications);
+        }
+        finally
+        {
+            QueryScope.exit(scope);
+        }
+    }
+
+    private BulkResponse loadServiceBindings(Key serviceKey,
+                                             Collection findQualifiers,
+                                             Collection classifications,
+                                             Collection specifications) throws JAXRException
     {
         BulkResponseImpl blkRes = new BulkResponseImpl();
 
@@ -644,6 +786,22 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
                                      Collection namePatterns,
                                      Collection classifications,
                                      Collection specificationa) throws JAXRException
+    {
+        QueryScope scope = enterQuery();
+        try
+        {
+            return loadServices(orgKey, findQualifiers, namePatterns, classifications, specificationa);
+        }
+        finally
+        {
+            QueryScope.exit(scope);
+        }
+    }
+
+    private BulkResponse loadServices(Key orgKey, Collection findQualifiers,
+                                      Collection namePatterns,
+                                      Collection classifications,
+                                      Collection specificationa) throws JAXRException
     {
         BulkResponseImpl blkRes = new BulkResponseImpl();
 
@@ -700,6 +858,24 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
     }
 
     public RegistryObject getRegistryObject(String id, String objectType) throws JAXRException
+    {
+        QueryScope scope = enterQuery();
+        try
+        {
+            RegistryObject registryObject = (RegistryObject) QueryScope.lookup(objectType, id);
+            if (registryObject == null)
+            {
+                registryObject = QueryScope.register(objectType, id, loadRegistryObject(id, objectType));
+            }
+            return registryObject;
+        }
+        finally
+        {
+            QueryScope.exit(scope);
+        }
+    }
+
+    private RegistryObject loadRegistryObject(String id, String objectType) throws JAXRException
     {
         IRegistry registry = (IRegistry) registryService.getRegistry();
         BusinessLifeCycleManager lcm = registryService.getBusinessLifeCycleManager();
@@ -768,6 +944,178 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
         return null;
     }
 
+    /**
+     * Streams the organizations found, getting their details in batches
+     * of at most {@link #MAX_DETAIL_KEYS} as the subscriber requests them.
+     * Finding them by external links is not supported.
+     */
+    public RegistryFlow.Publisher<Organization> publishOrganizations(Collection findQualifiers,
+                                                                    Collection namePatterns,
+                                                                    final Collection classifications,
+                                                                    final Collection specifications,
+                                                                    final Collection externalIdentifiers,
+                                                                    Collection externalLinks) throws JAXRException
+    {
+        if (externalLinks != null && !externalLinks.isEmpty())
+        {
+            throw new UnsupportedCapabilityException("Organizations cannot be found by their external links");
+        }
+        final IRegistry registry = (IRegistry) registryService.getRegistry();
+        final FindQualifiers juddiFindQualifiers = mapFindQualifiers(findQualifiers);
+        final Name[] nameArray = mapNamePatterns(namePatterns);
+        return new KeyPublisher<Organization>(MAX_DETAIL_KEYS)
+        {
+            String[] find() throws JAXRException
+            {
+                try
+                {
+                    BusinessList result = registry.findBusiness(nameArray,
+                            null,
+                            ScoutJaxrUddiHelper.getIdentifierBagFromExternalIdentifiers(externalIdentifiers),
+                            ScoutJaxrUddiHelper.getCategoryBagFromClassifications(classifications),
+                            ScoutJaxrUddiHelper.getTModelBagFromSpecifications(specifications),
+                            juddiFindQualifiers,
+                            registryService.getMaxRows());
+                    List<String> keys = new ArrayList<String>();
+                    if (result.getBusinessInfos() != null)
+                    {
+                        for (BusinessInfo info : result.getBusinessInfos().getBusinessInfo())
+                        {
+                            keys.add(info.getBusinessKey());
+                        }
+                    }
+                    return keys.toArray(new String[keys.size()]);
+                }
+                catch (RegistryException e)
+                {
+                    throw new JAXRException(e);
+                }
+            }
+
+            List<Organization> fetch(String[] keys) throws JAXRException
+            {
+                QueryScope scope = enterQuery();
+                try
+                {
+                    // the organizations deleted since the find are left out
+                    List<Organization> orgs = new ArrayList<Organization>(keys.length);
+                    for (RegistryObject org : getOrganizations(registry, keys, new ArrayList<Exception>()))
+                    {
+                        orgs.add((Organization) org);
+                    }
+                    return orgs;
+                }
+                finally
+                {
+                    QueryScope.exit(scope);
+                }
+            }
+        };
+    }
+
+    /**
+     * Streams the services found, getting their details in batches of at
+     * most {@link #MAX_DETAIL_KEYS} as the subscriber requests them.
+     */
+    public RegistryFlow.Publisher<Service> publishServices(Key orgKey, Collection findQualifiers,
+                                                          Collection namePatterns,
+                                                          final Collection classifications,
+                                                          final Collection specifications) throws JAXRException
+    {
+        final IRegistry registry = (IRegistry) registryService.getRegistry();
+        final FindQualifiers juddiFindQualifiers = mapFindQualifiers(findQualifiers);
+        final Name[] juddiNames = mapNamePatterns(namePatterns);
+        final String id = orgKey != null ? orgKey.getId() : null;
+        return new KeyPublisher<Service>(MAX_DETAIL_KEYS)
+        {
+            String[] find() throws JAXRException
+            {
+                try
+                {
+                    ServiceList serviceList = registry.findService(id,
+                            juddiNames,
+                            ScoutJaxrUddiHelper.getCategoryBagFromClassifications(classifications),
+                            ScoutJaxrUddiHelper.getTModelBagFromSpecifications(specifications),
+                            juddiFindQualifiers, registryService.getMaxRows());
+                    List<String> keys = new ArrayList<String>();
+                    if (serviceList != null && serviceList.getServiceInfos() != null)
+                    {
+                        for (ServiceInfo info : serviceList.getServiceInfos().getServiceInfo())
+                        {
+                            keys.add(info.getServiceKey());
+                        }
+                    }
+                    return keys.toArray(new String[keys.size()]);
+                }
+                catch (RegistryException e)
+                {
+                    throw new JAXRException(e);
+                }
+            }
+
+            List<Service> fetch(String[] keys) throws JAXRException
+            {
+                QueryScope scope = enterQuery();
+                try
+                {
+                    return getServices(registry, keys);
+                }
+                finally
+                {
+                    QueryScope.exit(scope);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the services for the keys, leaving out the keys that the
+     * registry does not know.
+     */
+    private List<Service> getServices(IRegistry registry, String[] keys) throws JAXRException
+    {
+        List<Service> services = new ArrayList<Service>(keys.length);
+        try
+        {
+            addServices(registry.getServiceDetail(keys), services);
+        }
+        catch (RegistryException e)
+        {
+            if (!e.hasErrno(RegistryException.E_INVALID_KEY_PASSED))
+            {
+                throw new JAXRException(e);
+            }
+            for (String key : keys)
+            {
+                try
+                {
+                    addServices(registry.getServiceDetail(key), services);
+                }
+                catch (RegistryException ke)
+                {
+                    if (!ke.hasErrno(RegistryException.E_INVALID_KEY_PASSED))
+                    {
+                        throw new JAXRException(ke);
+                    }
+                }
+            }
+        }
+        return services;
+    }
+
+    private void addServices(ServiceDetail detail, List<Service> services) throws JAXRException
+    {
+        if (detail == null)
+        {
+            return;
+        }
+        LifeCycleManager lcm = registryService.getLifeCycleManagerImpl();
+        for (BusinessService businessService : detail.getBusinessService())
+        {
+            services.add(getServiceFromBusinessService(businessService, lcm));
+        }
+    }
+
     /**
      *  Helper routine to take a jUDDI business service and turn into a useful
      *  Service.  Needs to go back to the registry to get the organization to
@@ -803,18 +1151,31 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
             LifeCycleManager.ORGANIZATION,
             LifeCycleManager.SERVICE};
 
-        LinkedHashSet<Object> c = new LinkedHashSet<Object>();
-
-        for (int i = 0; i < types.length; i++) {
-            try {
-                BulkResponse bk = getRegistryObjects(types[i]);
+        // the types are independent, so they are fetched concurrently
+        List<Callable<BulkResponse>> tasks = new ArrayList<Callable<BulkResponse>>(types.length);
+        for (final String type : types) {
+            tasks.add(new Callable<BulkResponse>() {
+                public BulkResponse call() {
+                    try {
+                        return getRegistryObjects(type);
+                    } catch(JAXRException e) {
+                        log.debug("ignore - just a problem with that type? " + e.getMessage(), e);
+                        return null;
+                    }
+                }
+            });
+        }
 
-                if (bk.getCollection() != null) {
+        LinkedHashSet<Object> c = new LinkedHashSet<Object>();
+        QueryScope scope = enterQuery();
+        try {
+            for (BulkResponse bk : ParallelQuery.invokeAll(registryService.getConnection(), tasks)) {
+                if (bk != null && bk.getCollection() != null) {
                     c.addAll(bk.getCollection());
                 }
-            } catch(JAXRException e) {
-            	log.debug("ignore - just a problem with that type? " + e.getMessage(), e);
             }
+        } finally {
+            QueryScope.exit(scope);
         }
 
         return new BulkResponseImpl(c);
@@ -826,6 +1187,19 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
     }
 
     public BulkResponse getRegistryObjects(Collection objectKeys, String objectType) throws JAXRException
+    {
+        QueryScope scope = enterQuery();
+        try
+        {
+            return loadRegistryObjects(objectKeys, objectType);
+        }
+        finally
+        {
+            QueryScope.exit(scope);
+        }
+    }
+
+    private BulkResponse loadRegistryObjects(Collection objectKeys, String objectType) throws JAXRException
     {
         IRegistry registry = (IRegistry) registryService.getRegistry();
         //Convert into a vector of strings
@@ -836,18 +1210,22 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
             currLoc++;
         }
         LinkedHashSet<RegistryObject> col = new LinkedHashSet<RegistryObject>();
+        Collection<Exception> exceptions = new ArrayList<Exception>();
         LifeCycleManager lcm = registryService.getLifeCycleManagerImpl();
 
         if (LifeCycleManager.CLASSIFICATION_SCHEME.equalsIgnoreCase(objectType))
         {
             try
             {
-                TModelDetail tmodeldetail = registry.getTModelDetail(keys);
-                List<TModel> tmodelList = tmodeldetail.getTModel();
-
-                for (TModel tModel: tmodelList)
-                {
-                    col.add(ScoutUddiJaxrHelper.getConcept(tModel, lcm));
+                String[] missing = addCached(keys, objectType, col);
+                if (missing.length > 0) {
+                    TModelDetail tmodeldetail = registry.getTModelDetail(missing);
+                    List<TModel> tmodelList = tmodeldetail.getTModel();
+
+                    for (TModel tModel: tmodelList)
+                    {
+                        col.add(QueryScope.register(objectType, tModel.getTModelKey(), ScoutUddiJaxrHelper.getConcept(tModel, lcm)));
+                    }
                 }
 
             } catch (RegistryException e)
@@ -857,43 +1235,22 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
         }
         else if (LifeCycleManager.ORGANIZATION.equalsIgnoreCase(objectType))
         {
-        	ConnectionImpl con = ((RegistryServiceImpl)getRegistryService()).getConnection();
-            AuthToken auth = this.getAuthToken(con,registry);
-        	
-            try
-            {
-            	RegisteredInfo ri = null;
-            	try {
-            		ri = registry.getRegisteredInfo(auth.getAuthInfo());
-            	} catch (RegistryException rve) {
-            		String username = getUsernameFromCredentials(con.getCredentials());
-            		if (AuthTokenSingleton.getToken(username) != null) {
-            			AuthTokenSingleton.deleteAuthToken(username);
-            		}
-            		auth = getAuthToken(con, registry);
-            		ri = registry.getRegisteredInfo(auth.getAuthInfo());
-            	}
-
-            	if (ri != null) {
-						for (String key:keys) {
-							BusinessDetail detail = registry.getBusinessDetail(key);
-                            col.add(((BusinessLifeCycleManagerImpl)registryService.getLifeCycleManagerImpl()).createOrganization(detail));
-                        }
-                    
-                }
-            } catch (RegistryException e) {
-                    throw new JAXRException(e.getLocalizedMessage());
-            }
+            // get_businessDetail is an inquiry call, there is no need to
+            // authenticate or to look at the caller's registered info first
+            addOrganizations(registry, addCached(keys, objectType, col), col, exceptions);
         }
         else if (LifeCycleManager.CONCEPT.equalsIgnoreCase(objectType))
         {
             try {
-                TModelDetail tmodeldetail = registry.getTModelDetail(keys);
-                List<TModel> tmodelList = tmodeldetail.getTModel();
-
-                for (TModel tmodel: tmodelList)
-                {
-                    col.add(ScoutUddiJaxrHelper.getConcept(tmodel, lcm));
+                String[] missing = addCached(keys, objectType, col);
+                if (missing.length > 0) {
+                    TModelDetail tmodeldetail = registry.getTModelDetail(missing);
+                    List<TModel> tmodelList = tmodeldetail.getTModel();
+
+                    for (TModel tmodel: tmodelList)
+                    {
+                        col.add(QueryScope.register(objectType, tmodel.getTModelKey(), ScoutUddiJaxrHelper.getConcept(tmodel, lcm)));
+                    }
                 }
 
             }
@@ -905,7 +1262,8 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
         else if (LifeCycleManager.SERVICE.equalsIgnoreCase(objectType)) {
 
             try {
-                ServiceDetail serviceDetail = registry.getServiceDetail(keys);
+                String[] missing = addCached(keys, objectType, col);
+                ServiceDetail serviceDetail = missing.length > 0 ? registry.getServiceDetail(missing) : null;
 
                 if (serviceDetail != null) {
                     List<BusinessService> bizServiceList = serviceDetail.getBusinessService();
@@ -914,7 +1272,7 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
 
                         Service service = getServiceFromBusinessService(businessService, lcm);
                         
-                        col.add(service);
+                        col.add(QueryScope.register(objectType, businessService.getServiceKey(), service));
                     }
                 }
             }
@@ -927,7 +1285,9 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
                     " for getRegistryObjects() in Apache Scout");
         }
 
-        return new BulkResponseImpl(col);
+        BulkResponseImpl response = new BulkResponseImpl(col);
+        response.setExceptions(exceptions);
+        return response;
 
     }
 
@@ -937,7 +1297,8 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
             IRegistry registry = (IRegistry) registryService.getRegistry();
         	ConnectionImpl con = ((RegistryServiceImpl)getRegistryService()).getConnection();
             AuthToken auth = this.getAuthToken(con,registry);
-    		LinkedHashSet<Organization> orgs = null;
+    		LinkedHashSet<RegistryObject> orgs = null;
+    		Collection<Exception> exceptions = null;
             try
             {
             	RegisteredInfo ri = null;
@@ -954,17 +1315,23 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
 
             	if (ri != null && ri.getBusinessInfos()!=null) {
             		List<BusinessInfo> bizInfoList = ri.getBusinessInfos().getBusinessInfo();
-            		orgs = new LinkedHashSet<Organization>();
-            		for (BusinessInfo businessInfo : bizInfoList) {
-            			BusinessDetail detail = registry.getBusinessDetail(businessInfo.getBusinessKey());
-                        orgs.add(((BusinessLifeCycleManagerImpl)registryService.getLifeCycleManagerImpl()).createOrganization(detail));
-					}
+            		String[] keys = new String[bizInfoList.size()];
+            		for (int i = 0; i < keys.length; i++) {
+            			keys[i] = bizInfoList.get(i).getBusinessKey();
+            		}
+            		orgs = new LinkedHashSet<RegistryObject>();
+            		exceptions = new ArrayList<Exception>();
+            		addOrganizations(registry, keys, orgs, exceptions);
             	}
             	
             } catch (RegistryException re) {
             	throw new JAXRException(re);
             }
-            return new BulkResponseImpl(orgs);
+            BulkResponseImpl response = new BulkResponseImpl(orgs);
+            if (exceptions != null) {
+                response.setExceptions(exceptions);
+            }
+            return response;
         }
         else if (LifeCycleManager.SERVICE.equalsIgnoreCase(id)) {
             List<String> a = new ArrayList<String>();
@@ -1059,6 +1426,115 @@ public class BusinessQueryManagerImpl implements BusinessQueryManager
         
         return token;
     }
+
+    /**
+     * Adds the organizations for the given keys to the collection, asking
+     * the registry for at most {@link #MAX_DETAIL_KEYS} businesses per
+     * get_businessDetail call. A registry rejects the whole call when one
+     * of the keys is unknown, in which case the keys of that call are
+     * fetched one by one and the unknown ones are reported in the exceptions.
+     */
+    private void addOrganizations(final IRegistry registry, String[] keys,
+                                  Collection<RegistryObject> col, Collection<Exception> exceptions)
+        throws JAXRException
+    {
+        // the chunks are independent, so they are fetched concurrently
+        final Collection<Exception> failures = Collections.synchronizedList(new ArrayList<Exception>());
+        List<Callable<List<RegistryObject>>> tasks = new ArrayList<Callable<List<RegistryObject>>>();
+        for (int from = 0; from < keys.length; from += MAX_DETAIL_KEYS)
+        {
+            final String[] chunk = new String[Math.min(MAX_DETAIL_KEYS, keys.length - from)];
+            System.arraycopy(keys, from, chunk, 0, chunk.length);
+            tasks.add(new Callable<List<RegistryObject>>() {
+                public List<RegistryObject> call() throws JAXRException {
+                    return getOrganizations(registry, chunk, failures);
+                }
+            });
+        }
+        for (List<RegistryObject> orgs : ParallelQuery.invokeAll(registryService.getConnection(), tasks))
+        {
+            col.addAll(orgs);
+        }
+        exceptions.addAll(failures);
+    }
+
+    private List<RegistryObject> getOrganizations(IRegistry registry, String[] chunk, Collection<Exception> exceptions)
+        throws JAXRException
+    {
+        List<RegistryObject> col = new ArrayList<RegistryObject>(chunk.length);
+        try
+        {
+            addOrganizations(registry.getBusinessDetail(chunk), col);
+        }
+        catch (RegistryException e)
+        {
+            if (!e.hasErrno(RegistryException.E_INVALID_KEY_PASSED))
+            {
+                throw new JAXRException(e);
+            }
+            for (String key : chunk)
+            {
+                try
+                {
+                    addOrganizations(registry.getBusinessDetail(key), col);
+                }
+                catch (RegistryException ke)
+                {
+                    if (!ke.hasErrno(RegistryException.E_INVALID_KEY_PASSED))
+                    {
+                        throw new JAXRException(ke);
+                    }
+                    exceptions.add(new InvalidRequestException("No organization found for key " + key, ke));
+                }
+            }
+        }
+        return col;
+    }
+
+    private void addOrganizations(BusinessDetail detail, Collection<RegistryObject> col)
+        throws JAXRException
+    {
+        if (detail == null)
+        {
+            return;
+        }
+        LifeCycleManager lcm = registryService.getLifeCycleManagerImpl();
+        for (BusinessEntity entity : detail.getBusinessEntity())
+        {
+            col.add(QueryScope.register(LifeCycleManager.ORGANIZATION, entity.getBusinessKey(),
+                    ScoutUddiJaxrHelper.getOrganizationDetail(entity, lcm)));
+        }
+    }
+
+    /**
+     * Adds the objects of the given type that were already built in this
+     * query to the collection.
+     *
+     * @return the keys that still have to be fetched from the registry
+     */
+    private String[] addCached(String[] keys, String objectType, Collection<RegistryObject> col)
+    {
+        List<String> missing = new ArrayList<String>(keys.length);
+        for (String key : keys) {
+            RegistryObject cached = (RegistryObject) QueryScope.lookup(objectType, key);
+            if (cached != null) {
+                col.add(cached);
+            } else {
+                missing.add(key);
+            }
+        }
+        return missing.toArray(new String[missing.size()]);
+    }
+
+    /**
+     * Starts the scope in which the results of one query are built, see
+     * {@link QueryScope}.
+     */
+    private QueryScope enterQuery()
+    {
+        ConnectionImpl con = registryService.getConnection();
+        return QueryScope.enter(con != null ? con.getInternTable() : null);
+    }
     
     private String getUsernameFromCredentials(Set credentials) {
         String username = "", pwd = "";
@@ -25,7 +25,6 @@ import javax.xml.registry.ConnectionFactory;
 import javax.xml.registry.FederatedConnection;
 import javax.xml.registry.InvalidRequestException;
 import javax.xml.registry.JAXRException;
-import javax.xml.registry.UnsupportedCapabilityException;
 
 /**
  * Our implmentation of javax.xml.registry.ConnectionFactory.
@@ -53,6 +52,40 @@ public class ConnectionFactoryImpl extends ConnectionFactory implements Serializ
 	public static final String PROTOCOL_HANDLER_PROPERTY     = "scout.proxy.protocolHandler";
 	public static final String UDDI_VERSION_PROPERTY         = "scout.proxy.uddiVersion";
 	public static final String UDDI_NAMESPACE_PROPERTY       = "scout.proxy.uddiNamespace";
+	public static final String INVM_PROPERTY                 = "scout.proxy.inVM";
+	public static final String INTERN_SCOPE_PROPERTY         = "scout.proxy.internScope";
+	public static final String FROZEN_RESULTS_PROPERTY       = "scout.proxy.frozenResults";
+	public static final String QUERY_THREADS_PROPERTY        = "scout.proxy.queryThreads";
+	public static final String POOLED_PROPERTY               = "scout.proxy.pooled";
+	public static final String POOL_MAX_SIZE_PROPERTY        = "scout.proxy.pool.maxSize";
+	public static final String POOL_IDLE_TIMEOUT_PROPERTY    = "scout.proxy.pool.idleTimeout";
+	public static final String FEDERATION_TIMEOUT_PROPERTY   = "scout.proxy.federation.timeout";
+	public static final String ENDPOINT_POLICY_PROPERTY      = "scout.proxy.endpoint.policy";
+	public static final String ENDPOINT_MAX_FAILURES_PROPERTY = "scout.proxy.endpoint.maxFailures";
+	public static final String ENDPOINT_EJECT_TIME_PROPERTY  = "scout.proxy.endpoint.ejectTime";
+	public static final String UDDI_NODES_PROPERTY           = "scout.proxy.uddiNodes";
+	public static final String CIRCUIT_BREAKER_PROPERTY      = "scout.proxy.circuitBreaker";
+	public static final String CIRCUIT_BREAKER_FAILURE_RATE_PROPERTY = "scout.proxy.circuitBreaker.failureRate";
+	public static final String CIRCUIT_BREAKER_WINDOW_PROPERTY = "scout.proxy.circuitBreaker.window";
+	public static final String CIRCUIT_BREAKER_SLOW_CALL_PROPERTY = "scout.proxy.circuitBreaker.slowCallTime";
+	public static final String CIRCUIT_BREAKER_OPEN_TIME_PROPERTY = "scout.proxy.circuitBreaker.openTime";
+	public static final String CONCURRENCY_LIMIT_PROPERTY    = "scout.proxy.concurrencyLimit";
+	public static final String HEDGE_PROPERTY                = "scout.proxy.hedge";
+	public static final String HEDGE_PERCENTILE_PROPERTY     = "scout.proxy.hedge.percentile";
+	public static final String HEDGE_MIN_DELAY_PROPERTY      = "scout.proxy.hedge.minDelay";
+	public static final String RETRY_MAX_ATTEMPTS_PROPERTY   = "scout.proxy.retry.maxAttempts";
+	public static final String RETRY_BASE_DELAY_PROPERTY     = "scout.proxy.retry.baseDelay";
+	public static final String RETRY_MAX_DELAY_PROPERTY      = "scout.proxy.retry.maxDelay";
+	public static final String RETRY_BUDGET_PROPERTY         = "scout.proxy.retry.budget";
+	public static final String COALESCE_INQUIRIES_PROPERTY   = "scout.proxy.coalesceInquiries";
+	public static final String BATCH_WINDOW_PROPERTY         = "scout.proxy.batch.window";
+	public static final String BATCH_MAX_KEYS_PROPERTY       = "scout.proxy.batch.maxKeys";
+	public static final String CALL_TIMEOUT_PROPERTY         = "scout.proxy.callTimeout";
+	public static final String OPERATION_TIMEOUT_PROPERTY    = "scout.proxy.operationTimeout";
+	public static final String VIRTUAL_THREADS_PROPERTY      = "scout.proxy.virtualThreads";
+
+	// shared by all factories, connections with the same properties share a registry client
+	private static final ConnectionPool pool = new ConnectionPool();
 	
 	private Properties properties = new Properties();
 
@@ -67,12 +100,21 @@ public class ConnectionFactoryImpl extends ConnectionFactory implements Serializ
         //The JAXR spec requires the queryManagerURL to be defined
         String queryManagerURL = properties.getProperty(QUERYMANAGER_PROPERTY);
         if (queryManagerURL==null) throw new InvalidRequestException("Missing required property " + QUERYMANAGER_PROPERTY);
+        if (Boolean.valueOf(properties.getProperty(POOLED_PROPERTY))) {
+            return pool.createConnection(properties);
+        }
         return new ConnectionImpl(properties);
     }
 
+    /**
+     * Creates a read only connection that queries all the given connections.
+     *
+     * @param collection the member connections
+     * @return a FederatedConnection over the members
+     */
     public FederatedConnection createFederatedConnection(Collection collection) throws JAXRException
     {
-        throw new UnsupportedCapabilityException("FederatedConnections are not supported in this release");
+        return new FederatedConnectionImpl(collection, properties);
     }
 
     /**
@@ -19,16 +19,16 @@ package org.apache.ws.scout.registry;
 import java.io.Serializable;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import javax.xml.registry.Connection;
 import javax.xml.registry.InvalidRequestException;
 import javax.xml.registry.JAXRException;
 import javax.xml.registry.RegistryService;
 
-import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.juddi.v3.client.config.UDDIClerkManager;
+import org.apache.ws.scout.util.InternTable;
 
 /**
  * Apache Scout Implementation of a JAXR Connection.
@@ -42,80 +42,106 @@ public class ConnectionImpl implements Connection, Serializable
     public static final String JUDDI_CLIENT_CONFIG_FILE         = "scout.juddi.client.config.file";
     public static final String DEFAULT_JUDDI_CLIENT_CONFIG_FILE = "META-INF/jaxr-uddi.xml";
     public static final String DEFAULT_UDDI_VERSION             = "2.0";
+    // the calls of a query are only made concurrently when asked for
+    public static final int    DEFAULT_QUERY_THREADS            = 1;
     
 	private static final long serialVersionUID = 3542404895814764176L;
 	private static Log log = LogFactory.getLog(ConnectionImpl.class);
-	private boolean closed = false;
+	private volatile boolean closed = false;
     private boolean synchronous = true;
     private Set credentials;
-    private final IRegistryBase registry;
+    private final RegistryClient client;
+    private final transient ConnectionPool pool;
     private final String postalScheme;
     private final int maxRows;
-    private String uddiVersion;
-    UDDIClerkManager manager = null;
+    private final boolean frozenResults;
+    private final long operationTimeout;
 
     public ConnectionImpl(Properties properties) throws InvalidRequestException
+    {
+        this(properties, new RegistryClient(properties), null);
+    }
+
+    /**
+     * Creates a connection on a registry client that may be shared with
+     * other connections.
+     * @param pool - the pool the client is returned to on close, or null
+     * if the connection owns the client.
+     */
+    ConnectionImpl(Properties properties, RegistryClient client, ConnectionPool pool)
     {
         postalScheme = properties.getProperty(ConnectionFactoryImpl.POSTALADDRESSSCHEME_PROPERTY);
         String val = properties.getProperty(ConnectionFactoryImpl.MAXROWS_PROPERTY);
         maxRows = (val == null) ? -1 : Integer.valueOf(val);
-        uddiVersion = properties.getProperty(ConnectionFactoryImpl.UDDI_VERSION_PROPERTY, DEFAULT_UDDI_VERSION);
-        //The TCK does not set the UDDI_VERSION, so if the lifecycle URL contains 'v3' we 
-        //automagically set the version to be "3.0"
-        if (!properties.contains(ConnectionFactoryImpl.UDDI_VERSION_PROPERTY) 
-                && (properties.contains(ConnectionFactoryImpl.LIFECYCLEMANAGER_PROPERTY)) 
-                && properties.getProperty(ConnectionFactoryImpl.LIFECYCLEMANAGER_PROPERTY).contains("v3") ) {
-            properties.setProperty(ConnectionFactoryImpl.UDDI_VERSION_PROPERTY, "3.0");
-            uddiVersion = "3.0";
-            String securityManager = properties.getProperty(ConnectionFactoryImpl.LIFECYCLEMANAGER_PROPERTY).replace("publish", "security");
-            properties.setProperty(ConnectionFactoryImpl.SECURITYMANAGER_PROPERTY, securityManager);
-        }
-     
-        String uddiConfigFile      = properties.getProperty(JUDDI_CLIENT_CONFIG_FILE);// DEFAULT_JUDDI_CLIENT_CONFIG_FILE);
-        if (isUDDIv3(uddiVersion)) {
-            String nodeName = null;
-            String managerName = null;
-            if (manager==null && uddiConfigFile!=null) {
-                try {
-                    manager = new UDDIClerkManager(uddiConfigFile, properties);
-                    manager.start();
-                } catch (ConfigurationException e) {
-                    log.error(e.getMessage(),e);
-                }
-            }
-            if (manager !=null) {
-                try {
-                    managerName = manager.getName();
-                    nodeName = manager.getClientConfig().getHomeNode().getName();
-                } catch (ConfigurationException e) {
-                    log.error(e.getMessage(),e);
-                }
-            }
-            registry = new RegistryV3Impl(properties, nodeName, managerName);
-        } else {
-            registry = new RegistryImpl(properties);           	
-        }
-
-        //this.postalScheme = postalScheme;
-        //this.maxRows = maxRows;
-
-    }
-    
-    private boolean isUDDIv3(String version) {
-        if (version.startsWith("3")) return true;
-        return false;
+        frozenResults = Boolean.valueOf(properties.getProperty(ConnectionFactoryImpl.FROZEN_RESULTS_PROPERTY));
+        val = properties.getProperty(ConnectionFactoryImpl.OPERATION_TIMEOUT_PROPERTY);
+        operationTimeout = (val == null) ? 0 : Long.parseLong(val.trim());
+        this.client = client;
+        this.pool = pool;
     }
 
     public RegistryService getRegistryService() throws JAXRException
     {
-        RegistryServiceImpl reg = new RegistryServiceImpl(registry, postalScheme, maxRows, uddiVersion);
+        RegistryServiceImpl reg = new RegistryServiceImpl(client.getRegistry(), postalScheme, maxRows, client.getUddiVersion());
         reg.setConnection(this);
         return reg;
     }
 
-    public void close()
+    /**
+     * @return the interning table shared by all queries on this connection,
+     * or null when each query uses its own.
+     */
+    public InternTable getInternTable()
+    {
+        return client.getInternTable();
+    }
+
+    /**
+     * @return true if query results are returned frozen
+     * @see org.apache.ws.scout.registry.infomodel.Freezable
+     */
+    public boolean isFrozenResults()
     {
+        return frozenResults;
+    }
+
+    /**
+     * @return the time in milliseconds that the registry calls of one
+     * operation may take together, or 0 for no limit.
+     */
+    public long getOperationTimeout()
+    {
+        return operationTimeout;
+    }
+
+    /**
+     * Returns the bounded executor on which a query runs its independent
+     * registry calls concurrently, when {@link ConnectionFactoryImpl#QUERY_THREADS_PROPERTY}
+     * is more than one. The threads are started on first use, stop after a
+     * minute of idling, and are shut down when the connection, or the pool it
+     * came from, is done with them.
+     * @return the executor, or null when the connection runs them one by one.
+     */
+    public ExecutorService getQueryExecutor()
+    {
+        return closed ? null : client.getQueryExecutor();
+    }
+
+    /**
+     * Closes the connection. A pooled connection returns its registry
+     * client to the pool, otherwise the client is closed with it.
+     */
+    public synchronized void close()
+    {
+        if (closed) {
+            return;
+        }
         closed = true;
+        if (pool != null) {
+            pool.release(client);
+        } else {
+            client.close();
+        }
     }
 
     public boolean isClosed()
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.xml.registry.InvalidRequestException;
+
+/**
+ * Shares {@link RegistryClient}s between the connections created with the
+ * same properties, so that creating a connection does not parse the
+ * endpoint URIs, load the transport or start a jUDDI clerk manager again.
+ *
+ * <p>The pool keeps at most {@link ConnectionFactoryImpl#POOL_MAX_SIZE_PROPERTY}
+ * clients. A client that no open connection uses is closed once it has been
+ * idle for {@link ConnectionFactoryImpl#POOL_IDLE_TIMEOUT_PROPERTY}
+ * milliseconds, or when its slot is needed for other properties. When all
+ * slots are in use, the connection gets a client of its own.</p>
+ */
+final class ConnectionPool
+{
+    static final int  DEFAULT_MAX_SIZE     = 16;
+    static final long DEFAULT_IDLE_TIMEOUT = 300000L;
+
+    private static final class Entry
+    {
+        final RegistryClient client;
+        int connections;
+        long lastUsed;
+
+        Entry(RegistryClient client)
+        {
+            this.client = client;
+        }
+    }
+
+    // in least recently used order
+    private final Map<Map<Object, Object>, Entry> entries =
+        new LinkedHashMap<Map<Object, Object>, Entry>(16, 0.75f, true);
+    private final Map<RegistryClient, Entry> clients = new HashMap<RegistryClient, Entry>();
+
+    /**
+     * @return a new connection on the pooled client for the given properties.
+     */
+    ConnectionImpl createConnection(Properties properties) throws InvalidRequestException
+    {
+        RegistryClient.normalize(properties);
+        RegistryClient client = acquire(properties);
+        if (client == null) {
+            return new ConnectionImpl(properties);
+        }
+        return new ConnectionImpl(properties, client, this);
+    }
+
+    private synchronized RegistryClient acquire(Properties properties) throws InvalidRequestException
+    {
+        long now = System.currentTimeMillis();
+        evictIdle(now, getLong(properties, ConnectionFactoryImpl.POOL_IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT));
+
+        Map<Object, Object> key = new HashMap<Object, Object>(properties);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            int maxSize = (int) getLong(properties, ConnectionFactoryImpl.POOL_MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+            if (entries.size() >= maxSize && !evictEldestIdle()) {
+                return null;
+            }
+            entry = new Entry(new RegistryClient(properties));
+            entries.put(key, entry);
+            clients.put(entry.client, entry);
+        }
+        entry.connections++;
+        entry.lastUsed = now;
+        return entry.client;
+    }
+
+    /**
+     * Called when a pooled connection is closed.
+     */
+    synchronized void release(RegistryClient client)
+    {
+        Entry entry = clients.get(client);
+        if (entry == null) {
+            // no longer pooled
+            client.close();
+            return;
+        }
+        entry.connections--;
+        entry.lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the number of clients in the pool.
+     */
+    synchronized int size()
+    {
+        return entries.size();
+    }
+
+    private void evictIdle(long now, long idleTimeout)
+    {
+        for (Iterator<Entry> i = entries.values().iterator(); i.hasNext();) {
+            Entry entry = i.next();
+            if (entry.connections == 0 && now - entry.lastUsed >= idleTimeout) {
+                i.remove();
+                clients.remove(entry.client);
+                entry.client.close();
+            }
+        }
+    }
+
+    private boolean evictEldestIdle()
+    {
+        for (Iterator<Entry> i = entries.values().iterator(); i.hasNext();) {
+            Entry entry = i.next();
+            if (entry.connections == 0) {
+                i.remove();
+                clients.remove(entry.client);
+                entry.client.close();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long getLong(Properties properties, String name, long defaultValue)
+    {
+        String val = properties.getProperty(name);
+        return (val == null) ? defaultValue : Long.parseLong(val.trim());
+    }
+}
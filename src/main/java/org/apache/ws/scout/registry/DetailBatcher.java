@@ -0,0 +1,181 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.ws.scout.util.Deadline;
+
+/**
+ * Gathers the single key get_*Detail calls made from several threads into
+ * one call for all their keys. The first caller waits for the window, or
+ * until the batch is full, then makes the call for the batch; each caller
+ * gets a detail holding its own entry.
+ *
+ * <p>A registry rejects the whole call when one of the keys is unknown,
+ * so when a batch gets a fault each caller asks for its own key alone.</p>
+ *
+ * <p>The callers that did not make the call wait for it at most until the
+ * {@link Deadline} of their thread.</p>
+ *
+ * @param <D> the detail type, such as BusinessDetail.
+ */
+abstract class DetailBatcher<D>
+{
+    static final int DEFAULT_MAX_KEYS = 50;
+
+    private final class Batch
+    {
+        final Set<String> keys = new LinkedHashSet<String>();
+        final CountDownLatch done = new CountDownLatch(1);
+        D detail;
+        Exception failure;
+    }
+
+    private final long window;
+    private final int maxKeys;
+    private Batch open;
+
+    /**
+     * @param window - how long the first key waits for others, in milliseconds.
+     * @param maxKeys - the number of keys that closes a batch early.
+     */
+    DetailBatcher(long window, int maxKeys)
+    {
+        this.window = window;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Makes the get_*Detail call for the keys.
+     */
+    abstract D fetch(String[] keys) throws Exception;
+
+    /**
+     * @return a detail with the entry of the key in the batch detail.
+     */
+    abstract D select(D detail, String key);
+
+    /**
+     * @return the detail for the key.
+     * @throws ExecutionException with the exception of the call.
+     * @throws TimeoutException if the deadline passed while waiting for the
+     * call of the batch.
+     */
+    D get(String key) throws ExecutionException, InterruptedException, TimeoutException
+    {
+        Batch batch;
+        boolean first;
+        synchronized (this)
+        {
+            first = open == null;
+            if (first)
+            {
+                open = new Batch();
+            }
+            batch = open;
+            batch.keys.add(key);
+            if (batch.keys.size() >= maxKeys)
+            {
+                open = null;
+                notifyAll();
+            }
+        }
+        if (first)
+        {
+            try
+            {
+                close(batch);
+            }
+            finally
+            {
+                run(batch);
+            }
+        }
+        else
+        {
+            long remaining = Deadline.remaining();
+            if (remaining < 0)
+            {
+                batch.done.await();
+            }
+            else if (!batch.done.await(remaining, TimeUnit.MILLISECONDS))
+            {
+                throw new TimeoutException("The deadline passed while waiting for the batch of " + key);
+            }
+        }
+
+        if (batch.failure == null)
+        {
+            return batch.keys.size() == 1 ? batch.detail : select(batch.detail, key);
+        }
+        if (batch.keys.size() == 1 || RetryPolicy.isTransportFailure(batch.failure))
+        {
+            throw new ExecutionException(batch.failure);
+        }
+        try
+        {
+            return fetch(new String[] { key });
+        }
+        catch (Exception e)
+        {
+            throw new ExecutionException(e);
+        }
+    }
+
+    /**
+     * Waits until the window has passed or the batch is full.
+     */
+    private synchronized void close(Batch batch) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + window;
+        try
+        {
+            for (long wait = window; open == batch && wait > 0; wait = deadline - System.currentTimeMillis())
+            {
+                wait(wait);
+            }
+        }
+        finally
+        {
+            if (open == batch)
+            {
+                open = null;
+            }
+        }
+    }
+
+    private void run(Batch batch)
+    {
+        try
+        {
+            batch.detail = fetch(batch.keys.toArray(new String[batch.keys.size()]));
+        }
+        catch (Exception e)
+        {
+            batch.failure = e;
+        }
+        finally
+        {
+            batch.done.countDown();
+        }
+    }
+}
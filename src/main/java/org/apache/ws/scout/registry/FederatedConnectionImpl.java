@@ -0,0 +1,151 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import javax.xml.registry.Connection;
+import javax.xml.registry.FederatedConnection;
+import javax.xml.registry.InvalidRequestException;
+import javax.xml.registry.JAXRException;
+import javax.xml.registry.RegistryService;
+
+import org.apache.ws.scout.util.TaskExecutors;
+
+/**
+ * Apache Scout Implementation of a JAXR FederatedConnection.
+ * Queries are sent to all member connections concurrently, and their
+ * results are merged. The federation is read only.
+ *
+ * <p>A member that fails, or does not answer within
+ * {@link ConnectionFactoryImpl#FEDERATION_TIMEOUT_PROPERTY} milliseconds,
+ * is reported as an exception of a partial BulkResponse. A lookup of a
+ * single object that no member found throws when any member failed.
+ * Closing the federated connection does not close its members.</p>
+ */
+public class FederatedConnectionImpl implements FederatedConnection
+{
+    public static final long DEFAULT_MEMBER_TIMEOUT = 30000L;
+
+    private final List<Connection> members;
+    private final long memberTimeout;
+    private final boolean virtualThreads;
+    private volatile boolean closed = false;
+    private boolean synchronous = true;
+    private Set credentials;
+    private ExecutorService executor;
+
+    public FederatedConnectionImpl(Collection connections, Properties properties) throws JAXRException
+    {
+        if (connections == null || connections.isEmpty()) {
+            throw new InvalidRequestException("A federated connection needs at least one member connection");
+        }
+        List<Connection> list = new ArrayList<Connection>(connections.size());
+        for (Object o : connections) {
+            if (!(o instanceof Connection)) {
+                throw new InvalidRequestException("Not a Connection: " + o);
+            }
+            list.add((Connection) o);
+        }
+        members = Collections.unmodifiableList(list);
+        String val = properties.getProperty(ConnectionFactoryImpl.FEDERATION_TIMEOUT_PROPERTY);
+        memberTimeout = (val == null) ? DEFAULT_MEMBER_TIMEOUT : Long.parseLong(val.trim());
+        virtualThreads = Boolean.valueOf(properties.getProperty(ConnectionFactoryImpl.VIRTUAL_THREADS_PROPERTY));
+    }
+
+    public RegistryService getRegistryService() throws JAXRException
+    {
+        return new FederatedRegistryService(this);
+    }
+
+    /**
+     * @return the member connections, in the order they were given.
+     */
+    public List<Connection> getMembers()
+    {
+        return members;
+    }
+
+    /**
+     * @return how long a query waits for the members, in milliseconds;
+     * zero or less waits until all of them have answered.
+     */
+    public long getMemberTimeout()
+    {
+        return memberTimeout;
+    }
+
+    /**
+     * Returns the executor that queries the members. It starts a thread for
+     * each query sent while the others are busy, so that a member that hangs
+     * past the member timeout does not hold up the later queries; idle
+     * threads stop after a minute.
+     * @return the executor, or null once the connection is closed.
+     */
+    synchronized ExecutorService getExecutor()
+    {
+        if (executor == null && !closed) {
+            executor = TaskExecutors.newCached("scout-federation-", Integer.MAX_VALUE, virtualThreads);
+        }
+        return executor;
+    }
+
+    public synchronized void close()
+    {
+        closed = true;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    public Set getCredentials()
+    {
+        return credentials;
+    }
+
+    /**
+     * Sets the credentials of this connection and of all its members.
+     */
+    public void setCredentials(Set credentials) throws JAXRException
+    {
+        this.credentials = credentials;
+        for (Connection member : members) {
+            member.setCredentials(credentials);
+        }
+    }
+
+    public boolean isSynchronous()
+    {
+        return synchronous;
+    }
+
+    public void setSynchronous(boolean synchronous)
+    {
+        this.synchronous = synchronous;
+    }
+}
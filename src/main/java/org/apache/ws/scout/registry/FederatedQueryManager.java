@@ -0,0 +1,453 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.xml.registry.BulkResponse;
+import javax.xml.registry.BusinessQueryManager;
+import javax.xml.registry.Connection;
+import javax.xml.registry.JAXRException;
+import javax.xml.registry.RegistryService;
+import javax.xml.registry.infomodel.ClassificationScheme;
+import javax.xml.registry.infomodel.Concept;
+import javax.xml.registry.infomodel.Key;
+import javax.xml.registry.infomodel.RegistryObject;
+
+/**
+ * BusinessQueryManager of a {@link FederatedConnectionImpl}. Every query is
+ * sent to the query managers of all member connections at once. The
+ * collections they return are merged in member order, keeping the first
+ * object found for each key. Members that fail or time out are reported
+ * as exceptions of a partial BulkResponse.
+ */
+class FederatedQueryManager implements BusinessQueryManager
+{
+    /**
+     * A query sent to one member.
+     */
+    private interface MemberQuery<T>
+    {
+        T run(BusinessQueryManager queryManager) throws JAXRException;
+    }
+
+    private final FederatedRegistryService registryService;
+
+    FederatedQueryManager(FederatedRegistryService registryService)
+    {
+        this.registryService = registryService;
+    }
+
+    public RegistryService getRegistryService() throws JAXRException
+    {
+        return registryService;
+    }
+
+    public BulkResponse findOrganizations(final Collection findQualifiers,
+                                          final Collection namePatterns,
+                                          final Collection classifications,
+                                          final Collection specifications,
+                                          final Collection externalIdentifiers,
+                                          final Collection externalLinks) throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.findOrganizations(findQualifiers, namePatterns, classifications,
+                        specifications, externalIdentifiers, externalLinks);
+            }
+        });
+    }
+
+    public BulkResponse findAssociations(final Collection findQualifiers,
+                                         final String sourceObjectId,
+                                         final String targetObjectId,
+                                         final Collection associationTypes) throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.findAssociations(findQualifiers, sourceObjectId, targetObjectId,
+                        associationTypes);
+            }
+        });
+    }
+
+    public BulkResponse findCallerAssociations(final Collection findQualifiers,
+                                               final Boolean confirmedByCaller,
+                                               final Boolean confirmedByOtherParty,
+                                               final Collection associationTypes) throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.findCallerAssociations(findQualifiers, confirmedByCaller,
+                        confirmedByOtherParty, associationTypes);
+            }
+        });
+    }
+
+    public ClassificationScheme findClassificationSchemeByName(final Collection findQualifiers,
+                                                               final String namePattern) throws JAXRException
+    {
+        return first(new MemberQuery<ClassificationScheme>()
+        {
+            public ClassificationScheme run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.findClassificationSchemeByName(findQualifiers, namePattern);
+            }
+        });
+    }
+
+    public BulkResponse findClassificationSchemes(final Collection findQualifiers,
+                                                  final Collection namePatterns,
+                                                  final Collection classifications,
+                                                  final Collection externalLinks) throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.findClassificationSchemes(findQualifiers, namePatterns,
+                        classifications, externalLinks);
+            }
+        });
+    }
+
+    public Concept findConceptByPath(final String path) throws JAXRException
+    {
+        return first(new MemberQuery<Concept>()
+        {
+            public Concept run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.findConceptByPath(path);
+            }
+        });
+    }
+
+    public BulkResponse findConcepts(final Collection findQualifiers,
+                                     final Collection namePatterns,
+                                     final Collection classifications,
+                                     final Collection externalIdentifiers,
+                                     final Collection externalLinks) throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.findConcepts(findQualifiers, namePatterns, classifications,
+                        externalIdentifiers, externalLinks);
+            }
+        });
+    }
+
+    public BulkResponse findRegistryPackages(final Collection findQualifiers,
+                                             final Collection namePatterns,
+                                             final Collection classifications,
+                                             final Collection externalLinks) throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.findRegistryPackages(findQualifiers, namePatterns,
+                        classifications, externalLinks);
+            }
+        });
+    }
+
+    public BulkResponse findServiceBindings(final Key serviceKey,
+                                            final Collection findQualifiers,
+                                            final Collection classifications,
+                                            final Collection specifications) throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.findServiceBindings(serviceKey, findQualifiers, classifications,
+                        specifications);
+            }
+        });
+    }
+
+    public BulkResponse findServices(final Key orgKey,
+                                     final Collection findQualifiers,
+                                     final Collection namePatterns,
+                                     final Collection classifications,
+                                     final Collection specifications) throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.findServices(orgKey, findQualifiers, namePatterns,
+                        classifications, specifications);
+            }
+        });
+    }
+
+    public RegistryObject getRegistryObject(final String id) throws JAXRException
+    {
+        return first(new MemberQuery<RegistryObject>()
+        {
+            public RegistryObject run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.getRegistryObject(id);
+            }
+        });
+    }
+
+    public RegistryObject getRegistryObject(final String id, final String objectType) throws JAXRException
+    {
+        return first(new MemberQuery<RegistryObject>()
+        {
+            public RegistryObject run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.getRegistryObject(id, objectType);
+            }
+        });
+    }
+
+    public BulkResponse getRegistryObjects() throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.getRegistryObjects();
+            }
+        });
+    }
+
+    public BulkResponse getRegistryObjects(final Collection objectKeys) throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.getRegistryObjects(objectKeys);
+            }
+        });
+    }
+
+    public BulkResponse getRegistryObjects(final Collection objectKeys, final String objectType) throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.getRegistryObjects(objectKeys, objectType);
+            }
+        });
+    }
+
+    public BulkResponse getRegistryObjects(final String objectType) throws JAXRException
+    {
+        return gather(new MemberQuery<BulkResponse>()
+        {
+            public BulkResponse run(BusinessQueryManager queryManager) throws JAXRException
+            {
+                return queryManager.getRegistryObjects(objectType);
+            }
+        });
+    }
+
+    /**
+     * Merges the responses of all members, dropping the objects whose key
+     * was already returned by an earlier member.
+     */
+    private BulkResponse gather(MemberQuery<BulkResponse> query) throws JAXRException
+    {
+        List<Exception> exceptions = new ArrayList<Exception>();
+        List<BulkResponse> responses = scatter(query, exceptions);
+        boolean partial = !exceptions.isEmpty();
+
+        Set<String> keys = new HashSet<String>();
+        List<Object> col = new ArrayList<Object>();
+        for (BulkResponse response : responses)
+        {
+            if (response == null)
+                continue;
+            partial |= response.isPartialResponse();
+            if (response.getExceptions() != null)
+            {
+                exceptions.addAll(response.getExceptions());
+            }
+            for (Object o : response.getCollection())
+            {
+                String key = getKey(o);
+                if (key == null || keys.add(key))
+                {
+                    col.add(o);
+                }
+            }
+        }
+
+        BulkResponseImpl bulk = new BulkResponseImpl();
+        bulk.setCollection(col);
+        bulk.setExceptions(exceptions);
+        bulk.setPartialResponse(partial);
+        return bulk;
+    }
+
+    /**
+     * @return the first object found, in member order, or null when every
+     * member answered without one.
+     * @throws JAXRException when no member found the object and some of them
+     * failed, as the object may be in those; it names all the failures.
+     */
+    private <T> T first(MemberQuery<T> query) throws JAXRException
+    {
+        List<Exception> exceptions = new ArrayList<Exception>();
+        List<T> results = scatter(query, exceptions);
+        for (T result : results)
+        {
+            if (result != null)
+                return result;
+        }
+        if (!exceptions.isEmpty())
+        {
+            StringBuilder message = new StringBuilder();
+            message.append(exceptions.size()).append(" of ").append(results.size())
+                .append(" member registries failed");
+            for (Exception e : exceptions)
+            {
+                message.append("; ").append(e.getMessage());
+            }
+            throw new JAXRException(message.toString(), exceptions.get(0));
+        }
+        return null;
+    }
+
+    /**
+     * Runs the query on all members concurrently and waits for them, at most
+     * until the member timeout of the connection has passed.
+     * @return the results in member order, null for the members that failed.
+     */
+    private <T> List<T> scatter(final MemberQuery<T> query, Collection<Exception> exceptions)
+        throws JAXRException
+    {
+        FederatedConnectionImpl connection = registryService.getConnection();
+        ExecutorService executor = connection.getExecutor();
+        if (executor == null)
+        {
+            throw new JAXRException("Connection is closed");
+        }
+
+        List<Connection> members = connection.getMembers();
+        List<Future<T>> futures = new ArrayList<Future<T>>(members.size());
+        for (final Connection member : members)
+        {
+            Callable<T> task = new Callable<T>()
+            {
+                public T call() throws Exception
+                {
+                    return query.run(member.getRegistryService().getBusinessQueryManager());
+                }
+            };
+            try
+            {
+                futures.add(executor.submit(task));
+            }
+            catch (RejectedExecutionException e)
+            {
+                // closed while the query was being sent
+                FutureTask<T> inline = new FutureTask<T>(task);
+                inline.run();
+                futures.add(inline);
+            }
+        }
+
+        long timeout = connection.getMemberTimeout();
+        long deadline = System.currentTimeMillis() + timeout;
+        List<T> results = new ArrayList<T>(futures.size());
+        try
+        {
+            for (int i = 0; i < futures.size(); i++)
+            {
+                Future<T> future = futures.get(i);
+                try
+                {
+                    if (timeout > 0)
+                    {
+                        long remaining = Math.max(0L, deadline - System.currentTimeMillis());
+                        results.add(future.get(remaining, TimeUnit.MILLISECONDS));
+                    }
+                    else
+                    {
+                        results.add(future.get());
+                    }
+                }
+                catch (TimeoutException e)
+                {
+                    results.add(null);
+                    exceptions.add(new JAXRException("Member registry " + i + " did not answer within "
+                            + timeout + " ms"));
+                }
+                catch (ExecutionException e)
+                {
+                    results.add(null);
+                    Throwable cause = e.getCause();
+                    exceptions.add(new JAXRException("Member registry " + i + " failed: "
+                            + cause.getMessage(), cause));
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new JAXRException(e);
+        }
+        finally
+        {
+            for (Future<T> future : futures)
+            {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    private static String getKey(Object o) throws JAXRException
+    {
+        if (o instanceof RegistryObject)
+        {
+            Key key = ((RegistryObject) o).getKey();
+            if (key != null && key.getId() != null)
+            {
+                return key.getId().toLowerCase(Locale.ENGLISH);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import javax.xml.registry.BulkResponse;
+import javax.xml.registry.BusinessLifeCycleManager;
+import javax.xml.registry.BusinessQueryManager;
+import javax.xml.registry.CapabilityProfile;
+import javax.xml.registry.DeclarativeQueryManager;
+import javax.xml.registry.InvalidRequestException;
+import javax.xml.registry.JAXRException;
+import javax.xml.registry.RegistryService;
+import javax.xml.registry.UnsupportedCapabilityException;
+import javax.xml.registry.infomodel.ClassificationScheme;
+
+/**
+ * The RegistryService of a {@link FederatedConnectionImpl}. Only the
+ * BusinessQueryManager is supported.
+ */
+class FederatedRegistryService implements RegistryService
+{
+    private final FederatedConnectionImpl connection;
+    private final BusinessQueryManager queryManager;
+
+    FederatedRegistryService(FederatedConnectionImpl connection)
+    {
+        this.connection = connection;
+        this.queryManager = new FederatedQueryManager(this);
+    }
+
+    FederatedConnectionImpl getConnection()
+    {
+        return connection;
+    }
+
+    public CapabilityProfile getCapabilityProfile()
+    {
+        return new CapabilityProfileImpl();
+    }
+
+    public BusinessQueryManager getBusinessQueryManager() throws JAXRException
+    {
+        return queryManager;
+    }
+
+    public BusinessLifeCycleManager getBusinessLifeCycleManager() throws JAXRException
+    {
+        throw new UnsupportedCapabilityException("Federated connections do not support life cycle operations");
+    }
+
+    public BulkResponse getBulkResponse(String s) throws JAXRException, InvalidRequestException
+    {
+        if (s == null || s.length() == 0)
+            throw new InvalidRequestException();
+        return null;
+    }
+
+    public DeclarativeQueryManager getDeclarativeQueryManager() throws JAXRException, UnsupportedCapabilityException
+    {
+        throw new UnsupportedCapabilityException();
+    }
+
+    /**
+     * @return the default postal scheme of the first member.
+     */
+    public ClassificationScheme getDefaultPostalScheme() throws JAXRException
+    {
+        return connection.getMembers().get(0).getRegistryService().getDefaultPostalScheme();
+    }
+
+    public String makeRegistrySpecificRequest(String s) throws JAXRException
+    {
+        throw new UnsupportedCapabilityException("Federated connections do not support registry specific requests");
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.Collection;
+
+import javax.xml.registry.BulkResponse;
+import javax.xml.registry.JAXRException;
+import javax.xml.registry.RegistryService;
+import javax.xml.registry.infomodel.ClassificationScheme;
+import javax.xml.registry.infomodel.Concept;
+import javax.xml.registry.infomodel.Key;
+import javax.xml.registry.infomodel.Organization;
+import javax.xml.registry.infomodel.RegistryObject;
+import javax.xml.registry.infomodel.Service;
+
+import org.apache.ws.scout.registry.infomodel.Freezable;
+
+/**
+ * BusinessQueryManager that freezes the infomodel objects returned by
+ * another one, so that they can be cached and shared between threads
+ * (see {@link Freezable} for how to hand them over).
+ * Used when the connection is created with the
+ * {@link ConnectionFactoryImpl#FROZEN_RESULTS_PROPERTY} property set.
+ */
+class FrozenResultsQueryManager implements PublishingQueryManager
+{
+    private final PublishingQueryManager queryManager;
+
+    FrozenResultsQueryManager(PublishingQueryManager queryManager)
+    {
+        this.queryManager = queryManager;
+    }
+
+    public RegistryService getRegistryService() throws JAXRException
+    {
+        return queryManager.getRegistryService();
+    }
+
+    public BulkResponse findOrganizations(Collection findQualifiers,
+                                          Collection namePatterns,
+                                          Collection classifications,
+                                          Collection specifications,
+                                          Collection externalIdentifiers,
+                                          Collection externalLinks) throws JAXRException
+    {
+        return freeze(queryManager.findOrganizations(findQualifiers, namePatterns, classifications,
+                specifications, externalIdentifiers, externalLinks));
+    }
+
+    public BulkResponse findAssociations(Collection findQualifiers,
+                                         String sourceObjectId,
+                                         String targetObjectId,
+                                         Collection associationTypes) throws JAXRException
+    {
+        return freeze(queryManager.findAssociations(findQualifiers, sourceObjectId, targetObjectId,
+                associationTypes));
+    }
+
+    public BulkResponse findCallerAssociations(Collection findQualifiers,
+                                               Boolean confirmedByCaller,
+                                               Boolean confirmedByOtherParty,
+                                               Collection associationTypes) throws JAXRException
+    {
+        return freeze(queryManager.findCallerAssociations(findQualifiers, confirmedByCaller,
+                confirmedByOtherParty, associationTypes));
+    }
+
+    public ClassificationScheme findClassificationSchemeByName(Collection findQualifiers,
+                                                               String namePattern) throws JAXRException
+    {
+        return freeze(queryManager.findClassificationSchemeByName(findQualifiers, namePattern));
+    }
+
+    public BulkResponse findClassificationSchemes(Collection findQualifiers,
+                                                  Collection namePatterns,
+                                                  Collection classifications,
+                                                  Collection externalLinks) throws JAXRException
+    {
+        return freeze(queryManager.findClassificationSchemes(findQualifiers, namePatterns,
+                classifications, externalLinks));
+    }
+
+    public Concept findConceptByPath(String path) throws JAXRException
+    {
+        return freeze(queryManager.findConceptByPath(path));
+    }
+
+    public BulkResponse findConcepts(Collection findQualifiers,
+                                     Collection namePatterns,
+                                     Collection classifications,
+                                     Collection externalIdentifiers,
+                                     Collection externalLinks) throws JAXRException
+    {
+        return freeze(queryManager.findConcepts(findQualifiers, namePatterns, classifications,
+                externalIdentifiers, externalLinks));
+    }
+
+    public BulkResponse findRegistryPackages(Collection findQualifiers,
+                                             Collection namePatterns,
+                                             Collection classifications,
+                                             Collection externalLinks) throws JAXRException
+    {
+        return freeze(queryManager.findRegistryPackages(findQualifiers, namePatterns,
+                classifications, externalLinks));
+    }
+
+    public BulkResponse findServiceBindings(Key serviceKey,
+                                            Collection findQualifiers,
+                                            Collection classifications,
+                                            Collection specifications) throws JAXRException
+    {
+        return freeze(queryManager.findServiceBindings(serviceKey, findQualifiers, classifications,
+                specifications));
+    }
+
+    public BulkResponse findServices(Key orgKey, Collection findQualifiers,
+                                     Collection namePatterns,
+                                     Collection classifications,
+                                     Collection specifications) throws JAXRException
+    {
+        return freeze(queryManager.findServices(orgKey, findQualifiers, namePatterns,
+                classifications, specifications));
+    }
+
+    public RegistryObject getRegistryObject(String id) throws JAXRException
+    {
+        return freeze(queryManager.getRegistryObject(id));
+    }
+
+    public RegistryObject getRegistryObject(String id, String objectType) throws JAXRException
+    {
+        return freeze(queryManager.getRegistryObject(id, objectType));
+    }
+
+    public BulkResponse getRegistryObjects() throws JAXRException
+    {
+        return freeze(queryManager.getRegistryObjects());
+    }
+
+    public BulkResponse getRegistryObjects(Collection objectKeys) throws JAXRException
+    {
+        return freeze(queryManager.getRegistryObjects(objectKeys));
+    }
+
+    public BulkResponse getRegistryObjects(Collection objectKeys, String objectType) throws JAXRException
+    {
+        return freeze(queryManager.getRegistryObjects(objectKeys, objectType));
+    }
+
+    public BulkResponse getRegistryObjects(String objectType) throws JAXRException
+    {
+        return freeze(queryManager.getRegistryObjects(objectType));
+    }
+
+    public RegistryFlow.Publisher<Organization> publishOrganizations(Collection findQualifiers,
+                                                                    Collection namePatterns,
+                                                                    Collection classifications,
+                                                                    Collection specifications,
+                                                                    Collection externalIdentifiers,
+                                                                    Collection externalLinks) throws JAXRException
+    {
+        return frozen(queryManager.publishOrganizations(findQualifiers, namePatterns, classifications,
+                specifications, externalIdentifiers, externalLinks));
+    }
+
+    public RegistryFlow.Publisher<Service> publishServices(Key orgKey,
+                                                          Collection findQualifiers,
+                                                          Collection namePatterns,
+                                                          Collection classifications,
+                                                          Collection specifications) throws JAXRException
+    {
+        return frozen(queryManager.publishServices(orgKey, findQualifiers, namePatterns, classifications,
+                specifications));
+    }
+
+    private static <T> RegistryFlow.Publisher<T> frozen(final RegistryFlow.Publisher<T> publisher)
+    {
+        return new RegistryFlow.Publisher<T>()
+        {
+            public void subscribe(final RegistryFlow.Subscriber<? super T> subscriber)
+            {
+                publisher.subscribe(new RegistryFlow.Subscriber<T>()
+                {
+                    public void onSubscribe(RegistryFlow.Subscription subscription)
+                    {
+                        subscriber.onSubscribe(subscription);
+                    }
+
+                    public void onNext(T item)
+                    {
+                        subscriber.onNext(freeze(item));
+                    }
+
+                    public void onError(Throwable throwable)
+                    {
+                        subscriber.onError(throwable);
+                    }
+
+                    public void onComplete()
+                    {
+                        subscriber.onComplete();
+                    }
+                });
+            }
+        };
+    }
+
+    private static <T> T freeze(T o)
+    {
+        if (o instanceof Freezable) ((Freezable) o).freeze();
+        return o;
+    }
+
+    private static BulkResponse freeze(BulkResponse response) throws JAXRException
+    {
+        if (response != null && response.getCollection() != null)
+        {
+            for (Object o : response.getCollection())
+            {
+                freeze(o);
+            }
+        }
+        return response;
+    }
+}
@@ -2,6 +2,8 @@ package org.apache.ws.scout.registry;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -15,6 +17,9 @@ public class JAXBContextUtil {
 	
 	private static Log log = LogFactory.getLog(JAXBContextUtil.class);
 	private static final Map<String, JAXBContext> JAXBContexts = new HashMap<String, JAXBContext>();
+	// Marshaller and Unmarshaller are not thread-safe, each thread keeps its own
+	private static final ThreadLocal<Map<String, Marshaller>> marshallers = new ThreadLocal<Map<String, Marshaller>>();
+	private static final ThreadLocal<Map<String, Unmarshaller>> unmarshallers = new ThreadLocal<Map<String, Unmarshaller>>();
 
 	static {
 		try {
@@ -29,5 +34,39 @@ public class JAXBContextUtil {
 	public static JAXBContext getContext(String uddiVersion) {
 		return JAXBContexts.get(uddiVersion);
 	}
+
+	/**
+	 * @return the Marshaller for the given UDDI version owned by the current thread.
+	 */
+	public static Marshaller getMarshaller(String uddiVersion) throws JAXBException {
+		Map<String, Marshaller> map = marshallers.get();
+		if (map == null) {
+			map = new HashMap<String, Marshaller>();
+			marshallers.set(map);
+		}
+		Marshaller marshaller = map.get(uddiVersion);
+		if (marshaller == null) {
+			marshaller = getContext(uddiVersion).createMarshaller();
+			map.put(uddiVersion, marshaller);
+		}
+		return marshaller;
+	}
+
+	/**
+	 * @return the Unmarshaller for the given UDDI version owned by the current thread.
+	 */
+	public static Unmarshaller getUnmarshaller(String uddiVersion) throws JAXBException {
+		Map<String, Unmarshaller> map = unmarshallers.get();
+		if (map == null) {
+			map = new HashMap<String, Unmarshaller>();
+			unmarshallers.set(map);
+		}
+		Unmarshaller unmarshaller = map.get(uddiVersion);
+		if (unmarshaller == null) {
+			unmarshaller = getContext(uddiVersion).createUnmarshaller();
+			map.put(uddiVersion, unmarshaller);
+		}
+		return unmarshaller;
+	}
 	
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.List;
+
+import javax.xml.registry.JAXRException;
+
+/**
+ * Publishes the objects of a query that first finds their keys, then gets
+ * their details in batches. The keys are found when the subscriber
+ * subscribes, and each batch holds no more keys than the subscriber still
+ * has requested, so no details are fetched ahead of demand.
+ *
+ * <p>The stream completes as soon as the last batch has been emitted, or
+ * at once when no keys are found. The registry calls are made in the
+ * thread that subscribes or requests the objects.
+ * A request made from within onNext adds to the demand, and is served by
+ * the request that is already sending.</p>
+ */
+abstract class KeyPublisher<T> implements RegistryFlow.Publisher<T>
+{
+    private final int batchSize;
+
+    /**
+     * @param batchSize - the most keys sent in one detail call.
+     */
+    KeyPublisher(int batchSize)
+    {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the keys of the objects, in the order they are published.
+     */
+    abstract String[] find() throws JAXRException;
+
+    /**
+     * @return the objects for the keys that are still in the registry.
+     */
+    abstract List<T> fetch(String[] keys) throws JAXRException;
+
+    public void subscribe(RegistryFlow.Subscriber<? super T> subscriber)
+    {
+        if (subscriber == null)
+        {
+            throw new NullPointerException("subscriber");
+        }
+        KeySubscription subscription = new KeySubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    private final class KeySubscription implements RegistryFlow.Subscription
+    {
+        private final RegistryFlow.Subscriber<? super T> subscriber;
+        private long demand;
+        private boolean sending;
+        private boolean cancelled;
+        private Throwable error;
+
+        // only used by the sending thread
+        private String[] keys;
+        private int next;
+
+        KeySubscription(RegistryFlow.Subscriber<? super T> subscriber)
+        {
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Finds the keys, unless a request made from onSubscribe already
+         * did, so that an empty result completes without a request.
+         */
+        void start()
+        {
+            synchronized (this)
+            {
+                if (cancelled || sending)
+                {
+                    return;
+                }
+                sending = true;
+            }
+            send();
+        }
+
+        public void request(long n)
+        {
+            synchronized (this)
+            {
+                if (cancelled)
+                {
+                    return;
+                }
+                if (n <= 0)
+                {
+                    error = new IllegalArgumentException("Requested " + n + " objects");
+                }
+                else
+                {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+                if (sending)
+                {
+                    return;
+                }
+                sending = true;
+            }
+            send();
+        }
+
+        public synchronized void cancel()
+        {
+            cancelled = true;
+        }
+
+        private void send()
+        {
+            for (;;)
+            {
+                int count;
+                Throwable failure;
+                synchronized (this)
+                {
+                    failure = error;
+                    if (cancelled || (failure == null && demand == 0 && keys != null))
+                    {
+                        sending = false;
+                        return;
+                    }
+                    count = (int) Math.min(demand, batchSize);
+                }
+                if (failure != null)
+                {
+                    fail(failure);
+                    return;
+                }
+
+                List<T> items;
+                try
+                {
+                    if (keys == null)
+                    {
+                        keys = find();
+                    }
+                    if (next == keys.length)
+                    {
+                        cancel();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (count == 0)
+                    {
+                        // the keys were found on subscribing, nothing is requested yet
+                        continue;
+                    }
+                    String[] batch = new String[Math.min(count, keys.length - next)];
+                    System.arraycopy(keys, next, batch, 0, batch.length);
+                    next += batch.length;
+                    items = fetch(batch);
+                }
+                catch (Exception e)
+                {
+                    fail(e);
+                    return;
+                }
+
+                for (T item : items)
+                {
+                    synchronized (this)
+                    {
+                        if (cancelled)
+                        {
+                            sending = false;
+                            return;
+                        }
+                        demand--;
+                    }
+                    try
+                    {
+                        subscriber.onNext(item);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        fail(e);
+                        return;
+                    }
+                }
+                if (next == keys.length)
+                {
+                    // complete with the last batch, without waiting for more demand
+                    cancel();
+                    subscriber.onComplete();
+                    return;
+                }
+            }
+        }
+
+        private void fail(Throwable failure)
+        {
+            cancel();
+            subscriber.onError(failure);
+        }
+    }
+}
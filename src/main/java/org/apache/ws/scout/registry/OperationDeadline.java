@@ -0,0 +1,74 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.apache.ws.scout.util.Deadline;
+
+/**
+ * Gives each operation of a manager one time budget for all the registry
+ * calls it makes: a {@link Deadline} is bound for the operation, and the
+ * registry calls stop once it has passed.
+ *
+ * @see ConnectionFactoryImpl#OPERATION_TIMEOUT_PROPERTY
+ */
+final class OperationDeadline implements InvocationHandler
+{
+    private final Object manager;
+    private final long timeout;
+
+    private OperationDeadline(Object manager, long timeout)
+    {
+        this.manager = manager;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param timeout - the budget of an operation in milliseconds, 0 or
+     * less for none.
+     * @return the manager, bounding each of its operations by the timeout.
+     */
+    static <T> T wrap(Class<T> type, T manager, long timeout)
+    {
+        if (timeout <= 0)
+        {
+            return manager;
+        }
+        return type.cast(Proxy.newProxyInstance(OperationDeadline.class.getClassLoader(),
+                new Class<?>[] { type }, new OperationDeadline(manager, timeout)));
+    }
+
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+        Deadline deadline = Deadline.enter(timeout);
+        try
+        {
+            return method.invoke(manager, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+        finally
+        {
+            Deadline.exit(deadline);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.xml.registry.JAXRException;
+
+import org.apache.ws.scout.util.Deadline;
+import org.apache.ws.scout.util.QueryScope;
+
+/**
+ * Runs the independent registry calls of one JAXR operation concurrently on
+ * the query executor of the connection. The calls join the
+ * {@link QueryScope} and the {@link Deadline} of the calling thread, and
+ * the last one runs in the calling thread itself. Without an executor, or when called from one of
+ * its threads, the calls run one after the other in the calling thread.
+ */
+final class ParallelQuery
+{
+    private static final ThreadLocal<Boolean> worker = new ThreadLocal<Boolean>();
+
+    private ParallelQuery()
+    {
+    }
+
+    /**
+     * @return the results of the tasks, in the order of the tasks.
+     * @throws JAXRException the exception of the first task that failed.
+     */
+    static <T> List<T> invokeAll(ConnectionImpl connection, List<? extends Callable<T>> tasks)
+        throws JAXRException
+    {
+        ExecutorService executor = connection != null ? connection.getQueryExecutor() : null;
+        List<T> results = new ArrayList<T>(tasks.size());
+        if (executor == null || tasks.size() < 2 || worker.get() != null)
+        {
+            for (Callable<T> task : tasks)
+            {
+                results.add(call(task));
+            }
+            return results;
+        }
+
+        QueryScope scope = QueryScope.current();
+        Deadline deadline = Deadline.current();
+        List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size() - 1);
+        try
+        {
+            for (Callable<T> task : tasks.subList(0, tasks.size() - 1))
+            {
+                futures.add(submit(executor, scope, deadline, task));
+            }
+            T last = call(tasks.get(tasks.size() - 1));
+            for (Future<T> future : futures)
+            {
+                results.add(get(future));
+            }
+            results.add(last);
+            return results;
+        }
+        finally
+        {
+            for (Future<T> future : futures)
+            {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static <T> Future<T> submit(ExecutorService executor, final QueryScope scope, final Deadline deadline,
+                                        final Callable<T> task)
+    {
+        Callable<T> joined = new Callable<T>()
+        {
+            public T call() throws Exception
+            {
+                QueryScope bound = QueryScope.join(scope);
+                Deadline joined = Deadline.join(deadline);
+                worker.set(Boolean.TRUE);
+                try
+                {
+                    return task.call();
+                }
+                finally
+                {
+                    worker.remove();
+                    Deadline.exit(joined);
+                    QueryScope.exit(bound);
+                }
+            }
+        };
+        try
+        {
+            return executor.submit(joined);
+        }
+        catch (RejectedExecutionException e)
+        {
+            // the connection was closed, or its queue is full
+            FutureTask<T> inline = new FutureTask<T>(task);
+            inline.run();
+            return inline;
+        }
+    }
+
+    private static <T> T get(Future<T> future) throws JAXRException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new JAXRException(e);
+        }
+        catch (ExecutionException e)
+        {
+            throw toJAXRException(e.getCause());
+        }
+    }
+
+    private static <T> T call(Callable<T> task) throws JAXRException
+    {
+        try
+        {
+            return task.call();
+        }
+        catch (Exception e)
+        {
+            throw toJAXRException(e);
+        }
+    }
+
+    private static JAXRException toJAXRException(Throwable t)
+    {
+        if (t instanceof JAXRException)
+        {
+            return (JAXRException) t;
+        }
+        if (t instanceof RuntimeException)
+        {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error)
+        {
+            throw (Error) t;
+        }
+        return new JAXRException(t);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.Collection;
+
+import javax.xml.registry.BusinessQueryManager;
+import javax.xml.registry.JAXRException;
+import javax.xml.registry.infomodel.Key;
+import javax.xml.registry.infomodel.Organization;
+import javax.xml.registry.infomodel.Service;
+
+/**
+ * A query manager that can stream large results instead of returning them
+ * in a {@link javax.xml.registry.BulkResponse}. The query first finds the
+ * keys, then gets the details of only as many objects as the subscriber
+ * has requested, so that a slow subscriber holds the registry calls back.
+ *
+ * <p>The query manager of a Scout connection implements this interface.</p>
+ */
+public interface PublishingQueryManager extends BusinessQueryManager
+{
+    /**
+     * Streams the organizations that
+     * {@link #findOrganizations(Collection, Collection, Collection, Collection, Collection, Collection)}
+     * would return.
+     * @throws javax.xml.registry.UnsupportedCapabilityException if external
+     * links are given, as UDDI cannot find organizations by them.
+     */
+    RegistryFlow.Publisher<Organization> publishOrganizations(Collection findQualifiers,
+                                                             Collection namePatterns,
+                                                             Collection classifications,
+                                                             Collection specifications,
+                                                             Collection externalIdentifiers,
+                                                             Collection externalLinks) throws JAXRException;
+
+    /**
+     * Streams the services that
+     * {@link #findServices(Key, Collection, Collection, Collection, Collection)}
+     * would return.
+     */
+    RegistryFlow.Publisher<Service> publishServices(Key orgKey,
+                                                    Collection findQualifiers,
+                                                    Collection namePatterns,
+                                                    Collection classifications,
+                                                    Collection specifications) throws JAXRException;
+}
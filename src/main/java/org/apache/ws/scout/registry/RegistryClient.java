@@ -0,0 +1,155 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+
+import javax.xml.registry.InvalidRequestException;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.juddi.v3.client.config.UDDIClerkManager;
+import org.apache.ws.scout.util.InternTable;
+import org.apache.ws.scout.util.TaskExecutors;
+
+/**
+ * The parts of a connection that only depend on its properties: the UDDI
+ * registry client with its transport, the jUDDI clerk manager, the query
+ * executor and the connection-wide interning table. A client is owned by a
+ * single connection, or shared by the connections of a {@link ConnectionPool}.
+ */
+class RegistryClient
+{
+    private static Log log = LogFactory.getLog(RegistryClient.class);
+
+    private final IRegistryBase registry;
+    private final String uddiVersion;
+    private final InternTable internTable;
+    private final int queryThreads;
+    private final boolean virtualThreads;
+    private ExecutorService queryExecutor;
+    private boolean closed = false;
+    UDDIClerkManager manager = null;
+
+    RegistryClient(Properties properties) throws InvalidRequestException
+    {
+        normalize(properties);
+        uddiVersion = properties.getProperty(ConnectionFactoryImpl.UDDI_VERSION_PROPERTY, ConnectionImpl.DEFAULT_UDDI_VERSION);
+        String val = properties.getProperty(ConnectionFactoryImpl.QUERY_THREADS_PROPERTY);
+        queryThreads = (val == null) ? ConnectionImpl.DEFAULT_QUERY_THREADS : Integer.parseInt(val.trim());
+        virtualThreads = Boolean.valueOf(properties.getProperty(ConnectionFactoryImpl.VIRTUAL_THREADS_PROPERTY));
+        if ("connection".equalsIgnoreCase(properties.getProperty(ConnectionFactoryImpl.INTERN_SCOPE_PROPERTY))) {
+            internTable = new InternTable();
+        } else {
+            internTable = null;
+        }
+
+        String uddiConfigFile      = properties.getProperty(ConnectionImpl.JUDDI_CLIENT_CONFIG_FILE);// DEFAULT_JUDDI_CLIENT_CONFIG_FILE);
+        if (isUDDIv3(uddiVersion)) {
+            String nodeName = null;
+            String managerName = null;
+            if (manager==null && uddiConfigFile!=null) {
+                try {
+                    manager = new UDDIClerkManager(uddiConfigFile, properties);
+                    manager.start();
+                } catch (ConfigurationException e) {
+                    log.error(e.getMessage(),e);
+                }
+            }
+            if (manager !=null) {
+                try {
+                    managerName = manager.getName();
+                    nodeName = manager.getClientConfig().getHomeNode().getName();
+                } catch (ConfigurationException e) {
+                    log.error(e.getMessage(),e);
+                }
+            }
+            registry = new RegistryV3Impl(properties, nodeName, managerName);
+        } else {
+            registry = new RegistryImpl(properties);
+        }
+    }
+
+    /**
+     * Fills in the properties that are derived from others.
+     */
+    static void normalize(Properties properties)
+    {
+        //The TCK does not set the UDDI_VERSION, so if the lifecycle URL contains 'v3' we
+        //automagically set the version to be "3.0"
+        if (!properties.contains(ConnectionFactoryImpl.UDDI_VERSION_PROPERTY)
+                && (properties.contains(ConnectionFactoryImpl.LIFECYCLEMANAGER_PROPERTY))
+                && properties.getProperty(ConnectionFactoryImpl.LIFECYCLEMANAGER_PROPERTY).contains("v3") ) {
+            properties.setProperty(ConnectionFactoryImpl.UDDI_VERSION_PROPERTY, "3.0");
+            String securityManager = properties.getProperty(ConnectionFactoryImpl.LIFECYCLEMANAGER_PROPERTY).replace("publish", "security");
+            properties.setProperty(ConnectionFactoryImpl.SECURITYMANAGER_PROPERTY, securityManager);
+        }
+    }
+
+    private boolean isUDDIv3(String version) {
+        if (version.startsWith("3")) return true;
+        return false;
+    }
+
+    IRegistryBase getRegistry()
+    {
+        return registry;
+    }
+
+    String getUddiVersion()
+    {
+        return uddiVersion;
+    }
+
+    InternTable getInternTable()
+    {
+        return internTable;
+    }
+
+    synchronized ExecutorService getQueryExecutor()
+    {
+        if (queryExecutor == null && queryThreads > 1 && !closed) {
+            queryExecutor = TaskExecutors.newFixed("scout-query-", queryThreads, virtualThreads);
+        }
+        return queryExecutor;
+    }
+
+    /**
+     * Stops the query executor, and the jUDDI clerk manager that was
+     * started for a UDDI v3 registry.
+     */
+    synchronized void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (queryExecutor != null) {
+            queryExecutor.shutdown();
+            queryExecutor = null;
+        }
+        if (manager != null) {
+            try {
+                manager.stop();
+            } catch (ConfigurationException e) {
+                log.error(e.getMessage(),e);
+            }
+            manager = null;
+        }
+    }
+}
@@ -268,6 +268,23 @@ public class RegistryException extends Exception
     jaxbResult.setErrno(result.getErrno());
   }
 
+  /**
+   * @return true if the disposition report holds a result with the given
+   * error number, e.g. {@link #E_INVALID_KEY_PASSED}.
+   */
+  public boolean hasErrno(int errno)
+  {
+    if (this.dispReport == null) {
+      return false;
+    }
+    for (Result result : this.dispReport.getResult()) {
+      if (result.getErrno() == errno) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    *
    */
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+/**
+ * The interfaces through which query results are streamed to a subscriber
+ * as they arrive from the registry, with the subscriber in control of how
+ * many it is sent. They follow the Reactive Streams contract of
+ * java.util.concurrent.Flow, so that they are easily adapted to it.
+ *
+ * @see PublishingQueryManager
+ */
+public final class RegistryFlow
+{
+    private RegistryFlow()
+    {
+    }
+
+    /**
+     * A source of registry objects. Each subscriber gets its own run of
+     * the query.
+     */
+    public interface Publisher<T>
+    {
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * Receives the objects, one call at a time. After
+     * {@link #onSubscribe(Subscription)}, it is sent at most as many
+     * objects as it has requested, then {@link #onComplete()} or
+     * {@link #onError(Throwable)}.
+     */
+    public interface Subscriber<T>
+    {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * The link between a publisher and one subscriber.
+     */
+    public interface Subscription
+    {
+        /**
+         * Asks for n more objects. The registry calls needed for them are
+         * made in the calling thread.
+         */
+        void request(long n);
+
+        /**
+         * Stops the query. No registry call is made after it.
+         */
+        void cancel();
+    }
+}
@@ -21,18 +21,19 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.registry.InvalidRequestException;
 import javax.xml.transform.stream.StreamSource;
@@ -84,8 +85,12 @@ import org.apache.ws.scout.model.uddi.v2.TModel;
 import org.apache.ws.scout.model.uddi.v2.TModelBag;
 import org.apache.ws.scout.model.uddi.v2.TModelDetail;
 import org.apache.ws.scout.model.uddi.v2.TModelList;
+import org.apache.ws.scout.transport.CircuitBreakerTransport;
+import org.apache.ws.scout.transport.FailoverTransport;
+import org.apache.ws.scout.transport.HedgingTransport;
 import org.apache.ws.scout.transport.Transport;
 import org.apache.ws.scout.transport.TransportException;
+import org.apache.ws.scout.util.Deadline;
 import org.apache.ws.scout.util.XMLUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -119,6 +124,12 @@ public class RegistryImpl implements IRegistry {
 	private URI securityURI;
 
 	private Transport transport;
+	private RetryPolicy retryPolicy;
+	private long callTimeout;
+	private SingleFlight<ByteBuffer, JAXBElement<?>> inquiries;
+	private DetailBatcher<BusinessDetail> businessDetails;
+	private DetailBatcher<ServiceDetail> serviceDetails;
+	private DetailBatcher<TModelDetail> tModelDetails;
 
 	private String securityProvider;
 	private String protocolHandler;
@@ -127,8 +138,6 @@ public class RegistryImpl implements IRegistry {
 	
 	private ObjectFactory objectFactory = new ObjectFactory();
 	
-	private Marshaller marshaller = null;
-	private Unmarshaller unmarshaller = null;
 	
 	private static Log log = LogFactory.getLog(RegistryImpl.class);
 
@@ -153,30 +162,127 @@ public class RegistryImpl implements IRegistry {
 
 		// Override defaults with specific specific values
 		try {
-			setInquiryURI(new URI(props.getProperty(ConnectionFactoryImpl.QUERYMANAGER_PROPERTY)));
-			if (props.containsKey(ConnectionFactoryImpl.LIFECYCLEMANAGER_PROPERTY)) {
-			    setPublishURI(new URI(props.getProperty(ConnectionFactoryImpl.LIFECYCLEMANAGER_PROPERTY)));
+			// each URL property may list several endpoints of the same registry
+			List<URI> inquiryURIs = FailoverTransport.parseURIs(props.getProperty(ConnectionFactoryImpl.QUERYMANAGER_PROPERTY));
+			if (inquiryURIs.isEmpty()) {
+			    throw new InvalidRequestException("Missing required property " + ConnectionFactoryImpl.QUERYMANAGER_PROPERTY);
+			}
+			setInquiryURI(inquiryURIs.get(0));
+			List<URI> publishURIs = FailoverTransport.parseURIs(props.getProperty(ConnectionFactoryImpl.LIFECYCLEMANAGER_PROPERTY));
+			if (!publishURIs.isEmpty()) {
+			    setPublishURI(publishURIs.get(0));
+			}
+			List<URI> securityURIs = FailoverTransport.parseURIs(props.getProperty(ConnectionFactoryImpl.SECURITYMANAGER_PROPERTY, 
+			        props.getProperty(ConnectionFactoryImpl.LIFECYCLEMANAGER_PROPERTY)));
+			if (!securityURIs.isEmpty()) {
+			    setSecurityURI(securityURIs.get(0));
 			}
-			String securityURL = props.getProperty(ConnectionFactoryImpl.SECURITYMANAGER_PROPERTY, 
-			        props.getProperty(ConnectionFactoryImpl.LIFECYCLEMANAGER_PROPERTY));
-			if (securityURL!=null) setSecurityURI(new URI(securityURL));
 			setAdminURI(new URI(props.getProperty(ConnectionFactoryImpl.ADMIN_ENDPOINT_PROPERTY, DEFAULT_ADMIN_ENDPOINT)));
 			setSecurityProvider(props.getProperty(ConnectionFactoryImpl.SECURITY_PROVIDER_PROPERTY, DEFAULT_SECURITY_PROVIDER));
 			setProtocolHandler(props.getProperty(ConnectionFactoryImpl.PROTOCOL_HANDLER_PROPERTY, DEFAULT_PROTOCOL_HANDLER));
 			setUddiVersion(props.getProperty(ConnectionFactoryImpl.UDDI_VERSION_PROPERTY, DEFAULT_UDDI_VERSION));
 			setUddiNamespace(props.getProperty(ConnectionFactoryImpl.UDDI_NAMESPACE_PROPERTY, DEFAULT_UDDI_NAMESPACE));
-			setTransport(getTransport(props.getProperty(ConnectionFactoryImpl.TRANSPORT_CLASS_PROPERTY, DEFAULT_TRANSPORT_CLASS)));
+			Transport transport = CircuitBreakerTransport.wrap(
+			        getTransport(props.getProperty(ConnectionFactoryImpl.TRANSPORT_CLASS_PROPERTY, DEFAULT_TRANSPORT_CLASS)), props);
+			if (inquiryURIs.size() > 1 || publishURIs.size() > 1 || securityURIs.size() > 1) {
+			    FailoverTransport failover = new FailoverTransport(transport, props);
+			    failover.setEndpoints(getInquiryURI(), endpoints(transport, inquiryURIs), true);
+			    if (publishURIs.size() > 1) {
+			        failover.setEndpoints(getPublishURI(), endpoints(transport, publishURIs), false);
+			    }
+			    if (securityURIs.size() > 1 && !securityURIs.equals(publishURIs)) {
+			        failover.setEndpoints(getSecurityURI(), endpoints(transport, securityURIs), false);
+			    }
+			    transport = failover;
+			}
+			// only inquiries are safe to send twice
+			setTransport(HedgingTransport.wrap(transport, props, getInquiryURI()));
+			retryPolicy = new RetryPolicy(props);
+			callTimeout = Long.parseLong(props.getProperty(ConnectionFactoryImpl.CALL_TIMEOUT_PROPERTY, "0").trim());
+			if (Boolean.valueOf(props.getProperty(ConnectionFactoryImpl.COALESCE_INQUIRIES_PROPERTY))) {
+			    inquiries = new SingleFlight<ByteBuffer, JAXBElement<?>>();
+			}
+			long batchWindow = Long.parseLong(props.getProperty(ConnectionFactoryImpl.BATCH_WINDOW_PROPERTY, "0").trim());
+			if (batchWindow > 0) {
+			    initBatchers(batchWindow, Integer.parseInt(props.getProperty(ConnectionFactoryImpl.BATCH_MAX_KEYS_PROPERTY,
+			            String.valueOf(DetailBatcher.DEFAULT_MAX_KEYS)).trim()));
+			}
 			
-			JAXBContext context = JAXBContextUtil.getContext(JAXBContextUtil.UDDI_V2_VERSION);
-            unmarshaller = context.createUnmarshaller(); 
-            marshaller = context.createMarshaller();
+			// fail early if the UDDI bindings cannot be loaded
+			JAXBContextUtil.getMarshaller(JAXBContextUtil.UDDI_V2_VERSION);
 		} catch (URISyntaxException muex) {
 			throw new InvalidRequestException(muex.getMessage(),muex);
+		} catch (IllegalArgumentException iae) {
+			// a property with an invalid value
+			throw new InvalidRequestException(iae.getMessage(), iae);
 		} catch(JAXBException e) {
            throw new RuntimeException(e);
         }
 	}
 
+	private static List<FailoverTransport.Endpoint> endpoints(Transport transport, List<URI> uris) {
+		List<FailoverTransport.Endpoint> endpoints = new ArrayList<FailoverTransport.Endpoint>(uris.size());
+		for (URI uri : uris) {
+			endpoints.add(new FailoverTransport.Endpoint(transport, uri));
+		}
+		return endpoints;
+	}
+
+	/**
+	 * @return true if the publish request has the same effect when it is
+	 * applied twice: reads, and saves of entities that all have a key.
+	 */
+	static boolean isIdempotent(Object request) {
+		if (request instanceof SaveBusiness) {
+			for (BusinessEntity business : ((SaveBusiness) request).getBusinessEntity()) {
+				if (!hasKey(business.getBusinessKey())) return false;
+				if (business.getBusinessServices() != null) {
+					for (BusinessService service : business.getBusinessServices().getBusinessService()) {
+						if (!isKeyed(service)) return false;
+					}
+				}
+			}
+			return ((SaveBusiness) request).getUploadRegister().isEmpty();
+		}
+		if (request instanceof SaveService) {
+			for (BusinessService service : ((SaveService) request).getBusinessService()) {
+				if (!isKeyed(service)) return false;
+			}
+			return true;
+		}
+		if (request instanceof SaveBinding) {
+			for (BindingTemplate binding : ((SaveBinding) request).getBindingTemplate()) {
+				if (!hasKey(binding.getBindingKey())) return false;
+			}
+			return true;
+		}
+		if (request instanceof SaveTModel) {
+			for (TModel tModel : ((SaveTModel) request).getTModel()) {
+				if (!hasKey(tModel.getTModelKey())) return false;
+			}
+			return ((SaveTModel) request).getUploadRegister().isEmpty();
+		}
+		return request instanceof GetAuthToken
+			|| request instanceof GetAssertionStatusReport
+			|| request instanceof GetPublisherAssertions
+			|| request instanceof GetRegisteredInfo
+			|| request instanceof SetPublisherAssertions;
+	}
+
+	private static boolean isKeyed(BusinessService service) {
+		if (!hasKey(service.getServiceKey())) return false;
+		if (service.getBindingTemplates() != null) {
+			for (BindingTemplate binding : service.getBindingTemplates().getBindingTemplate()) {
+				if (!hasKey(binding.getBindingKey())) return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean hasKey(String key) {
+		return key != null && key.trim().length() > 0;
+	}
+
 	/**
 	 * 
 	 * @param uddiRequest
@@ -194,32 +300,177 @@ public class RegistryImpl implements IRegistry {
 		// A SOAP request is made and a SOAP response
 		// is returned.
 
-		return transport.send(uddiRequest, endPointURL);
+		Deadline deadline = Deadline.enter(callTimeout);
+		try {
+			return transport.send(uddiRequest, endPointURL);
+		} finally {
+			Deadline.exit(deadline);
+		}
 	}
 
 	/**
-	 * 
+	 * Sends the request. Identical inquiries sent at the same time share
+	 * a single call and its response, when they are coalesced.
 	 */
-	public JAXBElement<?> execute(JAXBElement<?> uddiRequest, URI endPointURI)
+	public JAXBElement<?> execute(final JAXBElement<?> uddiRequest, final URI endPointURI)
 			throws RegistryException {
+		if (inquiries == null || !HedgingTransport.isInquiry(uddiRequest.getName().getLocalPart())) {
+			return executeWithRetry(uddiRequest, endPointURI);
+		}
+		try {
+			return inquiries.execute(ByteBuffer.wrap(marshal(uddiRequest)), new Callable<JAXBElement<?>>() {
+				public JAXBElement<?> call() throws RegistryException {
+					return executeWithRetry(uddiRequest, endPointURI);
+				}
+			});
+		} catch (ExecutionException ee) {
+			throw unwrap(ee);
+		} catch (TimeoutException te) {
+			throw new RegistryException("Client", RegistryException.E_REQUEST_TIMEOUT,
+					"The deadline passed while waiting for an identical " + uddiRequest.getName().getLocalPart());
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new RegistryException(ie);
+		}
+	}
+
+	private static RegistryException unwrap(ExecutionException ee) {
+		Throwable cause = ee.getCause();
+		if (cause instanceof RegistryException) return (RegistryException) cause;
+		if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+		if (cause instanceof Error) throw (Error) cause;
+		return new RegistryException((Exception) cause);
+	}
+
+	/**
+	 * Gathers the single key get_*Detail calls made within the window
+	 * into calls for several keys.
+	 */
+	private void initBatchers(long window, int maxKeys) {
+		businessDetails = new DetailBatcher<BusinessDetail>(window, maxKeys) {
+			BusinessDetail fetch(String[] keys) throws RegistryException {
+				return getBusinessDetail(keys);
+			}
 
+			BusinessDetail select(BusinessDetail batch, String key) {
+				BusinessDetail detail = objectFactory.createBusinessDetail();
+				detail.setGeneric(batch.getGeneric());
+				detail.setOperator(batch.getOperator());
+				detail.setTruncated(batch.getTruncated());
+				for (BusinessEntity entity : batch.getBusinessEntity()) {
+					if (key.equalsIgnoreCase(entity.getBusinessKey())) detail.getBusinessEntity().add(entity);
+				}
+				return detail;
+			}
+		};
+		serviceDetails = new DetailBatcher<ServiceDetail>(window, maxKeys) {
+			ServiceDetail fetch(String[] keys) throws RegistryException {
+				return getServiceDetail(keys);
+			}
+
+			ServiceDetail select(ServiceDetail batch, String key) {
+				ServiceDetail detail = objectFactory.createServiceDetail();
+				detail.setGeneric(batch.getGeneric());
+				detail.setOperator(batch.getOperator());
+				detail.setTruncated(batch.getTruncated());
+				for (BusinessService service : batch.getBusinessService()) {
+					if (key.equalsIgnoreCase(service.getServiceKey())) detail.getBusinessService().add(service);
+				}
+				return detail;
+			}
+		};
+		tModelDetails = new DetailBatcher<TModelDetail>(window, maxKeys) {
+			TModelDetail fetch(String[] keys) throws RegistryException {
+				return getTModelDetail(keys);
+			}
+
+			TModelDetail select(TModelDetail batch, String key) {
+				TModelDetail detail = objectFactory.createTModelDetail();
+				detail.setGeneric(batch.getGeneric());
+				detail.setOperator(batch.getOperator());
+				detail.setTruncated(batch.getTruncated());
+				for (TModel tModel : batch.getTModel()) {
+					if (key.equalsIgnoreCase(tModel.getTModelKey())) detail.getTModel().add(tModel);
+				}
+				return detail;
+			}
+		};
+	}
+
+	private static <D> D get(DetailBatcher<D> batcher, String key) throws RegistryException {
+		try {
+			return batcher.get(key);
+		} catch (ExecutionException ee) {
+			throw unwrap(ee);
+		} catch (TimeoutException te) {
+			throw new RegistryException("Client", RegistryException.E_REQUEST_TIMEOUT, te.getMessage());
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new RegistryException(ie);
+		}
+	}
+
+	/**
+	 * Sends the request, and sends it again as long as the retry policy
+	 * allows it.
+	 */
+	private JAXBElement<?> executeWithRetry(JAXBElement<?> uddiRequest, URI endPointURI)
+			throws RegistryException {
+		boolean idempotent = HedgingTransport.isInquiry(uddiRequest.getName().getLocalPart())
+				|| isIdempotent(uddiRequest.getValue());
+		retryPolicy.called();
+		for (int attempt = 1; ; attempt++) {
+			if (Deadline.expired()) {
+				throw new RegistryException("Client", RegistryException.E_REQUEST_TIMEOUT,
+						"The deadline passed before " + uddiRequest.getName().getLocalPart() + " was sent");
+			}
+			try {
+				return executeOnce(uddiRequest, endPointURI);
+			} catch (RegistryException e) {
+				if (!retryPolicy.retry(attempt, e, e.hasErrno(RegistryException.E_BUSY), idempotent)) {
+					throw e;
+				}
+				long backoff = retryPolicy.backoff(attempt);
+				long remaining = Deadline.remaining();
+				if (remaining >= 0 && backoff >= remaining) {
+					throw e;
+				}
+				log.debug("Retrying " + uddiRequest.getName().getLocalPart() + " in " + backoff + " ms: " + e.getMessage());
+				try {
+					Thread.sleep(backoff);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw e;
+				}
+			}
+		}
+	}
+
+	private static byte[] marshal(JAXBElement<?> uddiRequest) throws RegistryException {
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		
+		try {
+			JAXBContextUtil.getMarshaller(JAXBContextUtil.UDDI_V2_VERSION).marshal(uddiRequest, baos);
+		} catch (JAXBException e) {
+			throw new RegistryException(e);
+		}
+		return baos.toByteArray();
+	}
+
+	/**
+	 * 
+	 */
+	private JAXBElement<?> executeOnce(JAXBElement<?> uddiRequest, URI endPointURI)
+			throws RegistryException {
+
         Document doc;
         try {
-            DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-            docBuilderFactory.setNamespaceAware(true);
-            DocumentBuilder docBuilder= docBuilderFactory.newDocumentBuilder();
-            this.marshaller.marshal(uddiRequest, baos);
-            doc = docBuilder.parse(new ByteArrayInputStream(baos.toByteArray()));
+            doc = XMLUtils.parse(new ByteArrayInputStream(marshal(uddiRequest)));
         } catch (SAXException saxe) {
             throw (new RegistryException(saxe));
         } catch (ParserConfigurationException pce) {
             throw (new RegistryException(pce));
         } catch (IOException ioe) {
             throw (new RegistryException(ioe));
-        } catch (JAXBException ioe) {
-            throw (new RegistryException(ioe));
         }
 		Element request = doc.getDocumentElement();
 
@@ -233,10 +484,13 @@ public class RegistryImpl implements IRegistry {
 
 	    
 	    Element response;
+	    Deadline deadline = Deadline.enter(callTimeout);
 	    try {
 	    	response = transport.send(request, endPointURI);
 	    } catch (TransportException te) {
 	    	throw new RegistryException(te);
+	    } finally {
+	    	Deadline.exit(deadline);
 	    }
 	   /* if (response.hasAttributes()) {
 		    NamedNodeMap am = response.getAttributes();
@@ -296,7 +550,7 @@ public class RegistryImpl implements IRegistry {
 				if (nodeList.getLength() > 0) {
 					JAXBElement<DispositionReport> dispRptObj = null;
 					try {
-						dispRptObj = (JAXBElement<DispositionReport>) unmarshaller.unmarshal((Element) nodeList
+						dispRptObj = (JAXBElement<DispositionReport>) JAXBContextUtil.getUnmarshaller(JAXBContextUtil.UDDI_V2_VERSION).unmarshal((Element) nodeList
 								.item(0));
 					} catch (JAXBException xmle) {
 						throw (new RegistryException(xmle));
@@ -327,7 +581,7 @@ public class RegistryImpl implements IRegistry {
 	        log.debug("Response is: " + xml);
 	        
 	        StringReader reader = new StringReader(xml);
-	        uddiResponse = (JAXBElement<?>) unmarshaller.unmarshal(new StreamSource(reader));
+	        uddiResponse = (JAXBElement<?>) JAXBContextUtil.getUnmarshaller(JAXBContextUtil.UDDI_V2_VERSION).unmarshal(new StreamSource(reader));
 	    	//It is probably faster not to go to a String, but JAXB has issues with this
 	        //uddiResponse = (JAXBElement<?>) unmarshaller.unmarshal(response);
 
@@ -835,6 +1089,9 @@ public class RegistryImpl implements IRegistry {
 	 */
 	public BusinessDetail getBusinessDetail(String businessKey)
 			throws RegistryException {
+		if (businessDetails != null && businessKey != null) {
+			return get(businessDetails, businessKey);
+		}
 		String[] keys = new String[1];
 		keys[0] = businessKey;
 
@@ -908,6 +1165,9 @@ public class RegistryImpl implements IRegistry {
 	 */
 	public ServiceDetail getServiceDetail(String serviceKey)
 			throws RegistryException {
+		if (serviceDetails != null && serviceKey != null) {
+			return get(serviceDetails, serviceKey);
+		}
 		String[] keys = new String[1];
 		keys[0] = serviceKey;
 
@@ -944,6 +1204,9 @@ public class RegistryImpl implements IRegistry {
 	 */
 	public TModelDetail getTModelDetail(String tModelKey)
 			throws RegistryException {
+		if (tModelDetails != null && tModelKey != null) {
+			return get(tModelDetails, tModelKey);
+		}
 		String[] keys = new String[1];
 		keys[0] = tModelKey;
 
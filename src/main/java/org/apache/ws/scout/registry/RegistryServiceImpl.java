@@ -42,7 +42,7 @@ import org.apache.ws.scout.transport.TransportException;
 public class RegistryServiceImpl implements RegistryService
 {
     private final IRegistryBase registry;
-    private final BusinessQueryManager queryManager;
+    private final PublishingQueryManager queryManager;
     private final BusinessLifeCycleManager lifeCycleManager;
     
     private final ClassificationSchemeImpl postalScheme;
@@ -50,6 +50,9 @@ public class RegistryServiceImpl implements RegistryService
     private final String uddiVersion;
 
     private ConnectionImpl connection;
+    // the managers as seen through the connection
+    private PublishingQueryManager connectionQueryManager;
+    private BusinessLifeCycleManager connectionLifeCycleManager;
 
     public RegistryServiceImpl(IRegistryBase registry, String postalScheme, int maxRows, String uddiVersion)
     {
@@ -99,12 +102,12 @@ public class RegistryServiceImpl implements RegistryService
     
     public BusinessQueryManager getBusinessQueryManager() throws JAXRException
     {
-        return queryManager;
+        return connectionQueryManager != null ? connectionQueryManager : queryManager;
     }
 
     public BusinessLifeCycleManager getBusinessLifeCycleManager() throws JAXRException
     {
-        return lifeCycleManager;
+        return connectionLifeCycleManager != null ? connectionLifeCycleManager : lifeCycleManager;
     }
 
     public BulkResponse getBulkResponse(String s) throws JAXRException, InvalidRequestException
@@ -151,6 +154,18 @@ public class RegistryServiceImpl implements RegistryService
     public void setConnection(ConnectionImpl connection)
     {
         this.connection = connection;
+        if (connection == null)
+        {
+            connectionQueryManager = null;
+            connectionLifeCycleManager = null;
+            return;
+        }
+        PublishingQueryManager query = connection.isFrozenResults()
+                ? new FrozenResultsQueryManager(queryManager) : queryManager;
+        connectionQueryManager = OperationDeadline.wrap(PublishingQueryManager.class, query,
+                connection.getOperationTimeout());
+        connectionLifeCycleManager = OperationDeadline.wrap(BusinessLifeCycleManager.class, lifeCycleManager,
+                connection.getOperationTimeout());
     }
 
 }
@@ -264,6 +264,23 @@ public class RegistryV3Exception extends Exception
     jaxbResult.setErrno(result.getErrno());
   }
 
+  /**
+   * @return true if the disposition report holds a result with the given
+   * error number, e.g. {@link #E_INVALID_KEY_PASSED}.
+   */
+  public boolean hasErrno(int errno)
+  {
+    if (this.dispReport == null) {
+      return false;
+    }
+    for (Result result : this.dispReport.getResult()) {
+      if (result.getErrno() == errno) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    *
    */
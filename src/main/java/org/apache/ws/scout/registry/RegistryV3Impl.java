@@ -21,28 +21,36 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.rmi.RemoteException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.registry.InvalidRequestException;
 import javax.xml.transform.stream.StreamSource;
+import javax.xml.ws.Holder;
 
+import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.juddi.v3.client.config.UDDIClientContainer;
+import org.apache.ws.scout.transport.CircuitBreakerTransport;
+import org.apache.ws.scout.transport.FailoverTransport;
+import org.apache.ws.scout.transport.HedgingTransport;
 import org.apache.ws.scout.transport.LocalTransport;
 import org.apache.ws.scout.transport.Transport;
 import org.apache.ws.scout.transport.TransportException;
+import org.apache.ws.scout.util.Deadline;
 import org.apache.ws.scout.util.XMLUtils;
 import org.uddi.api_v3.AssertionStatusReport;
 import org.uddi.api_v3.AuthToken;
@@ -92,6 +100,10 @@ import org.uddi.api_v3.TModel;
 import org.uddi.api_v3.TModelBag;
 import org.uddi.api_v3.TModelDetail;
 import org.uddi.api_v3.TModelList;
+import org.uddi.v3_service.DispositionReportFaultMessage;
+import org.uddi.v3_service.UDDIInquiryPortType;
+import org.uddi.v3_service.UDDIPublicationPortType;
+import org.uddi.v3_service.UDDISecurityPortType;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -127,6 +139,12 @@ public class RegistryV3Impl implements IRegistryV3 {
 	private URI securityURI;
 
 	private Transport transport;
+	private RetryPolicy retryPolicy;
+	private long callTimeout;
+	private SingleFlight<ByteBuffer, JAXBElement<?>> inquiries;
+	private DetailBatcher<BusinessDetail> businessDetails;
+	private DetailBatcher<ServiceDetail> serviceDetails;
+	private DetailBatcher<TModelDetail> tModelDetails;
 
 	private String securityProvider;
 	private String protocolHandler;
@@ -136,10 +154,13 @@ public class RegistryV3Impl implements IRegistryV3 {
 	private String nodeName;
 	private String managerName;
 	
+	private boolean inVM;
+	private volatile UDDIInquiryPortType inquiryPort;
+	private volatile UDDIPublicationPortType publishPort;
+	private volatile UDDISecurityPortType securityPort;
+	
 	private ObjectFactory objectFactory = new ObjectFactory();
 	
-	private Marshaller marshaller = null;
-	private Unmarshaller unmarshaller = null;
 	
 	private static Log log = LogFactory.getLog(RegistryV3Impl.class);
 
@@ -172,25 +193,127 @@ public class RegistryV3Impl implements IRegistryV3 {
             setInquiryURI(new URI(DEFAULT_INQUIRY_ENDPOINT));
             setPublishURI(new URI(DEFAULT_PUBLISH_ENDPOINT));
             setSecurityURI(new URI(DEFAULT_SECURITY_ENDPOINT));
-            setTransport(getTransport(DEFAULT_TRANSPORT_CLASS));
+            setTransport(CircuitBreakerTransport.wrap(getTransport(DEFAULT_TRANSPORT_CLASS), props));
+            // the URLs are set per node in the juddi-client configuration, so the
+            // requests are spread over the nodes named in the properties
+            String nodes = props.getProperty(ConnectionFactoryImpl.UDDI_NODES_PROPERTY);
+            if (nodes != null && managerName != null) {
+                List<Transport> transports = new ArrayList<Transport>();
+                for (String node : nodes.trim().split("[,\\s]+")) {
+                    if (node.length() > 0) {
+                        transports.add(CircuitBreakerTransport.wrap(new LocalTransport(node, managerName), props));
+                    }
+                }
+                if (transports.size() > 1) {
+                    FailoverTransport failover = new FailoverTransport(getTransport(), props);
+                    failover.setEndpoints(getInquiryURI(), endpoints(transports, getInquiryURI()), true);
+                    failover.setEndpoints(getPublishURI(), endpoints(transports, getPublishURI()), false);
+                    failover.setEndpoints(getSecurityURI(), endpoints(transports, getSecurityURI()), false);
+                    setTransport(failover);
+                }
+            }
+            // only inquiries are safe to send twice
+            setTransport(HedgingTransport.wrap(getTransport(), props, getInquiryURI()));
+            retryPolicy = new RetryPolicy(props);
+            callTimeout = Long.parseLong(props.getProperty(ConnectionFactoryImpl.CALL_TIMEOUT_PROPERTY, "0").trim());
             // the following parameters are still configurable however
             setAdminURI(new URI(props.getProperty(ConnectionFactoryImpl.ADMIN_ENDPOINT_PROPERTY, DEFAULT_ADMIN_ENDPOINT)));
             setSecurityProvider(props.getProperty(ConnectionFactoryImpl.SECURITY_PROVIDER_PROPERTY, DEFAULT_SECURITY_PROVIDER));
             setProtocolHandler(props.getProperty(ConnectionFactoryImpl.PROTOCOL_HANDLER_PROPERTY, DEFAULT_PROTOCOL_HANDLER));
             setUddiVersion(props.getProperty(ConnectionFactoryImpl.UDDI_VERSION_PROPERTY, DEFAULT_UDDI_VERSION));
             setUddiNamespace(props.getProperty(ConnectionFactoryImpl.UDDI_NAMESPACE_PROPERTY, DEFAULT_UDDI_NAMESPACE));
+            // passing the api_v3 objects straight to the juddi-client requires a configured manager
+            inVM = Boolean.valueOf(props.getProperty(ConnectionFactoryImpl.INVM_PROPERTY, "false"));
+            if (inVM && managerName==null) {
+                log.warn(ConnectionFactoryImpl.INVM_PROPERTY + " requires a juddi-client configuration, falling back to the XML transport");
+                inVM = false;
+            }
+            // the requests are compared in their XML form, which inVM calls do without
+            if (!inVM && Boolean.valueOf(props.getProperty(ConnectionFactoryImpl.COALESCE_INQUIRIES_PROPERTY))) {
+                inquiries = new SingleFlight<ByteBuffer, JAXBElement<?>>();
+            }
+            long batchWindow = Long.parseLong(props.getProperty(ConnectionFactoryImpl.BATCH_WINDOW_PROPERTY, "0").trim());
+            if (batchWindow > 0) {
+                initBatchers(batchWindow, Integer.parseInt(props.getProperty(ConnectionFactoryImpl.BATCH_MAX_KEYS_PROPERTY,
+                        String.valueOf(DetailBatcher.DEFAULT_MAX_KEYS)).trim()));
+            }
             
-            JAXBContext context = JAXBContextUtil.getContext(JAXBContextUtil.UDDI_V3_VERSION);
-            unmarshaller = context.createUnmarshaller(); 
-            marshaller = context.createMarshaller();
+            // fail early if the UDDI bindings cannot be loaded
+            JAXBContextUtil.getMarshaller(JAXBContextUtil.UDDI_V3_VERSION);
             
         } catch (URISyntaxException muex) {
             throw new InvalidRequestException(muex.getMessage(), muex);
+        } catch (IllegalArgumentException iae) {
+            // a property with an invalid value
+            throw new InvalidRequestException(iae.getMessage(), iae);
         } catch(JAXBException e) {
            throw new RuntimeException(e);
         }
 	}
 
+	private static List<FailoverTransport.Endpoint> endpoints(List<Transport> transports, URI uri) {
+		List<FailoverTransport.Endpoint> endpoints = new ArrayList<FailoverTransport.Endpoint>(transports.size());
+		for (Transport transport : transports) {
+			endpoints.add(new FailoverTransport.Endpoint(transport, uri));
+		}
+		return endpoints;
+	}
+
+	/**
+	 * @return true if the publish request has the same effect when it is
+	 * applied twice: reads, and saves of entities that all have a key.
+	 */
+	static boolean isIdempotent(Object request) {
+		if (request instanceof SaveBusiness) {
+			for (BusinessEntity business : ((SaveBusiness) request).getBusinessEntity()) {
+				if (!hasKey(business.getBusinessKey())) return false;
+				if (business.getBusinessServices() != null) {
+					for (BusinessService service : business.getBusinessServices().getBusinessService()) {
+						if (!isKeyed(service)) return false;
+					}
+				}
+			}
+			return true;
+		}
+		if (request instanceof SaveService) {
+			for (BusinessService service : ((SaveService) request).getBusinessService()) {
+				if (!isKeyed(service)) return false;
+			}
+			return true;
+		}
+		if (request instanceof SaveBinding) {
+			for (BindingTemplate binding : ((SaveBinding) request).getBindingTemplate()) {
+				if (!hasKey(binding.getBindingKey())) return false;
+			}
+			return true;
+		}
+		if (request instanceof SaveTModel) {
+			for (TModel tModel : ((SaveTModel) request).getTModel()) {
+				if (!hasKey(tModel.getTModelKey())) return false;
+			}
+			return true;
+		}
+		return request instanceof GetAuthToken
+			|| request instanceof GetAssertionStatusReport
+			|| request instanceof GetPublisherAssertions
+			|| request instanceof GetRegisteredInfo
+			|| request instanceof SetPublisherAssertions;
+	}
+
+	private static boolean isKeyed(BusinessService service) {
+		if (!hasKey(service.getServiceKey())) return false;
+		if (service.getBindingTemplates() != null) {
+			for (BindingTemplate binding : service.getBindingTemplates().getBindingTemplate()) {
+				if (!hasKey(binding.getBindingKey())) return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean hasKey(String key) {
+		return key != null && key.trim().length() > 0;
+	}
+
 	/**
 	 * 
 	 * @param uddiRequest
@@ -208,32 +331,175 @@ public class RegistryV3Impl implements IRegistryV3 {
 		// A SOAP request is made and a SOAP response
 		// is returned.
 
-		return transport.send(uddiRequest, endPointURL);
+		Deadline deadline = Deadline.enter(callTimeout);
+		try {
+			return transport.send(uddiRequest, endPointURL);
+		} finally {
+			Deadline.exit(deadline);
+		}
+	}
+
+	/**
+	 * Sends the request. Identical inquiries sent at the same time share
+	 * a single call and its response, when they are coalesced.
+	 */
+	public JAXBElement<?> execute(final JAXBElement<?> uddiRequest, final URI endPointURI)
+			throws RegistryV3Exception {
+		if (inquiries == null || !HedgingTransport.isInquiry(uddiRequest.getName().getLocalPart())) {
+			return executeWithRetry(uddiRequest, endPointURI);
+		}
+		try {
+			return inquiries.execute(ByteBuffer.wrap(marshal(uddiRequest)), new Callable<JAXBElement<?>>() {
+				public JAXBElement<?> call() throws RegistryV3Exception {
+					return executeWithRetry(uddiRequest, endPointURI);
+				}
+			});
+		} catch (ExecutionException ee) {
+			throw unwrap(ee);
+		} catch (TimeoutException te) {
+			throw new RegistryV3Exception("Client", RegistryV3Exception.E_REQUEST_TIMEOUT,
+					"The deadline passed while waiting for an identical " + uddiRequest.getName().getLocalPart());
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new RegistryV3Exception(ie);
+		}
+	}
+
+	private static RegistryV3Exception unwrap(ExecutionException ee) {
+		Throwable cause = ee.getCause();
+		if (cause instanceof RegistryV3Exception) return (RegistryV3Exception) cause;
+		if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+		if (cause instanceof Error) throw (Error) cause;
+		return new RegistryV3Exception((Exception) cause);
 	}
 
 	/**
-	 * 
+	 * Gathers the single key get_*Detail calls made within the window
+	 * into calls for several keys.
+	 */
+	private void initBatchers(long window, int maxKeys) {
+		businessDetails = new DetailBatcher<BusinessDetail>(window, maxKeys) {
+			BusinessDetail fetch(String[] keys) throws RegistryV3Exception {
+				return getBusinessDetail(keys);
+			}
+
+			BusinessDetail select(BusinessDetail batch, String key) {
+				BusinessDetail detail = objectFactory.createBusinessDetail();
+				detail.setTruncated(batch.isTruncated());
+				for (BusinessEntity entity : batch.getBusinessEntity()) {
+					if (key.equalsIgnoreCase(entity.getBusinessKey())) detail.getBusinessEntity().add(entity);
+				}
+				return detail;
+			}
+		};
+		serviceDetails = new DetailBatcher<ServiceDetail>(window, maxKeys) {
+			ServiceDetail fetch(String[] keys) throws RegistryV3Exception {
+				return getServiceDetail(keys);
+			}
+
+			ServiceDetail select(ServiceDetail batch, String key) {
+				ServiceDetail detail = objectFactory.createServiceDetail();
+				detail.setTruncated(batch.isTruncated());
+				for (BusinessService service : batch.getBusinessService()) {
+					if (key.equalsIgnoreCase(service.getServiceKey())) detail.getBusinessService().add(service);
+				}
+				return detail;
+			}
+		};
+		tModelDetails = new DetailBatcher<TModelDetail>(window, maxKeys) {
+			TModelDetail fetch(String[] keys) throws RegistryV3Exception {
+				return getTModelDetail(keys);
+			}
+
+			TModelDetail select(TModelDetail batch, String key) {
+				TModelDetail detail = objectFactory.createTModelDetail();
+				detail.setTruncated(batch.isTruncated());
+				for (TModel tModel : batch.getTModel()) {
+					if (key.equalsIgnoreCase(tModel.getTModelKey())) detail.getTModel().add(tModel);
+				}
+				return detail;
+			}
+		};
+	}
+
+	private static <D> D get(DetailBatcher<D> batcher, String key) throws RegistryV3Exception {
+		try {
+			return batcher.get(key);
+		} catch (ExecutionException ee) {
+			throw unwrap(ee);
+		} catch (TimeoutException te) {
+			throw new RegistryV3Exception("Client", RegistryV3Exception.E_REQUEST_TIMEOUT, te.getMessage());
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new RegistryV3Exception(ie);
+		}
+	}
+
+	/**
+	 * Sends the request, and sends it again as long as the retry policy
+	 * allows it.
 	 */
-	public JAXBElement<?> execute(JAXBElement<?> uddiRequest, URI endPointURI)
+	private JAXBElement<?> executeWithRetry(JAXBElement<?> uddiRequest, URI endPointURI)
 			throws RegistryV3Exception {
+		boolean idempotent = HedgingTransport.isInquiry(uddiRequest.getName().getLocalPart())
+				|| isIdempotent(uddiRequest.getValue());
+		retryPolicy.called();
+		for (int attempt = 1; ; attempt++) {
+			if (Deadline.expired()) {
+				throw new RegistryV3Exception("Client", RegistryV3Exception.E_REQUEST_TIMEOUT,
+						"The deadline passed before " + uddiRequest.getName().getLocalPart() + " was sent");
+			}
+			try {
+				return executeOnce(uddiRequest, endPointURI);
+			} catch (RegistryV3Exception e) {
+				if (!retryPolicy.retry(attempt, e, e.hasErrno(RegistryV3Exception.E_BUSY), idempotent)) {
+					throw e;
+				}
+				long backoff = retryPolicy.backoff(attempt);
+				long remaining = Deadline.remaining();
+				if (remaining >= 0 && backoff >= remaining) {
+					throw e;
+				}
+				log.debug("Retrying " + uddiRequest.getName().getLocalPart() + " in " + backoff + " ms: " + e.getMessage());
+				try {
+					Thread.sleep(backoff);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw e;
+				}
+			}
+		}
+	}
 
+	private static byte[] marshal(JAXBElement<?> uddiRequest) throws RegistryV3Exception {
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		
+		try {
+			JAXBContextUtil.getMarshaller(JAXBContextUtil.UDDI_V3_VERSION).marshal(uddiRequest, baos);
+		} catch (JAXBException e) {
+			throw new RegistryV3Exception(e);
+		}
+		return baos.toByteArray();
+	}
+
+	/**
+	 * 
+	 */
+	private JAXBElement<?> executeOnce(JAXBElement<?> uddiRequest, URI endPointURI)
+			throws RegistryV3Exception {
+
+		if (inVM) {
+			return executeInVM(uddiRequest.getValue());
+		}
+
         Document doc;
         try {
-            DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-            docBuilderFactory.setNamespaceAware(true);
-            DocumentBuilder docBuilder= docBuilderFactory.newDocumentBuilder();
-            this.marshaller.marshal(uddiRequest, baos);
-            doc = docBuilder.parse(new ByteArrayInputStream(baos.toByteArray()));
+            doc = XMLUtils.parse(new ByteArrayInputStream(marshal(uddiRequest)));
         } catch (SAXException saxe) {
             throw (new RegistryV3Exception(saxe));
         } catch (ParserConfigurationException pce) {
             throw (new RegistryV3Exception(pce));
         } catch (IOException ioe) {
             throw (new RegistryV3Exception(ioe));
-        } catch (JAXBException ioe) {
-            throw (new RegistryV3Exception(ioe));
         }
 		Element request = doc.getDocumentElement();
 
@@ -250,10 +516,13 @@ public class RegistryV3Impl implements IRegistryV3 {
 	    }
 	    
 	    Element response;
+	    Deadline deadline = Deadline.enter(callTimeout);
 	    try {
 	    	response = transport.send(request, endPointURI);
 	    } catch (TransportException te) {
 	    	throw new RegistryV3Exception(te);
+	    } finally {
+	    	Deadline.exit(deadline);
 	    }
 	    /* if (response.hasAttributes()) {
 		    NamedNodeMap am = response.getAttributes();
@@ -302,7 +571,7 @@ public class RegistryV3Impl implements IRegistryV3 {
 		        log.debug("Response is: " + xml);
 		    	
 			StringReader reader = new StringReader(xml);
-			uddiResponse = (JAXBElement<?>) unmarshaller.unmarshal(new StreamSource(reader));
+			uddiResponse = (JAXBElement<?>) JAXBContextUtil.getUnmarshaller(JAXBContextUtil.UDDI_V3_VERSION).unmarshal(new StreamSource(reader));
 		    	//It is probably faster not to go to a String, but JAXB has issues with this
 		        //uddiResponse = (JAXBElement<?>) unmarshaller.unmarshal(response);
 	
@@ -338,7 +607,7 @@ public class RegistryV3Impl implements IRegistryV3 {
 					if (nodeList.getLength() > 0) {
 						JAXBElement<DispositionReport> dispRptObj = null;
 						try {
-							dispRptObj = (JAXBElement<DispositionReport>) unmarshaller.unmarshal((Element) nodeList
+							dispRptObj = (JAXBElement<DispositionReport>) JAXBContextUtil.getUnmarshaller(JAXBContextUtil.UDDI_V3_VERSION).unmarshal((Element) nodeList
 									.item(0));
 						} catch (JAXBException xmle) {
 							throw (new RegistryV3Exception(xmle));
@@ -357,6 +626,125 @@ public class RegistryV3Impl implements IRegistryV3 {
 		return uddiResponse;
 	}
  
+	/**
+	 * Hands the api_v3 request object directly to the juddi-client port types
+	 * of the configured node, skipping the marshal/parse/unmarshal round trip.
+	 * Only used when Scout and jUDDI share a JVM (see {@link ConnectionFactoryImpl#INVM_PROPERTY}).
+	 * The request objects are built per call, so they are passed without copying.
+	 * <p>
+	 * In-VM calls are still retried, but they are exempt from everything the
+	 * transport chain and the XML form provide: they are not failed over,
+	 * hedged or guarded by the circuit breaker, they are not coalesced, and
+	 * the call timeout and operation deadline are only checked before a call,
+	 * since the juddi-client call runs in the calling thread and cannot be cut short.
+	 */
+	private JAXBElement<?> executeInVM(Object request) throws RegistryV3Exception {
+		try {
+			if (request instanceof FindBusiness) {
+				return objectFactory.createBusinessList(getInquiryPort().findBusiness((FindBusiness) request));
+			} else if (request instanceof FindService) {
+				return objectFactory.createServiceList(getInquiryPort().findService((FindService) request));
+			} else if (request instanceof FindBinding) {
+				return objectFactory.createBindingDetail(getInquiryPort().findBinding((FindBinding) request));
+			} else if (request instanceof FindTModel) {
+				return objectFactory.createTModelList(getInquiryPort().findTModel((FindTModel) request));
+			} else if (request instanceof GetBusinessDetail) {
+				return objectFactory.createBusinessDetail(getInquiryPort().getBusinessDetail((GetBusinessDetail) request));
+			} else if (request instanceof GetServiceDetail) {
+				return objectFactory.createServiceDetail(getInquiryPort().getServiceDetail((GetServiceDetail) request));
+			} else if (request instanceof GetTModelDetail) {
+				return objectFactory.createTModelDetail(getInquiryPort().getTModelDetail((GetTModelDetail) request));
+			} else if (request instanceof GetAuthToken) {
+				return objectFactory.createAuthToken(getSecurityPort().getAuthToken((GetAuthToken) request));
+			} else if (request instanceof SaveBusiness) {
+				return objectFactory.createBusinessDetail(getPublishPort().saveBusiness((SaveBusiness) request));
+			} else if (request instanceof SaveService) {
+				return objectFactory.createServiceDetail(getPublishPort().saveService((SaveService) request));
+			} else if (request instanceof SaveBinding) {
+				return objectFactory.createBindingDetail(getPublishPort().saveBinding((SaveBinding) request));
+			} else if (request instanceof SaveTModel) {
+				return objectFactory.createTModelDetail(getPublishPort().saveTModel((SaveTModel) request));
+			} else if (request instanceof DeleteBusiness) {
+				return objectFactory.createDispositionReport(getPublishPort().deleteBusiness((DeleteBusiness) request));
+			} else if (request instanceof DeleteService) {
+				return objectFactory.createDispositionReport(getPublishPort().deleteService((DeleteService) request));
+			} else if (request instanceof DeleteBinding) {
+				return objectFactory.createDispositionReport(getPublishPort().deleteBinding((DeleteBinding) request));
+			} else if (request instanceof DeleteTModel) {
+				return objectFactory.createDispositionReport(getPublishPort().deleteTModel((DeleteTModel) request));
+			} else if (request instanceof DeletePublisherAssertions) {
+				return objectFactory.createDispositionReport(
+						getPublishPort().deletePublisherAssertions((DeletePublisherAssertions) request));
+			} else if (request instanceof GetRegisteredInfo) {
+				return objectFactory.createRegisteredInfo(getPublishPort().getRegisteredInfo((GetRegisteredInfo) request));
+			} else if (request instanceof GetAssertionStatusReport) {
+				GetAssertionStatusReport gasr = (GetAssertionStatusReport) request;
+				AssertionStatusReport asr = new AssertionStatusReport();
+				asr.getAssertionStatusItem().addAll(
+						getPublishPort().getAssertionStatusReport(gasr.getAuthInfo(), gasr.getCompletionStatus()));
+				return objectFactory.createAssertionStatusReport(asr);
+			} else if (request instanceof GetPublisherAssertions) {
+				PublisherAssertionsResponse par = new PublisherAssertionsResponse();
+				par.getPublisherAssertion().addAll(
+						getPublishPort().getPublisherAssertions(((GetPublisherAssertions) request).getAuthInfo()));
+				return objectFactory.createPublisherAssertionsResponse(par);
+			} else if (request instanceof SetPublisherAssertions) {
+				SetPublisherAssertions spa = (SetPublisherAssertions) request;
+				Holder<List<PublisherAssertion>> holder = new Holder<List<PublisherAssertion>>(spa.getPublisherAssertion());
+				getPublishPort().setPublisherAssertions(spa.getAuthInfo(), holder);
+				PublisherAssertions pa = new PublisherAssertions();
+				if (holder.value != null) pa.getPublisherAssertion().addAll(holder.value);
+				return objectFactory.createPublisherAssertions(pa);
+			}
+		} catch (DispositionReportFaultMessage drfm) {
+			throw new RegistryV3Exception(null, drfm.getMessage(), null, drfm.getFaultInfo());
+		} catch (RemoteException re) {
+			throw new RegistryV3Exception(re);
+		}
+		throw new RegistryV3Exception("Unsupported in-VM request " + request.getClass().getName());
+	}
+
+	private UDDIInquiryPortType getInquiryPort() throws RegistryV3Exception {
+		if (inquiryPort == null) {
+			try {
+				inquiryPort = getJUDDITransport().getUDDIInquiryService();
+			} catch (org.apache.juddi.v3.client.transport.TransportException e) {
+				throw new RegistryV3Exception(e);
+			}
+		}
+		return inquiryPort;
+	}
+
+	private UDDIPublicationPortType getPublishPort() throws RegistryV3Exception {
+		if (publishPort == null) {
+			try {
+				publishPort = getJUDDITransport().getUDDIPublishService();
+			} catch (org.apache.juddi.v3.client.transport.TransportException e) {
+				throw new RegistryV3Exception(e);
+			}
+		}
+		return publishPort;
+	}
+
+	private UDDISecurityPortType getSecurityPort() throws RegistryV3Exception {
+		if (securityPort == null) {
+			try {
+				securityPort = getJUDDITransport().getUDDISecurityService();
+			} catch (org.apache.juddi.v3.client.transport.TransportException e) {
+				throw new RegistryV3Exception(e);
+			}
+		}
+		return securityPort;
+	}
+
+	org.apache.juddi.v3.client.transport.Transport getJUDDITransport() throws RegistryV3Exception {
+		try {
+			return UDDIClientContainer.getUDDIClerkManager(managerName).getTransport(nodeName);
+		} catch (ConfigurationException e) {
+			throw new RegistryV3Exception(e);
+		}
+	}
+ 
 	/**
 	 * @return Returns the adminURL.
 	 */
@@ -870,6 +1258,9 @@ public class RegistryV3Impl implements IRegistryV3 {
 	 */
 	public BusinessDetail getBusinessDetail(String businessKey)
 			throws RegistryV3Exception {
+		if (businessDetails != null && businessKey != null) {
+			return get(businessDetails, businessKey);
+		}
 		String[] keys = new String[1];
 		keys[0] = businessKey;
 
@@ -951,6 +1342,9 @@ public class RegistryV3Impl implements IRegistryV3 {
 	 */
 	public ServiceDetail getServiceDetail(String serviceKey)
 			throws RegistryV3Exception {
+		if (serviceDetails != null && serviceKey != null) {
+			return get(serviceDetails, serviceKey);
+		}
 		String[] keys = new String[1];
 		keys[0] = serviceKey;
 
@@ -987,6 +1381,9 @@ public class RegistryV3Impl implements IRegistryV3 {
 	 */
 	public TModelDetail getTModelDetail(String tModelKey)
 			throws RegistryV3Exception {
+		if (tModelDetails != null && tModelKey != null) {
+			return get(tModelDetails, tModelKey);
+		}
 		String[] keys = new String[1];
 		keys[0] = tModelKey;
 
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.Properties;
+import java.util.Random;
+
+import org.apache.ws.scout.transport.TransportException;
+
+/**
+ * Decides when a failed registry call is sent again, and how long to wait
+ * before. A call is retried when the registry was busy, or, if the call is
+ * idempotent, when the request or its answer got lost on the way. Faults
+ * such as an expired authentication token are left to the caller.
+ *
+ * <p>The waits grow exponentially with full jitter. The retries share a
+ * budget: each call adds {@link ConnectionFactoryImpl#RETRY_BUDGET_PROPERTY}
+ * of a retry to it, so that a failing registry does not get several times
+ * its usual load.</p>
+ */
+final class RetryPolicy
+{
+    static final int    DEFAULT_MAX_ATTEMPTS = 1;
+    static final long   DEFAULT_BASE_DELAY   = 100L;
+    static final long   DEFAULT_MAX_DELAY    = 2000L;
+    static final double DEFAULT_BUDGET       = 0.1;
+
+    // the retries a burst of failures may use before the budget refills
+    private static final double MAX_TOKENS = 10;
+
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final double budget;
+    private final Random random = new Random();
+    private double tokens = MAX_TOKENS;
+
+    RetryPolicy(int maxAttempts, long baseDelay, long maxDelay, double budget)
+    {
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.budget = budget;
+    }
+
+    RetryPolicy(Properties properties)
+    {
+        this(Integer.parseInt(get(properties, ConnectionFactoryImpl.RETRY_MAX_ATTEMPTS_PROPERTY, DEFAULT_MAX_ATTEMPTS)),
+             Long.parseLong(get(properties, ConnectionFactoryImpl.RETRY_BASE_DELAY_PROPERTY, DEFAULT_BASE_DELAY)),
+             Long.parseLong(get(properties, ConnectionFactoryImpl.RETRY_MAX_DELAY_PROPERTY, DEFAULT_MAX_DELAY)),
+             Double.parseDouble(get(properties, ConnectionFactoryImpl.RETRY_BUDGET_PROPERTY, DEFAULT_BUDGET)));
+    }
+
+    private static String get(Properties properties, String name, Object defaultValue)
+    {
+        return properties.getProperty(name, String.valueOf(defaultValue)).trim();
+    }
+
+    /**
+     * Adds a call to the budget.
+     */
+    synchronized void called()
+    {
+        tokens = Math.min(MAX_TOKENS, tokens + budget);
+    }
+
+    /**
+     * @param attempt - the number of attempts made so far.
+     * @param busy - whether the registry answered that it was busy.
+     * @param idempotent - whether the call may be applied twice.
+     * @return true if the call may be made again, which is then taken
+     * from the budget.
+     */
+    synchronized boolean retry(int attempt, Exception e, boolean busy, boolean idempotent)
+    {
+        if (attempt >= maxAttempts || !(busy || (idempotent && isTransportFailure(e))))
+        {
+            return false;
+        }
+        if (tokens < 1)
+        {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * @return the time to wait before the next attempt, in milliseconds.
+     */
+    long backoff(int attempt)
+    {
+        long ceiling = Math.min(maxDelay, baseDelay << Math.min(attempt - 1, 30));
+        synchronized (random)
+        {
+            return (long) (random.nextDouble() * ceiling);
+        }
+    }
+
+    /**
+     * @return true if the request or its answer got lost on the way,
+     * rather than the registry answering with a fault.
+     */
+    static boolean isTransportFailure(Exception e)
+    {
+        Throwable cause = e.getCause();
+        return cause instanceof TransportException && !((TransportException) cause).isFault();
+    }
+}
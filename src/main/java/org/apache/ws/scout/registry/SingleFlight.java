@@ -0,0 +1,72 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.ws.scout.util.Deadline;
+
+/**
+ * Lets concurrent identical calls share a single execution. The first
+ * caller of a key runs the call in its own thread, the callers that come
+ * while it runs wait for it and get the same result or exception, at most
+ * until the {@link Deadline} of their thread. Nothing is cached once the
+ * call has completed.
+ */
+final class SingleFlight<K, V>
+{
+    private final ConcurrentMap<K, FutureTask<V>> calls = new ConcurrentHashMap<K, FutureTask<V>>();
+
+    /**
+     * @return the result of the call, or of the identical call in flight.
+     * @throws ExecutionException with the exception thrown by the call.
+     * @throws TimeoutException if the deadline passed while waiting for the
+     * identical call.
+     */
+    V execute(K key, Callable<V> call) throws ExecutionException, InterruptedException, TimeoutException
+    {
+        FutureTask<V> task = new FutureTask<V>(call);
+        FutureTask<V> inFlight = calls.putIfAbsent(key, task);
+        if (inFlight != null)
+        {
+            long remaining = Deadline.remaining();
+            return remaining < 0 ? inFlight.get() : inFlight.get(remaining, TimeUnit.MILLISECONDS);
+        }
+        try
+        {
+            task.run();
+        }
+        finally
+        {
+            calls.remove(key, task);
+        }
+        return task.get();
+    }
+
+    /**
+     * @return the number of calls in flight.
+     */
+    int size()
+    {
+        return calls.size();
+    }
+}
@@ -87,16 +87,19 @@ public class AssociationImpl extends RegistryObjectImpl implements Association
 
     public void setAssociationType(Concept concept) throws JAXRException
     {
+        checkMutable();
         type = concept;
     }
 
     public void setSourceObject(RegistryObject ro) throws JAXRException
     {
+        checkMutable();
         source = ro;
     }
 
     public void setTargetObject(RegistryObject ro) throws JAXRException
     {
+        checkMutable();
         target = ro;
     }
 
@@ -134,22 +137,31 @@ public class AssociationImpl extends RegistryObjectImpl implements Association
 
    public void setConfirmed(boolean b)
    {
+      checkMutable();
       this.isConfirmed = b;
    }
 
    public void setConfirmedBySourceOwner(boolean b)
    {
+      checkMutable();
       isConfirmedBySourceOwner = b;
    }
 
    public void setConfirmedByTargetOwner(boolean b)
    {
+      checkMutable();
       isConfirmedByTargetOwner = b;
    }
 
    public void setExtramural(boolean b)
    {
+      checkMutable();
       isExtramural = b;
    } 
 
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        freeze(type);
+    }
 }
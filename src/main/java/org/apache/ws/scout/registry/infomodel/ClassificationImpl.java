@@ -82,6 +82,7 @@ public class ClassificationImpl extends RegistryObjectImpl
     }
 
     public void setExternal(boolean b) {
+        checkMutable();
         this.external = b;
     }
 
@@ -93,6 +94,7 @@ public class ClassificationImpl extends RegistryObjectImpl
     public void setClassificationScheme(ClassificationScheme cscheme)
             throws JAXRException
     {
+        checkMutable();
         scheme = cscheme;
 
         /*
@@ -100,23 +102,33 @@ public class ClassificationImpl extends RegistryObjectImpl
          * our internality dictates that of the scheme.
          */
 
-       ((ClassificationSchemeImpl) scheme).setExternal(isExternal());
+       ClassificationSchemeImpl schemeImpl = (ClassificationSchemeImpl) scheme;
+       if (schemeImpl.isExternal() != isExternal()) schemeImpl.setExternal(isExternal());
     }
 
     public void setClassifiedObject(RegistryObject registryObject)
             throws JAXRException
     {
+        checkMutable();
         classfiedobj = registryObject;
     }
 
     public void setConcept(Concept cpt) throws JAXRException
     {
+        checkMutable();
         concept = cpt;
     }
 
     public void setValue(String str) throws JAXRException
     {
+        checkMutable();
         value = str;
     }
 
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        freeze(scheme);
+        freeze(concept);
+    }
 }
@@ -18,6 +18,7 @@ package org.apache.ws.scout.registry.infomodel;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 
 import javax.xml.registry.JAXRException;
@@ -55,12 +56,14 @@ public class ClassificationSchemeImpl
     public void addChildConcept(Concept concept)
             throws JAXRException
     {
+        checkMutable();
         childConcepts.add(concept);
     }
 
     public void addChildConcepts(Collection collection)
             throws JAXRException
     {
+        checkMutable();
         childConcepts.addAll(collection);
     }
 
@@ -99,6 +102,7 @@ public class ClassificationSchemeImpl
     }
 
     protected void setExternal(boolean b) {
+        checkMutable();
         this.external = b;
     }
 
@@ -110,18 +114,21 @@ public class ClassificationSchemeImpl
     public void removeChildConcept(Concept concept)
             throws JAXRException
     {
+        checkMutable();
         this.childConcepts.remove(concept);
     }
 
     public void removeChildConcepts(Collection collection)
             throws JAXRException
     {
+        checkMutable();
         this.childConcepts.removeAll(collection);
     }
 
     public void setValueType(int param)
         throws JAXRException
     {
+        checkMutable();
         /*
          * we are a level 0 provider
          */
@@ -129,4 +136,16 @@ public class ClassificationSchemeImpl
         throw new UnsupportedCapabilityException();
     }
 
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        freezeAll(childConcepts);
+        childConcepts = Collections.unmodifiableCollection(childConcepts);
+    }
+
+    protected void thawContents()
+    {
+        super.thawContents();
+        childConcepts = new ArrayList<Concept>(childConcepts);
+    }
 }
@@ -18,6 +18,7 @@ package org.apache.ws.scout.registry.infomodel;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 
 import javax.xml.registry.JAXRException;
@@ -52,12 +53,14 @@ public class ConceptImpl extends RegistryObjectImpl implements Concept
 
     public void addChildConcept(Concept concept)
     {
+        checkMutable();
         this.childconcepts.add(concept);
         ((ConceptImpl)concept).setParentconcept(this);
     }
 
     public void addChildConcepts(Collection collection)
     {
+        checkMutable();
         for (Object c : collection) {
             ((ConceptImpl) c).setParentconcept(this);
             childconcepts.add((Concept) c);
@@ -115,12 +118,14 @@ public class ConceptImpl extends RegistryObjectImpl implements Concept
 
     public void removeChildConcept(Concept c)
     {
+        checkMutable();
         ((ConceptImpl)c).setParentconcept(null);
         childconcepts.remove(c);
     }
 
     public void removeChildConcepts(Collection collection)
     {
+        checkMutable();
         Iterator iter = collection.iterator();
         while(iter.hasNext())
         {
@@ -132,27 +137,32 @@ public class ConceptImpl extends RegistryObjectImpl implements Concept
 
     public void setValue(String str)
     {
+        checkMutable();
         value = str;
     }
 
     public void setParent(RegistryObject parent)
     {
+        checkMutable();
         this.parent = parent;
     }
 
     public void setParentconcept(Concept parentconcept)
     {
+        checkMutable();
         this.parentconcept = parentconcept;
         parent = null; //We deal with concept as parent
     }
 
     public void setScheme(ClassificationSchemeImpl scheme)
     {
+        checkMutable();
         this.scheme = scheme;
     }
 
     public void setChildconcepts(Collection<Concept> childconcepts)
     {
+        checkMutable();
         this.childconcepts.clear();
         Iterator iter = childconcepts.iterator();
         while(iter.hasNext())
@@ -166,7 +176,21 @@ public class ConceptImpl extends RegistryObjectImpl implements Concept
     //Specific API
     public void setClassificationScheme(ClassificationScheme sc)
     {
+        checkMutable();
         scheme = sc;
         parent = sc;
     }
+
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        freezeAll(childconcepts);
+        childconcepts = Collections.unmodifiableCollection(childconcepts);
+    }
+
+    protected void thawContents()
+    {
+        super.thawContents();
+        childconcepts = new ArrayList<Concept>(childconcepts);
+    }
 }
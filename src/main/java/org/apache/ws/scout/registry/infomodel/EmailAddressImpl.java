@@ -26,10 +26,11 @@ import javax.xml.registry.infomodel.EmailAddress;
  *
  * @author Anil Saldhana  <anil@apache.org>
  */
-public class EmailAddressImpl implements EmailAddress
+public class EmailAddressImpl implements EmailAddress, Freezable
 {
     private String email;
     private String type;
+    private boolean frozen;
 
     public EmailAddressImpl()
     {
@@ -58,14 +59,31 @@ public class EmailAddressImpl implements EmailAddress
 
     public void setAddress(String str) throws JAXRException
     {
+        checkMutable();
         this.email = str;
     }
 
     public void setType(String str) throws JAXRException
     {
+        checkMutable();
         this.type = str;
     }
 
+    public void freeze()
+    {
+        frozen = true;
+    }
+
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    private void checkMutable()
+    {
+        if (frozen) throw new FrozenObjectException(this);
+    }
+
     public boolean equals(Object o)
     {
         if (this == o) return true;
@@ -16,6 +16,7 @@
 package org.apache.ws.scout.registry.infomodel;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -29,12 +30,17 @@ import javax.xml.registry.infomodel.Slot;
  *
  * @author Anil Saldhana  <anil@apache.org>
  */
-public class ExtensibleObjectImpl implements ExtensibleObject
+public class ExtensibleObjectImpl implements ExtensibleObject, Freezable, Cloneable
 {
-    private Map<String,Slot> slots = new HashMap<String,Slot>();
+    // created on first write, most objects never carry slots
+    private Map<String,Slot> slots;
+
+    private boolean frozen;
 
     public void addSlot(Slot slot) throws JAXRException
     {
+        checkMutable();
+        if (slots == null) slots = new HashMap<String,Slot>();
         slots.put(slot.getName(), slot);
     }
 
@@ -47,21 +53,104 @@ public class ExtensibleObjectImpl implements ExtensibleObject
 
     public Slot getSlot(String slotName)
     {
+        if (slots == null) return null;
         return (Slot) slots.get(slotName);
     }
 
     public Collection<Slot> getSlots()
     {
+        if (slots == null) return Collections.emptySet();
         return slots.values();
     }
 
     public void removeSlot(String slotName)
     {
-        slots.remove(slotName);
+        checkMutable();
+        if (slots != null) slots.remove(slotName);
     }
 
     public void removeSlots(Collection slotNames)
     {
-        slots.keySet().removeAll(slotNames);
+        checkMutable();
+        if (slots != null) slots.keySet().removeAll(slotNames);
+    }
+
+    public void freeze()
+    {
+        if (frozen) return;
+        frozen = true;
+        freezeContents();
+    }
+
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    /**
+     * Returns an editable copy of this object. The collections of the copy,
+     * and the InternationalStrings it edits in place, are its own, but the
+     * objects the collections hold are shared with this object and stay
+     * frozen; thaw those as well before editing them.
+     *
+     * @return an unfrozen copy, or this object if it is not frozen
+     */
+    public ExtensibleObjectImpl thaw()
+    {
+        if (!frozen) return this;
+        try
+        {
+            ExtensibleObjectImpl copy = (ExtensibleObjectImpl) clone();
+            copy.frozen = false;
+            copy.thawContents();
+            return copy;
+        } catch (CloneNotSupportedException e)
+        {
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+
+    /**
+     * Freezes the objects held by this one, and replaces its collections
+     * by read-only views. Subclasses add their own state and call super.
+     */
+    protected void freezeContents()
+    {
+        if (slots != null)
+        {
+            freezeAll(slots.values());
+            slots = Collections.unmodifiableMap(slots);
+        }
+    }
+
+    /**
+     * Gives a copy made by {@link #thaw()} its own modifiable collections.
+     * Subclasses add their own state and call super.
+     */
+    protected void thawContents()
+    {
+        if (slots != null) slots = new HashMap<String,Slot>(slots);
+    }
+
+    /**
+     * @throws FrozenObjectException if this object is frozen
+     */
+    protected void checkMutable()
+    {
+        if (frozen) throw new FrozenObjectException(this);
+    }
+
+    protected static void freeze(Object o)
+    {
+        if (o instanceof Freezable) ((Freezable) o).freeze();
+    }
+
+    protected static void freezeAll(Collection c)
+    {
+        if (c == null) return;
+        for (Object o : c)
+        {
+            freeze(o);
+        }
     }
 }
@@ -73,18 +73,26 @@ public class ExternalIdentifierImpl extends RegistryObjectImpl
     public void setIdentificationScheme(ClassificationScheme cs)
             throws JAXRException
     {
+        checkMutable();
         identity = cs;
     }
 
     public void setValue(String str) throws JAXRException
     {
+        checkMutable();
         value = str;
     }
 
     //Specific API
     public void setRegistryObject(RegistryObject obj)
     {
+        checkMutable();
         parent = obj;
     }
 
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        freeze(identity);
+    }
 }
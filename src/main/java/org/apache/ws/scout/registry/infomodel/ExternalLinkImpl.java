@@ -18,6 +18,7 @@ package org.apache.ws.scout.registry.infomodel;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 import javax.xml.registry.JAXRException;
 import javax.xml.registry.LifeCycleManager;
@@ -61,23 +62,38 @@ public class ExternalLinkImpl extends RegistryObjectImpl
 
     public void setExternalURI(String str) throws JAXRException
     {
+        checkMutable();
         this.uri = str;
     }
 
     public void setValidateURI(boolean param) throws JAXRException
     {
+        checkMutable();
         this.validateuri = param;
     }
 
     //Specific API
     public void addLinkedObject(RegistryObject obj)
     {
+        checkMutable();
         linkedObj.add(obj);
     }
 
     public void removeLinkedObject(RegistryObject obj)
     {
+        checkMutable();
         linkedObj.remove(obj);
     }
 
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        linkedObj = Collections.unmodifiableCollection(linkedObj);
+    }
+
+    protected void thawContents()
+    {
+        super.thawContents();
+        linkedObj = new ArrayList<RegistryObject>(linkedObj);
+    }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ws.scout.registry.infomodel;
+
+/**
+ * Implemented by infomodel objects that can be made read-only, so that a
+ * query result can be cached and read by several threads without copying.
+ * Freezing does not publish the object: like any object that is no longer
+ * modified, it has to be handed to the other threads safely once frozen,
+ * for instance through a concurrent collection, a volatile field or a lock.
+ * Once frozen, every mutator throws a {@link FrozenObjectException}.
+ *
+ * @see ExtensibleObjectImpl#thaw()
+ * @see InternationalStringImpl#thaw()
+ */
+public interface Freezable
+{
+    /**
+     * Makes this object, and the infomodel objects it holds, read-only.
+     * Freezing an object that is already frozen has no effect.
+     */
+    void freeze();
+
+    /**
+     * @return true if this object has been frozen.
+     */
+    boolean isFrozen();
+}
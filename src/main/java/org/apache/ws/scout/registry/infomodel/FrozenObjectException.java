@@ -0,0 +1,33 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ws.scout.registry.infomodel;
+
+/**
+ * Thrown when a frozen infomodel object is modified.
+ *
+ * @see Freezable
+ */
+public class FrozenObjectException extends UnsupportedOperationException
+{
+    private static final long serialVersionUID = 2620135826315712454L;
+
+    public FrozenObjectException(Object frozen)
+    {
+        super(frozen.getClass().getName() + " is frozen and cannot be modified;"
+                + " use thaw() on the registry object to obtain an editable copy");
+    }
+}
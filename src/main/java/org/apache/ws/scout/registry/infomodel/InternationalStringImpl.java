@@ -32,12 +32,21 @@ import javax.xml.registry.infomodel.LocalizedString;
  *
  * @author Anil Saldhana  <anil@apache.org>
  */
-public class InternationalStringImpl implements InternationalString
+public class InternationalStringImpl implements InternationalString, Freezable
 {
     /**
-     * Maintains an Hashmap of locale to string value
+     * Holds the only LocalizedString while there is at most one, which is
+     * the usual case for values read from a registry.
      */
-    private final Map<MapKey,LocalizedString> map = new HashMap<MapKey,LocalizedString>();
+    private LocalizedString single;
+
+    /**
+     * Maintains an Hashmap of locale to string value, created once a
+     * second LocalizedString is added.
+     */
+    private Map<MapKey,LocalizedString> map;
+
+    private boolean frozen;
 
     public InternationalStringImpl()
     {
@@ -46,34 +55,35 @@ public class InternationalStringImpl implements InternationalString
     public InternationalStringImpl(String str)
     {
         Locale locale = Locale.getDefault();
-        map.put(new MapKey(locale, LocalizedString.DEFAULT_CHARSET_NAME), new LocalizedStringImpl(locale, str, LocalizedString.DEFAULT_CHARSET_NAME));
-
+        single = new LocalizedStringImpl(locale, str, LocalizedString.DEFAULT_CHARSET_NAME);
     }
 
     public InternationalStringImpl(Locale locale, String str, String charsetName)
     {
-        MapKey mapKey = new MapKey(locale, charsetName);
-        map.put(mapKey, new LocalizedStringImpl(locale, str, charsetName));
+        single = new LocalizedStringImpl(locale, str, charsetName);
     }
 
     public void addLocalizedString(LocalizedString localizedString) throws JAXRException
     {
-        MapKey mapKey = new MapKey(localizedString);
-        map.put(mapKey, localizedString);
+        checkMutable();
+        put(localizedString);
     }
 
     public void addLocalizedStrings(Collection collection) throws JAXRException
     {
+        checkMutable();
         for (Iterator i = collection.iterator(); i.hasNext();)
         {
             LocalizedString localizedString = (LocalizedString) i.next();
-            map.put(new MapKey(localizedString), localizedString);
+            put(localizedString);
         }
     }
 
     public Collection<LocalizedString> getLocalizedStrings() throws JAXRException
     {
-        return Collections.unmodifiableCollection(map.values());
+        if (map != null) return Collections.unmodifiableCollection(map.values());
+        if (single != null) return Collections.singletonList(single);
+        return Collections.emptyList();
     }
 
     public String getValue() throws JAXRException
@@ -83,27 +93,38 @@ public class InternationalStringImpl implements InternationalString
 
     public void setValue(String str) throws JAXRException
     {
+        checkMutable();
         setValue(Locale.getDefault(), str);
     }
 
     public String getValue(Locale locale) throws JAXRException
     {
-        LocalizedString localizedString = (LocalizedString) map.get(new MapKey(locale, LocalizedString.DEFAULT_CHARSET_NAME));
+        LocalizedString localizedString = getLocalizedString(locale, LocalizedString.DEFAULT_CHARSET_NAME);
         return localizedString != null ? localizedString.getValue() : null;
     }
 
     public void setValue(Locale locale, String value) throws JAXRException
     {
-        map.put(new MapKey(locale, LocalizedString.DEFAULT_CHARSET_NAME), new LocalizedStringImpl(locale, value, LocalizedString.DEFAULT_CHARSET_NAME));
+        checkMutable();
+        put(new LocalizedStringImpl(locale, value, LocalizedString.DEFAULT_CHARSET_NAME));
     }
 
     public void removeLocalizedString(LocalizedString localizedString) throws JAXRException
     {
-        map.remove(new MapKey(localizedString));
+        checkMutable();
+        if (map != null)
+        {
+            map.remove(new MapKey(localizedString));
+        }
+        else if (single != null && matches(single, localizedString.getLocale(), localizedString.getCharsetName()))
+        {
+            single = null;
+        }
     }
 
     public void removeLocalizedStrings(Collection collection) throws JAXRException
     {
+        checkMutable();
         for (Iterator i = collection.iterator(); i.hasNext();)
         {
             removeLocalizedString((LocalizedString) i.next());
@@ -112,7 +133,76 @@ public class InternationalStringImpl implements InternationalString
 
     public LocalizedString getLocalizedString(Locale locale, String charset) throws JAXRException
     {
-        return (LocalizedString) map.get(new MapKey(locale, charset));
+        if (map != null) return (LocalizedString) map.get(new MapKey(locale, charset));
+        return single != null && matches(single, locale, charset) ? single : null;
+    }
+
+    public void freeze()
+    {
+        if (frozen) return;
+        frozen = true;
+        if (map != null)
+        {
+            for (LocalizedString localizedString : map.values())
+            {
+                if (localizedString instanceof Freezable) ((Freezable) localizedString).freeze();
+            }
+        }
+        else if (single instanceof Freezable)
+        {
+            ((Freezable) single).freeze();
+        }
+    }
+
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    /**
+     * Returns an editable copy of this InternationalString, which shares
+     * the frozen LocalizedStrings of this one.
+     *
+     * @return an unfrozen copy, or this object if it is not frozen
+     */
+    public InternationalStringImpl thaw()
+    {
+        if (!frozen) return this;
+        InternationalStringImpl copy = new InternationalStringImpl();
+        copy.single = single;
+        if (map != null) copy.map = new HashMap<MapKey,LocalizedString>(map);
+        return copy;
+    }
+
+    private void checkMutable()
+    {
+        if (frozen) throw new FrozenObjectException(this);
+    }
+
+    /**
+     * Stores the LocalizedString inline while it is the only one, or
+     * replaces the inline value for the same locale and charset; any other
+     * LocalizedString moves the values into the map.
+     */
+    private void put(LocalizedString localizedString) throws JAXRException
+    {
+        if (map == null)
+        {
+            if (single == null || matches(single, localizedString.getLocale(), localizedString.getCharsetName()))
+            {
+                single = localizedString;
+                return;
+            }
+            map = new HashMap<MapKey,LocalizedString>();
+            map.put(new MapKey(single), single);
+            single = null;
+        }
+        map.put(new MapKey(localizedString), localizedString);
+    }
+
+    private static boolean matches(LocalizedString localizedString, Locale locale, String charsetName) throws JAXRException
+    {
+        return charsetName.equals(localizedString.getCharsetName()) && locale.equals(localizedString.getLocale());
     }
 
     private static class MapKey
@@ -24,9 +24,10 @@ import javax.xml.registry.infomodel.Key;
  *
  * @author Anil Saldhana  <anil@apache.org>
  */
-public class KeyImpl implements Key
+public class KeyImpl implements Key, Freezable
 {
     private String id;
+    private boolean frozen;
 
     public KeyImpl()
     {
@@ -44,9 +45,25 @@ public class KeyImpl implements Key
 
     public void setId(String str)
     {
+        checkMutable();
         this.id = str;
     }
 
+    public void freeze()
+    {
+        frozen = true;
+    }
+
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    private void checkMutable()
+    {
+        if (frozen) throw new FrozenObjectException(this);
+    }
+
     public boolean equals(Object o)
     {
         if (this == o) return true;
@@ -26,11 +26,12 @@ import javax.xml.registry.infomodel.LocalizedString;
  *
  * @author Anil Saldhana  <anil@apache.org>
  */
-public class LocalizedStringImpl implements LocalizedString
+public class LocalizedStringImpl implements LocalizedString, Freezable
 {
     private String charsetName;
     private Locale locale;
     private String value;
+    private boolean frozen;
 
     public LocalizedStringImpl()
     {
@@ -77,6 +78,7 @@ public class LocalizedStringImpl implements LocalizedString
 
     public void setCharsetName(String charsetName)
     {
+        checkMutable();
         if (charsetName == null)
         {
             throw new IllegalArgumentException("charsetName cannot be null");
@@ -86,6 +88,7 @@ public class LocalizedStringImpl implements LocalizedString
 
     public void setLocale(Locale locale)
     {
+        checkMutable();
         if (locale == null)
         {
             throw new IllegalArgumentException("locale cannot be null");
@@ -95,9 +98,25 @@ public class LocalizedStringImpl implements LocalizedString
 
     public void setValue(String value)
     {
+        checkMutable();
         this.value = value;
     }
 
+    public void freeze()
+    {
+        frozen = true;
+    }
+
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    private void checkMutable()
+    {
+        if (frozen) throw new FrozenObjectException(this);
+    }
+
     /**
      * There is a spec ambiguity here as it does not define how equals is determined for LocalizedString
      * but they are intended to be used in Collections.
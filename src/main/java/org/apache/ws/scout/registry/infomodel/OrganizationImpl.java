@@ -18,6 +18,7 @@ package org.apache.ws.scout.registry.infomodel;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -65,6 +66,7 @@ public class OrganizationImpl extends RegistryObjectImpl implements Organization
 
     public void setPrimaryContact(User user) throws JAXRException
     {
+        checkMutable();
         if (user == null)
         {
             throw new IllegalArgumentException("primaryContact must not be null");
@@ -83,6 +85,7 @@ public class OrganizationImpl extends RegistryObjectImpl implements Organization
 
     public void addUser(User user) throws JAXRException
     {
+        checkMutable();
         doPrimaryContactHack(user);
 
         users.add(user);
@@ -105,6 +108,7 @@ public class OrganizationImpl extends RegistryObjectImpl implements Organization
 
     public void addUsers(Collection collection) throws JAXRException
     {
+        checkMutable();
         // do this by hand to ensure all members are actually instances of User
         for (Iterator iterator = collection.iterator(); iterator.hasNext();)
         {
@@ -120,6 +124,7 @@ public class OrganizationImpl extends RegistryObjectImpl implements Organization
 
     public void removeUser(User user) throws JAXRException
     {
+        checkMutable();
         if (user != null) {
             users.remove(user);
         }
@@ -136,6 +141,7 @@ public class OrganizationImpl extends RegistryObjectImpl implements Organization
 
     public void removeUsers(Collection collection) throws JAXRException
     {
+        checkMutable();
         if (collection != null) {
             users.removeAll(collection);
         }
@@ -174,6 +180,7 @@ public class OrganizationImpl extends RegistryObjectImpl implements Organization
 
     public void setTelephoneNumbers(Collection collection) throws JAXRException
     {
+        checkMutable();
         // do this by hand to ensure all members are actually instances of TelephoneNumber
         Set<TelephoneNumber> numbers = new HashSet<TelephoneNumber>(collection.size());
         for (Object number : collection) {
@@ -184,6 +191,7 @@ public class OrganizationImpl extends RegistryObjectImpl implements Organization
 
     public void addService(Service service) throws JAXRException
     {
+        checkMutable();
         services.add(service);
 
         /*
@@ -196,6 +204,7 @@ public class OrganizationImpl extends RegistryObjectImpl implements Organization
 
     public void addServices(Collection collection) throws JAXRException
     {
+        checkMutable();
         // do this by hand to ensure all members are actually instances of Service
         for (Iterator iterator = collection.iterator(); iterator.hasNext();)
         {
@@ -212,11 +221,13 @@ public class OrganizationImpl extends RegistryObjectImpl implements Organization
 
     public void removeService(Service service) throws JAXRException
     {
+    	checkMutable();
     	services.remove(service);
     }
 
     public void removeServices(Collection collection) throws JAXRException
     {
+        checkMutable();
         services.removeAll(collection);
     }
 
@@ -278,4 +289,23 @@ public class OrganizationImpl extends RegistryObjectImpl implements Organization
     {
         throw new UnsupportedCapabilityException("Level 1 feature");
     }
+
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        freezeAll(users);
+        freezeAll(telephoneNumbers);
+        freezeAll(services);
+        users = Collections.unmodifiableSet(users);
+        telephoneNumbers = Collections.unmodifiableSet(telephoneNumbers);
+        services = Collections.unmodifiableCollection(services);
+    }
+
+    protected void thawContents()
+    {
+        super.thawContents();
+        users = new HashSet<User>(users);
+        telephoneNumbers = new HashSet<TelephoneNumber>(telephoneNumbers);
+        services = new ArrayList<Service>(services);
+    }
 }
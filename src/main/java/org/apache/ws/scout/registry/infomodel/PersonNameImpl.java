@@ -25,10 +25,11 @@ import javax.xml.registry.UnsupportedCapabilityException;
  *
  * @author Anil Saldhana  <anil@apache.org>
  */
-public class PersonNameImpl implements javax.xml.registry.infomodel.PersonName
+public class PersonNameImpl implements javax.xml.registry.infomodel.PersonName, Freezable
 {
 
     private String fullname = "";
+    private boolean frozen;
 
     /**
      * Creates a new instance of PersonNameImpl
@@ -49,6 +50,7 @@ public class PersonNameImpl implements javax.xml.registry.infomodel.PersonName
 
     public void setFullName(String str) throws JAXRException
     {
+        checkMutable();
         this.fullname = str;
     }
 
@@ -81,4 +83,19 @@ public class PersonNameImpl implements javax.xml.registry.infomodel.PersonName
     {
         throw new UnsupportedCapabilityException();
     }
+
+    public void freeze()
+    {
+        frozen = true;
+    }
+
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    private void checkMutable()
+    {
+        if (frozen) throw new FrozenObjectException(this);
+    }
 }
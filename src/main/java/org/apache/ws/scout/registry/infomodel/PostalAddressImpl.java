@@ -57,6 +57,7 @@ public class PostalAddressImpl extends ExtensibleObjectImpl implements PostalAdd
 
     public void setCity(String city)
     {
+        checkMutable();
         this.city = city;
     }
 
@@ -67,6 +68,7 @@ public class PostalAddressImpl extends ExtensibleObjectImpl implements PostalAdd
 
     public void setCountry(String country)
     {
+        checkMutable();
         this.country = country;
     }
 
@@ -77,6 +79,7 @@ public class PostalAddressImpl extends ExtensibleObjectImpl implements PostalAdd
 
     public void setPostalCode(String postalCode)
     {
+        checkMutable();
         this.postalCode = postalCode;
     }
 
@@ -87,6 +90,7 @@ public class PostalAddressImpl extends ExtensibleObjectImpl implements PostalAdd
 
     public void setPostalScheme(ClassificationScheme postalScheme)
     {
+        checkMutable();
         this.postalScheme = postalScheme;
     }
 
@@ -97,6 +101,7 @@ public class PostalAddressImpl extends ExtensibleObjectImpl implements PostalAdd
 
     public void setStateOrProvince(String stateOrProvince)
     {
+        checkMutable();
         this.stateOrProvince = stateOrProvince;
     }
 
@@ -107,6 +112,7 @@ public class PostalAddressImpl extends ExtensibleObjectImpl implements PostalAdd
 
     public void setStreet(String street)
     {
+        checkMutable();
         this.street = street;
     }
 
@@ -117,6 +123,7 @@ public class PostalAddressImpl extends ExtensibleObjectImpl implements PostalAdd
 
     public void setStreetNumber(String streetNumber)
     {
+        checkMutable();
         this.streetNumber = streetNumber;
     }
 
@@ -127,6 +134,7 @@ public class PostalAddressImpl extends ExtensibleObjectImpl implements PostalAdd
 
     public void setType(String type)
     {
+        checkMutable();
         this.type = type;
     }
 }
@@ -40,20 +40,34 @@ import javax.xml.registry.infomodel.RegistryObject;
  * Implements JAXR Interface.
  * For futher details, look into the JAXR API Javadoc.
  *
+ * <p>The classification, association, external identifier and external link
+ * collections are created when the first one is added. Until then their
+ * getters return an empty collection that does not show later additions, so
+ * get the collection again after changing it.</p>
+ *
  * @author <a href="mailto:anil@apache.org">Anil Saldhana</a>
  * @author <a href="mailto:geirm@apache.org">Geir Magnusson Jr.</a>
  */
 public class RegistryObjectImpl extends ExtensibleObjectImpl implements RegistryObject
 {
+    /**
+     * Marks a name or description that was never assigned; an empty
+     * InternationalString is only created when it is first read, like the
+     * lazily created collections.
+     */
+    private static final InternationalString UNSET = new InternationalStringImpl();
+
     private final LifeCycleManager lifeCycleManager;
     private Key key;
-    private InternationalString name = new InternationalStringImpl();
-    private InternationalString desc = new InternationalStringImpl();
+    private InternationalString name = UNSET;
+    private InternationalString desc = UNSET;
 
-    private Set<Classification> classifications = new HashSet<Classification>();
-    private Set<Association> associations = new HashSet<Association>();
-    private Set<ExternalIdentifier> externalIds = new HashSet<ExternalIdentifier>();
-    private Set<ExternalLink> externalLinks = new HashSet<ExternalLink>();
+    // The collections below are created on first write, since most
+    // objects built from query results leave them empty.
+    private Set<Classification> classifications;
+    private Set<Association> associations;
+    private Set<ExternalIdentifier> externalIds;
+    private Set<ExternalLink> externalLinks;
 
     //TODO never assigned
     private OrganizationImpl submittingOrganization;
@@ -76,26 +90,31 @@ public class RegistryObjectImpl extends ExtensibleObjectImpl implements Registry
 
     public InternationalString getDescription()
     {
+        if (desc == UNSET) desc = new InternationalStringImpl();
         return desc;
     }
 
     public void setDescription(InternationalString description)
     {
+        checkMutable();
         this.desc = description;
     }
 
     public InternationalString getName()
     {
+        if (name == UNSET) name = new InternationalStringImpl();
         return name;
     }
 
     public void setName(InternationalString name)
     {
+        checkMutable();
         this.name = name;
     }
 
     public void setKey(Key k)
     {
+        checkMutable();
         key = k;
     }
 
@@ -106,35 +125,42 @@ public class RegistryObjectImpl extends ExtensibleObjectImpl implements Registry
 
     public void addClassification(Classification classification)
     {
+        checkMutable();
+        if (classifications == null) classifications = new HashSet<Classification>();
         classifications.add(classification);
     }
 
     public void addClassifications(Collection collection)
     {
+        checkMutable();
         if (collection!=null) {
             for (Object classification : collection) {
-                classifications.add((Classification)classification);
+                addClassification((Classification)classification);
             }
         }
     }
 
     public void removeClassification(Classification classification)
     {
-        classifications.remove(classification);
+        checkMutable();
+        if (classifications != null) classifications.remove(classification);
     }
 
     public void removeClassifications(Collection collection)
     {
-        classifications.removeAll(collection);
+        checkMutable();
+        if (classifications != null) classifications.removeAll(collection);
     }
 
     public Collection getClassifications()
     {
+        if (classifications == null) return Collections.emptySet();
         return Collections.unmodifiableSet(classifications);
     }
 
     public void setClassifications(Collection collection)
     {
+        checkMutable();
         Set<Classification> newClassifications = new HashSet<Classification>(collection.size());
         for (Object classification : collection) {
             newClassifications.add((Classification) classification);
@@ -153,6 +179,8 @@ public class RegistryObjectImpl extends ExtensibleObjectImpl implements Registry
     public void addAssociation(Association association)
         throws JAXRException
     {
+        checkMutable();
+        if (associations == null) associations = new HashSet<Association>();
         associations.add(association);
 
         association.setSourceObject(this);
@@ -160,6 +188,7 @@ public class RegistryObjectImpl extends ExtensibleObjectImpl implements Registry
 
     public void addAssociations(Collection collection) throws JAXRException
     {
+        checkMutable();
         for (Object association : collection) {
             addAssociation((Association) association);
         }
@@ -167,11 +196,13 @@ public class RegistryObjectImpl extends ExtensibleObjectImpl implements Registry
 
     public Collection<Association> getAssociations() throws JAXRException
     {
+        if (associations == null) return Collections.emptySet();
         return Collections.unmodifiableSet(associations);
     }
 
     public void setAssociations(Collection collection)
     {
+        checkMutable();
         Set<Association> newAssociations = new HashSet<Association>(collection.size());
         for (Object association : collection) {
             newAssociations.add((Association) association);
@@ -181,55 +212,66 @@ public class RegistryObjectImpl extends ExtensibleObjectImpl implements Registry
 
     public void removeAssociation(Association association)
     {
-        associations.remove(association);
+        checkMutable();
+        if (associations != null) associations.remove(association);
     }
 
     public void removeAssociations(Collection collection)
     {
-        associations.removeAll(collection);
+        checkMutable();
+        if (associations != null) associations.removeAll(collection);
     }
 
     public void addExternalIdentifier(ExternalIdentifier externalIdentifier)
     {
+        checkMutable();
+        if (externalIds == null) externalIds = new HashSet<ExternalIdentifier>();
         externalIds.add(externalIdentifier);
         ((ExternalIdentifierImpl) externalIdentifier).setRegistryObject(this);
     }
 
     public void addExternalIdentifiers(Collection collection)
     {
+        checkMutable();
         if (collection!=null) {
             for (Object externalId : collection) {
-                externalIds.add((ExternalIdentifier) externalId);
-                ((ExternalIdentifierImpl) externalId).setRegistryObject(this);
+                addExternalIdentifier((ExternalIdentifier) externalId);
             }
         }
     }
 
     public void removeExternalIdentifier(ExternalIdentifier externalIdentifier)
     {
-        externalIds.remove(externalIdentifier);
-        ((ExternalIdentifierImpl) externalIdentifier).setRegistryObject(null);
+        checkMutable();
+        if (externalIds != null) externalIds.remove(externalIdentifier);
+        // a frozen identifier is shared with the object this one was thawed from
+        if (!((ExternalIdentifierImpl) externalIdentifier).isFrozen())
+            ((ExternalIdentifierImpl) externalIdentifier).setRegistryObject(null);
     }
 
     public void removeExternalIdentifiers(Collection collection)
     {
+        checkMutable();
         //Lets clear out the reference to this in the ext id
         Iterator iter = collection.iterator();
         while (iter != null && iter.hasNext())
         {
             ExternalIdentifier externalId = (ExternalIdentifier) iter.next();
-            ((ExternalIdentifierImpl) externalId).setRegistryObject(null);
+            if (!((ExternalIdentifierImpl) externalId).isFrozen())
+                ((ExternalIdentifierImpl) externalId).setRegistryObject(null);
         }
-        externalIds.removeAll(collection);
+        if (externalIds != null) externalIds.removeAll(collection);
     }
 
     public Collection<ExternalIdentifier> getExternalIdentifiers()
     {
+        if (externalIds == null) return Collections.emptySet();
         return Collections.unmodifiableSet(externalIds);
     }
 
     public void setExternalIdentifiers(Collection collection)
     {
+        checkMutable();
         Set<ExternalIdentifier> newExternalIds = new HashSet<ExternalIdentifier>(collection.size());
         for (Object externalId : collection) {
             newExternalIds.add((ExternalIdentifier) externalId);
@@ -239,42 +281,51 @@ public class RegistryObjectImpl extends ExtensibleObjectImpl implements Registry
 
     public void addExternalLink(ExternalLink externalLink)
     {
+        checkMutable();
+        if (externalLinks == null) externalLinks = new HashSet<ExternalLink>();
         externalLinks.add(externalLink);
         ((ExternalLinkImpl) externalLink).addLinkedObject(this);
     }
 
     public void addExternalLinks(Collection collection)
     {
+        checkMutable();
         for (Object externalLink : collection) {
-            externalLinks.add((ExternalLink) externalLink);
-            ((ExternalLinkImpl) externalLink).addLinkedObject(this);
+            addExternalLink((ExternalLink) externalLink);
         }
     }
 
     public void removeExternalLink(ExternalLink externalLink)
     {
-        ((ExternalLinkImpl) externalLink).removeLinkedObject(this);
-        externalLinks.remove(externalLink);
+        checkMutable();
+        // a frozen link is shared with the object this one was thawed from
+        if (!((ExternalLinkImpl) externalLink).isFrozen())
+            ((ExternalLinkImpl) externalLink).removeLinkedObject(this);
+        if (externalLinks != null) externalLinks.remove(externalLink);
     }
 
     public void removeExternalLinks(Collection collection)
     {
+        checkMutable();
         Iterator iter = collection.iterator();
         while (iter != null && iter.hasNext())
         {
             ExternalLink externalLink = (ExternalLink) iter.next();
-            ((ExternalLinkImpl) externalLink).removeLinkedObject(this);
+            if (!((ExternalLinkImpl) externalLink).isFrozen())
+                ((ExternalLinkImpl) externalLink).removeLinkedObject(this);
         }
-        externalLinks.removeAll(collection);
+        if (externalLinks != null) externalLinks.removeAll(collection);
     }
 
     public Collection<ExternalLink> getExternalLinks()
     {
+        if (externalLinks == null) return Collections.emptySet();
         return Collections.unmodifiableSet(externalLinks);
     }
 
     public void setExternalLinks(Collection collection)
     {
+        checkMutable();
         Set<ExternalLink> newExternalLinks = new HashSet<ExternalLink>(collection.size());
         for (Object externalLink : collection) {
             newExternalLinks.add((ExternalLink) externalLink);
@@ -313,6 +364,32 @@ public class RegistryObjectImpl extends ExtensibleObjectImpl implements Registry
         return key == null ? 0 : key.hashCode();
     }
 
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        if (name == UNSET) name = new InternationalStringImpl();
+        if (desc == UNSET) desc = new InternationalStringImpl();
+        freeze(key);
+        freeze(name);
+        freeze(desc);
+        freezeAll(classifications);
+        freezeAll(associations);
+        freezeAll(externalIds);
+        freezeAll(externalLinks);
+    }
+
+    protected void thawContents()
+    {
+        super.thawContents();
+        // the name and description are edited in place, so the copy gets its own
+        if (name instanceof InternationalStringImpl) name = ((InternationalStringImpl) name).thaw();
+        if (desc instanceof InternationalStringImpl) desc = ((InternationalStringImpl) desc).thaw();
+        if (classifications != null) classifications = new HashSet<Classification>(classifications);
+        if (associations != null) associations = new HashSet<Association>(associations);
+        if (externalIds != null) externalIds = new HashSet<ExternalIdentifier>(externalIds);
+        if (externalLinks != null) externalLinks = new HashSet<ExternalLink>(externalLinks);
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // Level 1 features must throw exceptions
     ///////////////////////////////////////////////////////////////////////////
@@ -17,6 +17,7 @@ package org.apache.ws.scout.registry.infomodel;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 
 import javax.xml.registry.InvalidRequestException;
@@ -54,12 +55,14 @@ public class ServiceBindingImpl extends RegistryObjectImpl implements ServiceBin
 
     public void addSpecificationLink(SpecificationLink sl) throws JAXRException
     {
+        checkMutable();
         links.add(sl);
         ((SpecificationLinkImpl)sl).setServiceBinding(this);
     }
 
     public void addSpecificationLinks(Collection col) throws JAXRException
     {
+        checkMutable();
         try
         {
             Iterator iter = col.iterator();
@@ -95,16 +98,19 @@ public class ServiceBindingImpl extends RegistryObjectImpl implements ServiceBin
 
     public void removeSpecificationLink(SpecificationLink link) throws JAXRException
     {
+        checkMutable();
         links.remove(link);
     }
 
     public void removeSpecificationLinks(Collection col) throws JAXRException
     {
+        checkMutable();
         links.removeAll(col);
     }
 
     public void setAccessURI(String s) throws JAXRException
     {
+        checkMutable();
         if(targetbinding != null)
         throw new InvalidRequestException("There is already a Target Binding defined");
         accessuri = s;
@@ -112,6 +118,7 @@ public class ServiceBindingImpl extends RegistryObjectImpl implements ServiceBin
 
     public void setTargetBinding(ServiceBinding sb) throws JAXRException
     {
+        checkMutable();
         if(accessuri != null)
                 throw new InvalidRequestException("There is already an Access URI defined");
 
@@ -125,12 +132,27 @@ public class ServiceBindingImpl extends RegistryObjectImpl implements ServiceBin
 
     public void setValidateURI(boolean b) throws JAXRException
     {
+        checkMutable();
         validateuri = b;
     }
 
     //Specific API
     public void setService(Service s)
     {
+        checkMutable();
         service =s;
     }
+
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        freezeAll(links);
+        links = Collections.unmodifiableCollection(links);
+    }
+
+    protected void thawContents()
+    {
+        super.thawContents();
+        links = new ArrayList<SpecificationLink>(links);
+    }
 }
@@ -18,6 +18,7 @@ package org.apache.ws.scout.registry.infomodel;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 
 import javax.xml.registry.BusinessQueryManager;
@@ -53,6 +54,7 @@ public class ServiceImpl extends RegistryEntryImpl implements Service
     public void addServiceBinding(ServiceBinding sb)
             throws JAXRException
     {
+        checkMutable();
         serviceBindings.add(sb);
         ((ServiceBindingImpl)sb).setService(this);
     }
@@ -60,6 +62,7 @@ public class ServiceImpl extends RegistryEntryImpl implements Service
     public void addServiceBindings(Collection col)
             throws JAXRException
     {
+       checkMutable();
        try{
         Iterator iter = col.iterator();
         while(iter.hasNext())
@@ -84,7 +87,8 @@ public class ServiceImpl extends RegistryEntryImpl implements Service
         		if (orgKey==null) return null;
                 Organization o = (Organization) bqm.getRegistryObject(orgKey,
                         LifeCycleManager.ORGANIZATION);
-                setProvidingOrganization(o);	
+                // a frozen service is read-only, so it cannot cache the lookup
+                if (!isFrozen()) setProvidingOrganization(o);	
                 return o;
         	}
         }
@@ -99,26 +103,43 @@ public class ServiceImpl extends RegistryEntryImpl implements Service
     public void removeServiceBinding(ServiceBinding serviceBinding)
             throws JAXRException
     {
+        checkMutable();
         serviceBindings.remove(serviceBinding);
     }
 
     public void removeServiceBindings(Collection collection)
             throws JAXRException
     {
+        checkMutable();
         serviceBindings.removeAll(collection);
     }
 
     public void setProvidingOrganization(Organization organization)
             throws JAXRException
     {
+        checkMutable();
         this.org = organization;
     }
     
     public void setSubmittingOrganizationKey(String key) {
+    	checkMutable();
     	orgKey = key;
     }
     
     public String getSubmittingOrganizationKey() {
     	return orgKey;
     }   
+
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        freezeAll(serviceBindings);
+        serviceBindings = Collections.unmodifiableCollection(serviceBindings);
+    }
+
+    protected void thawContents()
+    {
+        super.thawContents();
+        serviceBindings = new ArrayList<ServiceBinding>(serviceBindings);
+    }
 }
@@ -29,11 +29,12 @@ import javax.xml.registry.infomodel.Slot;
  * @author <mailto:anil@apache.org>Anil Saldhana
  * @since Nov 20, 2004
  */
-public class SlotImpl implements Slot
+public class SlotImpl implements Slot, Freezable
 {
     private String slotType;
     private String name;
     private Collection<String> values;
+    private boolean frozen;
 
     @SuppressWarnings("unchecked")
     public SlotImpl()
@@ -58,16 +59,19 @@ public class SlotImpl implements Slot
 
     public void setName(String s) throws JAXRException
     {
+        checkMutable();
         name = s;
     }
 
     public void setSlotType(String s) throws JAXRException
     {
+        checkMutable();
         slotType = s;
     }
 
     public void setValues(Collection collection) throws JAXRException
     {
+        checkMutable();
         if (collection == null)
         {
             throw new IllegalArgumentException("values cannot be null");
@@ -77,6 +81,23 @@ public class SlotImpl implements Slot
         values = new HashSet<String>(collection);
     }
 
+    public void freeze()
+    {
+        if (frozen) return;
+        frozen = true;
+        values = Collections.unmodifiableCollection(values);
+    }
+
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    private void checkMutable()
+    {
+        if (frozen) throw new FrozenObjectException(this);
+    }
+
     /**
      * Slots can be used in Collections but the spec does not define equals()
      * We define two slots with the same name as being equal as the spec says
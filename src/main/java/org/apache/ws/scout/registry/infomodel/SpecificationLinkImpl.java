@@ -16,7 +16,9 @@
  */
 package org.apache.ws.scout.registry.infomodel;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 import javax.xml.registry.JAXRException;
 import javax.xml.registry.LifeCycleManager;
@@ -66,22 +68,39 @@ public class SpecificationLinkImpl extends RegistryObjectImpl
 
     public void setSpecificationObject(RegistryObject registryObject) throws JAXRException
     {
+        checkMutable();
         specObj = registryObject;
     }
 
     public void setUsageDescription(InternationalString is) throws JAXRException
     {
+        checkMutable();
         descr = is;
     }
 
     public void setUsageParameters(Collection collection) throws JAXRException
     {
+        checkMutable();
         usageParams = collection;
     }
 
     //Specific API
     public void setServiceBinding(ServiceBinding s)
     {
+        checkMutable();
         binding = s;
     }
+
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        freeze(descr);
+        if (usageParams != null) usageParams = Collections.unmodifiableCollection(usageParams);
+    }
+
+    protected void thawContents()
+    {
+        super.thawContents();
+        if (usageParams != null) usageParams = new ArrayList(usageParams);
+    }
 }
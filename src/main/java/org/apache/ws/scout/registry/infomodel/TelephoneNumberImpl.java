@@ -26,10 +26,11 @@ import javax.xml.registry.infomodel.TelephoneNumber;
  *
  * @author Anil Saldhana  <anil@apache.org>
  */
-public class TelephoneNumberImpl implements TelephoneNumber
+public class TelephoneNumberImpl implements TelephoneNumber, Freezable
 {
     private String number;
     private String type;
+    private boolean frozen;
 
     public TelephoneNumberImpl()
     {
@@ -42,6 +43,7 @@ public class TelephoneNumberImpl implements TelephoneNumber
 
     public void setNumber(String number)
     {
+        checkMutable();
         this.number = number;
     }
 
@@ -52,6 +54,7 @@ public class TelephoneNumberImpl implements TelephoneNumber
 
     public void setType(String type)
     {
+        checkMutable();
         this.type = type;
     }
 
@@ -95,6 +98,21 @@ public class TelephoneNumberImpl implements TelephoneNumber
         throw new UnsupportedCapabilityException("Level 1 feature");
     }
 
+    public void freeze()
+    {
+        frozen = true;
+    }
+
+    public boolean isFrozen()
+    {
+        return frozen;
+    }
+
+    private void checkMutable()
+    {
+        if (frozen) throw new FrozenObjectException(this);
+    }
+
     public boolean equals(Object o)
     {
         if (this == o) return true;
@@ -19,6 +19,7 @@ package org.apache.ws.scout.registry.infomodel;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 import javax.xml.registry.JAXRException;
 import javax.xml.registry.LifeCycleManager;
@@ -87,28 +88,33 @@ public class UserImpl extends RegistryObjectImpl implements User
     public void setEmailAddresses(Collection collection)
             throws JAXRException
     {
+        checkMutable();
         emailAddresses = collection;
     }
 
     public void setPersonName(PersonName pname) throws JAXRException
     {
+        checkMutable();
         personName = pname;
     }
 
     public void setPostalAddresses(Collection collection)
             throws JAXRException
     {
+        checkMutable();
         postalAddresses = collection;
     }
 
     public void setTelephoneNumbers(Collection collection)
             throws JAXRException
     {
+        checkMutable();
         telnumbers = collection;
     }
 
     public void setType(String str) throws JAXRException
     {
+        checkMutable();
         type = str;
     }
 
@@ -125,6 +131,28 @@ public class UserImpl extends RegistryObjectImpl implements User
     //Specific API
     public void setOrganization(Organization o)
     {
+        checkMutable();
         org = o;
     }
+
+    protected void freezeContents()
+    {
+        super.freezeContents();
+        freeze(personName);
+        freezeAll(postalAddresses);
+        freezeAll(emailAddresses);
+        freezeAll(telnumbers);
+        // the setters accept null collections
+        if (postalAddresses != null) postalAddresses = Collections.unmodifiableCollection(postalAddresses);
+        if (emailAddresses != null) emailAddresses = Collections.unmodifiableCollection(emailAddresses);
+        if (telnumbers != null) telnumbers = Collections.unmodifiableCollection(telnumbers);
+    }
+
+    protected void thawContents()
+    {
+        super.thawContents();
+        if (postalAddresses != null) postalAddresses = new ArrayList(postalAddresses);
+        if (emailAddresses != null) emailAddresses = new ArrayList(emailAddresses);
+        if (telnumbers != null) telnumbers = new ArrayList(telnumbers);
+    }
 }
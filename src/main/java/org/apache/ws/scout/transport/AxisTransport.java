@@ -27,6 +27,7 @@ import org.apache.axis.message.SOAPBodyElement;
 import org.apache.axis.utils.XMLUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.ws.scout.util.Deadline;
 import org.w3c.dom.Element;
 
 /**
@@ -57,6 +58,7 @@ public class AxisTransport implements Transport
       service = new Service();
       call = (Call)service.createCall();
       call.setTargetEndpointAddress(endpointURL.toURL());
+      setTimeout(call);
       
       String requestString = XMLUtils.ElementToString(request);
       SOAPBodyElement body = new SOAPBodyElement(new ByteArrayInputStream(requestString.getBytes("UTF-8")));
@@ -103,6 +105,7 @@ public class AxisTransport implements Transport
       service = new Service();
       call = (Call)service.createCall();
       call.setTargetEndpointAddress(endpointURL.toURL());
+      setTimeout(call);
     
       SOAPBodyElement body = new SOAPBodyElement(new ByteArrayInputStream(request.getBytes("UTF-8")));
       Object[] soapBodies = new Object[] { body };
@@ -130,4 +133,15 @@ public class AxisTransport implements Transport
 
     return response;
   }
+
+  /**
+   * Bounds the call by the deadline of the current thread.
+   */
+  private static void setTimeout(Call call)
+  {
+    long remaining = Deadline.remaining();
+    if (remaining >= 0) {
+      call.setTimeout(Integer.valueOf((int) Math.min(Math.max(remaining, 1), Integer.MAX_VALUE)));
+    }
+  }
 }
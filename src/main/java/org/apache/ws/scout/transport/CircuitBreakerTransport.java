@@ -0,0 +1,285 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.transport;
+
+import java.net.URI;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ws.scout.registry.ConnectionFactoryImpl;
+import org.w3c.dom.Element;
+
+/**
+ * Transport that protects the callers from a registry endpoint that fails
+ * or slows down, with a circuit breaker and a concurrency limit per URI.
+ *
+ * <p>The breaker opens when the share of failed or slow calls among the
+ * last calls reaches the failure rate. While open, requests fail at once.
+ * After the open time a single trial request is let through, which closes
+ * the breaker again or keeps it open.</p>
+ *
+ * <p>The number of requests in progress is bounded by a limit that grows by
+ * one for every limit successful calls and is halved by every failed or slow
+ * one (AIMD), up to {@link ConnectionFactoryImpl#CONCURRENCY_LIMIT_PROPERTY}.
+ * Requests over the limit fail at once.</p>
+ *
+ * <p>A fault returned by the registry counts as a successful call.</p>
+ */
+public class CircuitBreakerTransport implements Transport {
+
+    public static final double DEFAULT_FAILURE_RATE     = 0.5;
+    public static final int    DEFAULT_WINDOW           = 20;
+    public static final long   DEFAULT_SLOW_CALL_TIME   = 10000L;
+    public static final long   DEFAULT_OPEN_TIME        = 30000L;
+    public static final int    DEFAULT_CONCURRENCY_LIMIT = 64;
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * The state and metrics of the calls to one URI.
+     */
+    public final class Breaker {
+        private final URI uri;
+        // outcomes of the last calls, true for a failure
+        private final boolean[] outcomes = new boolean[window];
+        private int count;
+        private int next;
+        private int failures;
+        private State state = State.CLOSED;
+        private long openedAt;
+        private boolean trial;
+        private double limit = maxLimit;
+        private int inFlight;
+        private long calls;
+        private long failed;
+        private long rejected;
+
+        Breaker(URI uri) {
+            this.uri = uri;
+        }
+
+        public synchronized State getState() {
+            return state;
+        }
+
+        /**
+         * @return the share of failed or slow calls among the last calls.
+         */
+        public synchronized double getFailureRate() {
+            return count == 0 ? 0 : (double) failures / count;
+        }
+
+        /**
+         * @return the current concurrency limit, or 0 when there is none.
+         */
+        public synchronized int getLimit() {
+            return (int) limit;
+        }
+
+        public synchronized int getInFlight() {
+            return inFlight;
+        }
+
+        public synchronized long getCalls() {
+            return calls;
+        }
+
+        public synchronized long getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return the number of requests that failed at once.
+         */
+        public synchronized long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * @return true if the call is the trial of a half open breaker.
+         */
+        synchronized boolean acquire(long now) throws TransportException {
+            if (state == State.OPEN) {
+                if (now - openedAt < openTime) {
+                    rejected++;
+                    throw new TransportException("Circuit breaker of " + uri + " is open");
+                }
+                state = State.HALF_OPEN;
+                log.info("Circuit breaker of " + uri + " is half open");
+            }
+            if (state == State.HALF_OPEN && trial) {
+                rejected++;
+                throw new TransportException("Circuit breaker of " + uri + " is half open");
+            }
+            if (maxLimit > 0 && inFlight >= (int) limit) {
+                rejected++;
+                throw new TransportException("Concurrency limit of " + (int) limit + " reached for " + uri);
+            }
+            inFlight++;
+            if (state == State.HALF_OPEN) {
+                trial = true;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @param trial - whether the call was the trial of a half open
+         * breaker; only the trial decides whether the breaker closes again.
+         */
+        synchronized void release(boolean trial, boolean failure, long millis) {
+            inFlight--;
+            calls++;
+            failure |= millis >= slowCallTime;
+            if (failure) {
+                failed++;
+            }
+            if (maxLimit > 0) {
+                limit = failure ? Math.max(1, limit / 2) : Math.min(maxLimit, limit + 1 / limit);
+            }
+
+            if (trial) {
+                this.trial = false;
+                if (failure) {
+                    open(System.currentTimeMillis());
+                } else {
+                    state = State.CLOSED;
+                    count = next = failures = 0;
+                    log.info("Circuit breaker of " + uri + " is closed");
+                }
+                return;
+            }
+            // the calls sent before the breaker opened do not count
+            if (state != State.CLOSED) {
+                return;
+            }
+            if (count == outcomes.length) {
+                if (outcomes[next]) failures--;
+            } else {
+                count++;
+            }
+            outcomes[next] = failure;
+            if (failure) failures++;
+            next = (next + 1) % outcomes.length;
+            if (count == outcomes.length && failures >= failureRate * count) {
+                open(System.currentTimeMillis());
+            }
+        }
+
+        private void open(long now) {
+            state = State.OPEN;
+            openedAt = now;
+            log.warn("Circuit breaker of " + uri + " is open for " + openTime + " ms");
+        }
+    }
+
+    private interface Call<T> {
+        T send() throws TransportException;
+    }
+
+    private static Log log = LogFactory.getLog(CircuitBreakerTransport.class);
+
+    private final Transport transport;
+    private final double failureRate;
+    private final int window;
+    private final long slowCallTime;
+    private final long openTime;
+    private final int maxLimit;
+    private final ConcurrentMap<URI, Breaker> breakers = new ConcurrentHashMap<URI, Breaker>();
+
+    /**
+     * @param maxLimit - the highest concurrency limit, 0 for none.
+     */
+    public CircuitBreakerTransport(Transport transport, double failureRate, int window,
+                                   long slowCallTime, long openTime, int maxLimit) {
+        this.transport = transport;
+        this.failureRate = failureRate;
+        this.window = Math.max(1, window);
+        this.slowCallTime = slowCallTime;
+        this.openTime = openTime;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * @return the transport guarded as configured by the properties, or the
+     * transport itself when {@link ConnectionFactoryImpl#CIRCUIT_BREAKER_PROPERTY}
+     * is not set.
+     */
+    public static Transport wrap(Transport transport, Properties properties) {
+        if (!Boolean.valueOf(properties.getProperty(ConnectionFactoryImpl.CIRCUIT_BREAKER_PROPERTY))) {
+            return transport;
+        }
+        return new CircuitBreakerTransport(transport,
+                Double.parseDouble(get(properties, ConnectionFactoryImpl.CIRCUIT_BREAKER_FAILURE_RATE_PROPERTY, DEFAULT_FAILURE_RATE)),
+                Integer.parseInt(get(properties, ConnectionFactoryImpl.CIRCUIT_BREAKER_WINDOW_PROPERTY, DEFAULT_WINDOW)),
+                Long.parseLong(get(properties, ConnectionFactoryImpl.CIRCUIT_BREAKER_SLOW_CALL_PROPERTY, DEFAULT_SLOW_CALL_TIME)),
+                Long.parseLong(get(properties, ConnectionFactoryImpl.CIRCUIT_BREAKER_OPEN_TIME_PROPERTY, DEFAULT_OPEN_TIME)),
+                Integer.parseInt(get(properties, ConnectionFactoryImpl.CONCURRENCY_LIMIT_PROPERTY, DEFAULT_CONCURRENCY_LIMIT)));
+    }
+
+    private static String get(Properties properties, String name, Object defaultValue) {
+        return properties.getProperty(name, String.valueOf(defaultValue)).trim();
+    }
+
+    /**
+     * @return the breaker of the given URI.
+     */
+    public Breaker getBreaker(URI uri) {
+        Breaker breaker = breakers.get(uri);
+        if (breaker == null) {
+            breaker = new Breaker(uri);
+            Breaker existing = breakers.putIfAbsent(uri, breaker);
+            if (existing != null) breaker = existing;
+        }
+        return breaker;
+    }
+
+    public Element send(final Element request, final URI endpointURI) throws TransportException {
+        return send(endpointURI, new Call<Element>() {
+            public Element send() throws TransportException {
+                return transport.send(request, endpointURI);
+            }
+        });
+    }
+
+    public String send(final String request, final URI endpointURI) throws TransportException {
+        return send(endpointURI, new Call<String>() {
+            public String send() throws TransportException {
+                return transport.send(request, endpointURI);
+            }
+        });
+    }
+
+    private <T> T send(URI uri, Call<T> call) throws TransportException {
+        Breaker breaker = getBreaker(uri);
+        long start = System.currentTimeMillis();
+        boolean trial = breaker.acquire(start);
+        boolean failure = true;
+        try {
+            T response = call.send();
+            failure = false;
+            return response;
+        } catch (TransportException e) {
+            failure = !e.isFault();
+            throw e;
+        } finally {
+            breaker.release(trial, failure, System.currentTimeMillis() - start);
+        }
+    }
+}
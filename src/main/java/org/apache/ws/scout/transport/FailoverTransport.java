@@ -0,0 +1,325 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.transport;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ws.scout.registry.ConnectionFactoryImpl;
+import org.w3c.dom.Element;
+
+/**
+ * Transport that spreads the requests for one registry URI over several
+ * endpoints, each a transport and the URI it is sent to.
+ *
+ * <p>The endpoint is chosen by a {@link Policy}. An endpoint that fails
+ * {@link ConnectionFactoryImpl#ENDPOINT_MAX_FAILURES_PROPERTY} times in a row
+ * is ejected for {@link ConnectionFactoryImpl#ENDPOINT_EJECT_TIME_PROPERTY}
+ * milliseconds, after which it is tried again; a single failure then ejects
+ * it again. A fault returned by the registry counts as an answer, not as a
+ * failure of the endpoint.</p>
+ *
+ * <p>Inquiries that fail are retried on the other endpoints. Publish and
+ * security requests are not, as they may have been applied.</p>
+ */
+public class FailoverTransport implements Transport {
+
+    public static final int  DEFAULT_MAX_FAILURES = 3;
+    public static final long DEFAULT_EJECT_TIME   = 30000L;
+
+    /**
+     * How the endpoint of a request is chosen among the available ones.
+     */
+    public enum Policy {
+        /** each endpoint in turn */
+        ROUND_ROBIN,
+        /** the endpoint with the fewest requests in progress */
+        LEAST_OUTSTANDING,
+        /** the endpoint with the lowest average latency, weighted by its requests in progress */
+        LATENCY;
+
+        /**
+         * @throws IllegalArgumentException if the name is not a policy.
+         */
+        public static Policy parse(String name) {
+            if (name == null || name.length() == 0 || "roundRobin".equalsIgnoreCase(name)) {
+                return ROUND_ROBIN;
+            }
+            if ("leastOutstanding".equalsIgnoreCase(name)) {
+                return LEAST_OUTSTANDING;
+            }
+            if ("latency".equalsIgnoreCase(name)) {
+                return LATENCY;
+            }
+            for (Policy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name)) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("Invalid " + ConnectionFactoryImpl.ENDPOINT_POLICY_PROPERTY + " '" + name
+                    + "', expected roundRobin, leastOutstanding or latency");
+        }
+    }
+
+    /**
+     * A transport and the URI its requests are sent to, with its health.
+     */
+    public static final class Endpoint {
+        // weight of the last request in the average latency
+        private static final double ALPHA = 0.3;
+
+        private final Transport transport;
+        private final URI uri;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private int failures;
+        private long ejectedUntil;
+        private double latency;
+
+        public Endpoint(Transport transport, URI uri) {
+            this.transport = transport;
+            this.uri = uri;
+        }
+
+        public URI getURI() {
+            return uri;
+        }
+
+        /**
+         * @return the number of requests in progress.
+         */
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        /**
+         * @return the moving average of the latency, in nanoseconds.
+         */
+        public synchronized double getLatency() {
+            return latency;
+        }
+
+        public synchronized boolean isAvailable(long now) {
+            return now >= ejectedUntil;
+        }
+
+        synchronized long getEjectedUntil() {
+            return ejectedUntil;
+        }
+
+        synchronized void succeeded(long nanos) {
+            failures = 0;
+            latency = (latency == 0) ? nanos : ALPHA * nanos + (1 - ALPHA) * latency;
+        }
+
+        /**
+         * @return true if the endpoint was ejected.
+         */
+        synchronized boolean failed(long now, int maxFailures, long ejectTime) {
+            if (++failures >= maxFailures) {
+                ejectedUntil = now + ejectTime;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Group {
+        final List<Endpoint> endpoints;
+        final boolean retry;
+        final AtomicInteger next = new AtomicInteger();
+
+        Group(List<Endpoint> endpoints, boolean retry) {
+            this.endpoints = endpoints;
+            this.retry = retry;
+        }
+    }
+
+    private interface Call<T> {
+        T send(Transport transport, URI uri) throws TransportException;
+    }
+
+    private static Log log = LogFactory.getLog(FailoverTransport.class);
+
+    private final Transport transport;
+    private final Policy policy;
+    private final int maxFailures;
+    private final long ejectTime;
+    private final Map<URI, Group> groups = new ConcurrentHashMap<URI, Group>();
+
+    /**
+     * @param transport - sends the requests for URIs without endpoints.
+     */
+    public FailoverTransport(Transport transport, Policy policy, int maxFailures, long ejectTime) {
+        this.transport = transport;
+        this.policy = policy;
+        this.maxFailures = maxFailures;
+        this.ejectTime = ejectTime;
+    }
+
+    /**
+     * Creates a transport configured with the endpoint properties of
+     * {@link ConnectionFactoryImpl}.
+     */
+    public FailoverTransport(Transport transport, Properties properties) {
+        this(transport,
+             Policy.parse(properties.getProperty(ConnectionFactoryImpl.ENDPOINT_POLICY_PROPERTY)),
+             Integer.parseInt(properties.getProperty(ConnectionFactoryImpl.ENDPOINT_MAX_FAILURES_PROPERTY,
+                     String.valueOf(DEFAULT_MAX_FAILURES)).trim()),
+             Long.parseLong(properties.getProperty(ConnectionFactoryImpl.ENDPOINT_EJECT_TIME_PROPERTY,
+                     String.valueOf(DEFAULT_EJECT_TIME)).trim()));
+    }
+
+    /**
+     * @return the URIs of a comma or white space separated list.
+     */
+    public static List<URI> parseURIs(String list) throws URISyntaxException {
+        List<URI> uris = new ArrayList<URI>();
+        if (list != null) {
+            for (String uri : list.trim().split("[,\\s]+")) {
+                if (uri.length() > 0) {
+                    uris.add(new URI(uri));
+                }
+            }
+        }
+        return uris;
+    }
+
+    /**
+     * Sends the requests for the given URI to the given endpoints.
+     * @param retry - whether a failed request is sent to the next endpoint.
+     */
+    public void setEndpoints(URI uri, List<Endpoint> endpoints, boolean retry) {
+        groups.put(uri, new Group(new ArrayList<Endpoint>(endpoints), retry));
+    }
+
+    /**
+     * @return the endpoints of the given URI, or an empty list.
+     */
+    public List<Endpoint> getEndpoints(URI uri) {
+        Group group = groups.get(uri);
+        return group == null ? Collections.<Endpoint>emptyList() : Collections.unmodifiableList(group.endpoints);
+    }
+
+    public Element send(final Element request, URI endpointURI) throws TransportException {
+        Group group = groups.get(endpointURI);
+        if (group == null) {
+            return transport.send(request, endpointURI);
+        }
+        return send(group, new Call<Element>() {
+            public Element send(Transport transport, URI uri) throws TransportException {
+                return transport.send(request, uri);
+            }
+        });
+    }
+
+    public String send(final String request, URI endpointURI) throws TransportException {
+        Group group = groups.get(endpointURI);
+        if (group == null) {
+            return transport.send(request, endpointURI);
+        }
+        return send(group, new Call<String>() {
+            public String send(Transport transport, URI uri) throws TransportException {
+                return transport.send(request, uri);
+            }
+        });
+    }
+
+    private <T> T send(Group group, Call<T> call) throws TransportException {
+        List<Endpoint> tried = new ArrayList<Endpoint>();
+        int attempts = group.retry ? group.endpoints.size() : 1;
+        TransportException failure = null;
+        for (int i = 0; i < attempts; i++) {
+            Endpoint endpoint = select(group, tried);
+            tried.add(endpoint);
+            long start = System.nanoTime();
+            endpoint.outstanding.incrementAndGet();
+            try {
+                T response = call.send(endpoint.transport, endpoint.uri);
+                endpoint.succeeded(System.nanoTime() - start);
+                return response;
+            } catch (TransportException e) {
+                if (e.isFault()) {
+                    // the registry answered
+                    endpoint.succeeded(System.nanoTime() - start);
+                    throw e;
+                }
+                if (endpoint.failed(System.currentTimeMillis(), maxFailures, ejectTime)) {
+                    log.warn("Ejecting UDDI endpoint " + endpoint.uri + " for " + ejectTime + " ms: " + e.getMessage());
+                } else {
+                    log.warn("UDDI endpoint " + endpoint.uri + " failed: " + e.getMessage());
+                }
+                failure = e;
+            } finally {
+                endpoint.outstanding.decrementAndGet();
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * @return the endpoint the policy prefers among the available ones that
+     * were not tried yet, or the one that is readmitted first when none is
+     * available.
+     */
+    private Endpoint select(Group group, List<Endpoint> tried) {
+        long now = System.currentTimeMillis();
+        List<Endpoint> endpoints = group.endpoints;
+        int size = endpoints.size();
+        int offset = (group.next.getAndIncrement() & Integer.MAX_VALUE) % size;
+        Endpoint selected = null;
+        Endpoint ejected = null;
+        for (int i = 0; i < size; i++) {
+            Endpoint endpoint = endpoints.get((offset + i) % size);
+            if (tried.contains(endpoint)) {
+                continue;
+            }
+            if (!endpoint.isAvailable(now)) {
+                if (ejected == null || endpoint.getEjectedUntil() < ejected.getEjectedUntil()) {
+                    ejected = endpoint;
+                }
+                continue;
+            }
+            if (selected == null || prefer(endpoint, selected)) {
+                selected = endpoint;
+            }
+            if (policy == Policy.ROUND_ROBIN) {
+                break;
+            }
+        }
+        return selected != null ? selected : ejected;
+    }
+
+    private boolean prefer(Endpoint endpoint, Endpoint selected) {
+        switch (policy) {
+        case LEAST_OUTSTANDING:
+            return endpoint.getOutstanding() < selected.getOutstanding();
+        case LATENCY:
+            return endpoint.getLatency() * (endpoint.getOutstanding() + 1)
+                < selected.getLatency() * (selected.getOutstanding() + 1);
+        default:
+            return false;
+        }
+    }
+}
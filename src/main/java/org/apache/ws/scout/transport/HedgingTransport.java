@@ -0,0 +1,356 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.transport;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.ws.scout.registry.ConnectionFactoryImpl;
+import org.apache.ws.scout.util.Deadline;
+import org.apache.ws.scout.util.TaskExecutors;
+import org.apache.ws.scout.util.XMLUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Transport that hedges the inquiries: when no answer has
+ * come after the given percentile of the recent latencies, the request is
+ * sent a second time and the first answer is used. The other request is
+ * cancelled. Sent through a {@link FailoverTransport}, the second request
+ * usually goes to another endpoint.
+ *
+ * <p>Requests are only hedged once enough latencies have been seen, and
+ * only when they are inquiries, which only read the registry, sent to one
+ * of the URIs given. Their latencies are kept per URI.</p>
+ */
+public class HedgingTransport implements Transport {
+
+    public static final int  DEFAULT_PERCENTILE = 95;
+    public static final long DEFAULT_MIN_DELAY  = 10L;
+
+    // latencies kept per URI, and needed before hedging
+    static final int SAMPLES     = 100;
+    static final int MIN_SAMPLES = 20;
+
+    private static final int MAX_THREADS = 64;
+
+    // shared by all transports, idle threads stop after a minute
+    private static final ExecutorService platformExecutor = TaskExecutors.newCached("scout-hedge-", MAX_THREADS, false);
+    private static ExecutorService virtualExecutor;
+
+    /**
+     * The recent latencies of one URI.
+     */
+    private final class Latencies {
+        private final long[] samples = new long[SAMPLES];
+        private int count;
+        private int next;
+
+        synchronized void add(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            if (count < samples.length) count++;
+        }
+
+        /**
+         * @return the hedging delay, or -1 while there are too few samples.
+         */
+        synchronized long getDelay() {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            long[] sorted = new long[count];
+            System.arraycopy(samples, 0, sorted, 0, count);
+            Arrays.sort(sorted);
+            int index = Math.max(0, (int) Math.ceil(percentile / 100.0 * count) - 1);
+            return Math.max(minDelay, sorted[index]);
+        }
+    }
+
+    private final Transport transport;
+    private final Set<URI> uris;
+    private final int percentile;
+    private final long minDelay;
+    private final ConcurrentMap<URI, Latencies> latencies = new ConcurrentHashMap<URI, Latencies>();
+    private final AtomicLong hedged = new AtomicLong();
+    private final ExecutorService executor;
+
+    public HedgingTransport(Transport transport, Set<URI> uris, int percentile, long minDelay) {
+        this(transport, uris, percentile, minDelay, false);
+    }
+
+    /**
+     * @param virtualThreads - whether to send the requests on virtual
+     * threads, when the JVM has them.
+     */
+    public HedgingTransport(Transport transport, Set<URI> uris, int percentile, long minDelay,
+            boolean virtualThreads) {
+        this.transport = transport;
+        this.uris = new HashSet<URI>(uris);
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.executor = virtualThreads && TaskExecutors.isVirtualAvailable() ? getVirtualExecutor() : platformExecutor;
+    }
+
+    private static synchronized ExecutorService getVirtualExecutor() {
+        if (virtualExecutor == null) {
+            virtualExecutor = TaskExecutors.newCached("scout-hedge-", MAX_THREADS, true);
+        }
+        return virtualExecutor;
+    }
+
+    /**
+     * @return the transport hedging the given inquiry URIs as configured by
+     * the properties, or the transport itself when
+     * {@link ConnectionFactoryImpl#HEDGE_PROPERTY} is not set.
+     */
+    public static Transport wrap(Transport transport, Properties properties, URI... inquiryURIs) {
+        if (!Boolean.valueOf(properties.getProperty(ConnectionFactoryImpl.HEDGE_PROPERTY))) {
+            return transport;
+        }
+        return new HedgingTransport(transport, new HashSet<URI>(Arrays.asList(inquiryURIs)),
+                Integer.parseInt(properties.getProperty(ConnectionFactoryImpl.HEDGE_PERCENTILE_PROPERTY,
+                        String.valueOf(DEFAULT_PERCENTILE)).trim()),
+                Long.parseLong(properties.getProperty(ConnectionFactoryImpl.HEDGE_MIN_DELAY_PROPERTY,
+                        String.valueOf(DEFAULT_MIN_DELAY)).trim()),
+                Boolean.valueOf(properties.getProperty(ConnectionFactoryImpl.VIRTUAL_THREADS_PROPERTY)));
+    }
+
+    /**
+     * @return the delay after which an inquiry to the URI is hedged, or -1
+     * when it is not.
+     */
+    public long getDelay(URI uri) {
+        return uris.contains(uri) ? getLatencies(uri).getDelay() : -1;
+    }
+
+    /**
+     * @param operation - the local name of the request element.
+     * @return true if the operation is one of the UDDI v2 or v3 inquiry API,
+     * which only read the registry: find_*, get_*Detail,
+     * get_businessDetailExt and get_operationalInfo.
+     */
+    public static boolean isInquiry(String operation) {
+        if (operation == null) {
+            return false;
+        }
+        return operation.startsWith("find_")
+            || (operation.startsWith("get_") && (operation.endsWith("Detail") || operation.endsWith("DetailExt")))
+            || operation.equals("get_operationalInfo");
+    }
+
+    private static String getOperation(Element request) {
+        String name = request.getLocalName();
+        if (name == null) {
+            name = request.getNodeName();
+            name = name.substring(name.indexOf(':') + 1);
+        }
+        return name;
+    }
+
+    /**
+     * @return the local name of the first element of the XML, or null.
+     */
+    private static String getOperation(String request) {
+        int start = 0;
+        for (;;) {
+            start = request.indexOf('<', start) + 1;
+            if (start == 0 || start == request.length()) {
+                return null;
+            }
+            char c = request.charAt(start);
+            if (c != '?' && c != '!') {
+                break;
+            }
+        }
+        int end = start;
+        while (end < request.length() && " \t\r\n/>".indexOf(request.charAt(end)) < 0) {
+            end++;
+        }
+        String name = request.substring(start, end);
+        return name.substring(name.indexOf(':') + 1);
+    }
+
+    /**
+     * @return the number of requests sent a second time.
+     */
+    public long getHedged() {
+        return hedged.get();
+    }
+
+    public Element send(final Element request, final URI endpointURI) throws TransportException {
+        boolean inquiry = isInquiry(getOperation(request));
+        long delay = inquiry ? getDelay(endpointURI) : -1;
+        if (delay < 0) {
+            return send(endpointURI, inquiry, new Callable<Element>() {
+                public Element call() throws TransportException {
+                    return transport.send(request, endpointURI);
+                }
+            });
+        }
+        // the requests must not share a DOM document, as the transports may
+        // change it while they send it
+        final Element copy;
+        try {
+            Document document = XMLUtils.getDocumentBuilder().newDocument();
+            copy = (Element) document.importNode(request, true);
+            document.appendChild(copy);
+        } catch (ParserConfigurationException e) {
+            throw new TransportException(e);
+        }
+        return hedge(endpointURI, delay, new Callable<Element>() {
+            public Element call() throws TransportException {
+                return transport.send(request, endpointURI);
+            }
+        }, new Callable<Element>() {
+            public Element call() throws TransportException {
+                return transport.send(copy, endpointURI);
+            }
+        });
+    }
+
+    public String send(final String request, final URI endpointURI) throws TransportException {
+        Callable<String> call = new Callable<String>() {
+            public String call() throws TransportException {
+                return transport.send(request, endpointURI);
+            }
+        };
+        boolean inquiry = isInquiry(getOperation(request));
+        long delay = inquiry ? getDelay(endpointURI) : -1;
+        return delay < 0 ? send(endpointURI, inquiry, call) : hedge(endpointURI, delay, call, call);
+    }
+
+    private Latencies getLatencies(URI uri) {
+        Latencies l = latencies.get(uri);
+        if (l == null) {
+            l = new Latencies();
+            Latencies existing = latencies.putIfAbsent(uri, l);
+            if (existing != null) l = existing;
+        }
+        return l;
+    }
+
+    /**
+     * Sends the request once, in the calling thread.
+     */
+    private <T> T send(URI uri, boolean inquiry, Callable<T> call) throws TransportException {
+        try {
+            return (inquiry ? timed(uri, call) : call).call();
+        } catch (TransportException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new TransportException(e);
+        }
+    }
+
+    private <T> T hedge(URI uri, long delay, Callable<T> call, Callable<T> copy) throws TransportException {
+        // the pool threads send within the deadline of the caller
+        Deadline deadline = Deadline.current();
+        call = joined(deadline, call);
+        copy = joined(deadline, copy);
+        CompletionService<T> completion = new ExecutorCompletionService<T>(executor);
+        List<Future<T>> futures = new ArrayList<Future<T>>(2);
+        try {
+            futures.add(completion.submit(timed(uri, call)));
+        } catch (RejectedExecutionException e) {
+            return send(uri, true, call);
+        }
+        try {
+            Future<T> done = completion.poll(delay, TimeUnit.MILLISECONDS);
+            if (done == null) {
+                try {
+                    futures.add(completion.submit(timed(uri, copy)));
+                    hedged.incrementAndGet();
+                } catch (RejectedExecutionException e) {
+                    // all threads are busy, wait for the first request
+                }
+                done = completion.take();
+            }
+            try {
+                return done.get();
+            } catch (ExecutionException e) {
+                if (futures.size() < 2) {
+                    throw e;
+                }
+                // the other request may still succeed
+                return completion.take().get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TransportException) throw (TransportException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new TransportException((Exception) cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransportException(e);
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static <T> Callable<T> joined(final Deadline deadline, final Callable<T> call) {
+        if (deadline == null) {
+            return call;
+        }
+        return new Callable<T>() {
+            public T call() throws Exception {
+                Deadline bound = Deadline.join(deadline);
+                try {
+                    return call.call();
+                } finally {
+                    Deadline.exit(bound);
+                }
+            }
+        };
+    }
+
+    private <T> Callable<T> timed(final URI uri, final Callable<T> call) {
+        if (!uris.contains(uri)) {
+            return call;
+        }
+        return new Callable<T>() {
+            public T call() throws Exception {
+                long start = System.currentTimeMillis();
+                T response = call.call();
+                getLatencies(uri).add(System.currentTimeMillis() - start);
+                return response;
+            }
+        };
+    }
+}
@@ -17,12 +17,20 @@ package org.apache.ws.scout.transport;
 
 import java.lang.reflect.Method;
 import java.net.URI;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.ws.scout.util.Deadline;
+import org.apache.ws.scout.util.TaskExecutors;
 import org.apache.ws.scout.util.XMLUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -31,13 +39,20 @@ import org.w3c.dom.Node;
 /**
  * Local Message transport class.
  * 
- * <p>This transport calls jUDDI directly.</p>
+ * <p>This transport calls jUDDI directly. When the calling thread has a
+ * {@link Deadline}, the call runs in a pool thread and is given up, and
+ * interrupted, once the deadline passes.</p>
  * 
  * @author Kurt Stam (kurt.stam@redhat.com)
  */
 public class LocalTransport implements Transport
 {
   private static Log log = LogFactory.getLog(LocalTransport.class);
+  /** Resolved request handlers, keyed on endpoint URI, node and manager */
+  private static final ConcurrentMap<String, Invoker> invokers = new ConcurrentHashMap<String, Invoker>();
+  private static final int MAX_THREADS = 64;
+  // runs the calls that have a deadline, idle threads stop after a minute
+  private static final ExecutorService executor = TaskExecutors.newCached("scout-local-", MAX_THREADS, false);
   private String nodeName;
   private String managerName;
 
@@ -62,23 +77,12 @@ public class LocalTransport implements Transport
     	log.debug("Calling " + endpointURI + " locally");
     }
     try {
-    	String className = endpointURI.getPath();
-    	String methodName = endpointURI.getFragment();
-    	log.debug("Calling class=" + className);
-    	log.debug("Method=" + methodName);
-    	Class<?> c = Class.forName(className);
-    	Object requestHandler = c.newInstance();
-    	Node node = null;
-    	if (managerName!=null) {
-    	    Method method = c.getMethod(methodName, Element.class, String.class, String.class);
-    	    node = (Node) method.invoke(requestHandler, request, nodeName, managerName);
-    	} else {
-    	    Method method = c.getMethod(methodName, Element.class);
-    	    node = (Node) method.invoke(requestHandler, request);
-    	}
+    	Node node = invoke(getInvoker(endpointURI), request);
     	if (node!=null && node.getFirstChild()!=null) {
     		response = (Element) node.getFirstChild();
     	}
+    } catch (TransportException te) {
+      throw te;
     } catch (Exception ex) {
       throw new TransportException(ex);
     }
@@ -97,9 +101,7 @@ public class LocalTransport implements Transport
     String response = null;
     log.debug("\nRequest message:\n" + request);
     try {
-    	DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder parser = factory.newDocumentBuilder();
-        Document document = parser.parse(request);
+        Document document = XMLUtils.parse(request);
         Element element = document.getDocumentElement();
         response= XMLUtils.convertNodeToXMLString(send(element, endpointURI));
     } catch (Exception ex) { 
@@ -109,5 +111,101 @@ public class LocalTransport implements Transport
     return response;
   }
   
+  /**
+   * Returns the cached Invoker for this endpoint, resolving the handler class,
+   * its method and a handler instance the first time the endpoint is used.
+   * The jUDDI wrapper services keep no per-request state, so a single
+   * instance is shared by all callers.
+   */
+  private Invoker getInvoker(URI endpointURI) throws Exception
+  {
+    String key = endpointURI + "|" + nodeName + "|" + managerName;
+    Invoker invoker = invokers.get(key);
+    if (invoker == null) {
+    	String className = endpointURI.getPath();
+    	String methodName = endpointURI.getFragment();
+    	log.debug("Resolving class=" + className + ", method=" + methodName);
+    	Class<?> c = Class.forName(className);
+    	Method method = null;
+    	if (managerName!=null) {
+    	    method = c.getMethod(methodName, Element.class, String.class, String.class);
+    	} else {
+    	    method = c.getMethod(methodName, Element.class);
+    	}
+    	invoker = new Invoker(c.newInstance(), method, nodeName, managerName);
+    	Invoker existing = invokers.putIfAbsent(key, invoker);
+    	if (existing != null) invoker = existing;
+    }
+    return invoker;
+  }
   
+  /**
+   * Calls the handler in the calling thread, or, when the thread has a
+   * deadline, in a pool thread that is waited for until the deadline passes.
+   * A call that is given up is interrupted, but the handler may only stop
+   * once jUDDI notices.
+   */
+  private static Node invoke(final Invoker invoker, final Element request) throws Exception
+  {
+    long remaining = Deadline.remaining();
+    if (remaining < 0) {
+    	return invoker.invoke(request);
+    }
+    if (remaining == 0) {
+    	throw new TransportException(new TimeoutException("The deadline passed before the request was sent"));
+    }
+    final Deadline deadline = Deadline.current();
+    Future<Node> future;
+    try {
+    	future = executor.submit(new Callable<Node>() {
+    		public Node call() throws Exception {
+    			Deadline joined = Deadline.join(deadline);
+    			try {
+    				return invoker.invoke(request);
+    			} finally {
+    				Deadline.exit(joined);
+    			}
+    		}
+    	});
+    } catch (RejectedExecutionException e) {
+    	// all threads are busy, only the checks before the call bound it
+    	return invoker.invoke(request);
+    }
+    try {
+    	return future.get(remaining, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+    	Throwable cause = e.getCause();
+    	if (cause instanceof Error) throw (Error) cause;
+    	throw (Exception) cause;
+    } catch (TimeoutException e) {
+    	future.cancel(true);
+    	throw new TransportException(new TimeoutException("No response within the " + remaining + " ms left before the deadline"));
+    } catch (InterruptedException e) {
+    	future.cancel(true);
+    	Thread.currentThread().interrupt();
+    	throw new TransportException(e);
+    }
+  }
+
+  private static class Invoker
+  {
+    private final Object requestHandler;
+    private final Method method;
+    private final String nodeName;
+    private final String managerName;
+    
+    Invoker(Object requestHandler, Method method, String nodeName, String managerName) {
+    	this.requestHandler = requestHandler;
+    	this.method = method;
+    	this.nodeName = nodeName;
+    	this.managerName = managerName;
+    }
+    
+    Node invoke(Element request) throws Exception {
+    	if (managerName!=null) {
+    	    return (Node) method.invoke(requestHandler, request, nodeName, managerName);
+    	}
+    	return (Node) method.invoke(requestHandler, request);
+    }
+  }
 }
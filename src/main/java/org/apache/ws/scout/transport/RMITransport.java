@@ -15,13 +15,18 @@
  */
 package org.apache.ws.scout.transport;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URI;
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
+import java.rmi.NoSuchObjectException;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.naming.InitialContext;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.naming.NamingException;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -41,6 +46,11 @@ public class RMITransport implements Transport
 {
   // private reference to the jUDDI logger
   private static Log log = LogFactory.getLog(RMITransport.class);
+  
+  /** InitialContexts, keyed on provider URL */
+  private static final ConcurrentMap<String, InitialContext> contexts = new ConcurrentHashMap<String, InitialContext>();
+  /** Looked up stubs and the method to call on them, keyed on endpoint URI */
+  private static final ConcurrentMap<URI, Stub> stubs = new ConcurrentHashMap<URI, Stub>();
 
   /** 
    * Sends an element and returns an element.
@@ -56,33 +66,17 @@ public class RMITransport implements Transport
     }
     
     try {
-		String host       = endpointURI.getHost();
-		int port          = endpointURI.getPort();
-		String scheme     = endpointURI.getScheme();
-    	String service    = endpointURI.getPath();
-    	String className  = endpointURI.getQuery();
-    	String methodName = endpointURI.getFragment();
-    	Properties env    = new Properties();
-    	//It be a lot nicer if this is configured through properties, but for now
-    	//I'd like to keep the changes localized, so this seems pretty reasonable.
-    	String factoryInitial = SecurityActions.getProperty("java.naming.factory.initial");
-        if (factoryInitial==null) factoryInitial = "org.jnp.interfaces.NamingContextFactory";
-        String factoryURLPkgs = SecurityActions.getProperty("java.naming.factory.url.pkgs");
-        if (factoryURLPkgs==null) factoryURLPkgs = "org.jboss.naming";
-        env.setProperty("java.naming.factory.initial", factoryInitial);
-        env.setProperty("java.naming.factory.url.pkgs", factoryURLPkgs);
-    	env.setProperty("java.naming.provider.url", scheme + "://" + host + ":" + port);
-    	log.debug("Initial Context using env=" + env.toString());
-    	InitialContext context = new InitialContext(env);
-    	log.debug("Calling service=" + service + ", Class = " + className + ", Method=" + methodName);
-    	//Looking up the object (i.e. Publish)
-    	Object requestHandler = context.lookup(service);
-    	//Loading up the stub
-    	Class<?> c = Class.forName(className);
-    	//Getting a handle to method we want to call (i.e. publish.publish(Element element))
-    	Method method = c.getMethod(methodName, Element.class);
-    	//Calling that method
-    	Node node = (Node) method.invoke(requestHandler, request);
+    	Node node = null;
+    	try {
+    		node = invoke(endpointURI, request);
+    	} catch (InvocationTargetException ite) {
+    		if (!isStale(ite.getCause())) throw ite;
+    		//The cached stub may be stale (i.e. the server was restarted), so
+    		//look it up again and retry once.
+    		log.debug("Retrying " + endpointURI + " after " + ite.getCause());
+    		invalidate(endpointURI);
+    		node = invoke(endpointURI, request);
+    	}
     	//The result is in the first element
     	if (node.getFirstChild()!=null) {
     		response = (Element) node.getFirstChild();
@@ -106,9 +100,7 @@ public class RMITransport implements Transport
     String response = null;
     log.debug("\nRequest message:\n" + request);
     try {
-    	DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder parser = factory.newDocumentBuilder();
-        Document document = parser.parse(request);
+        Document document = XMLUtils.parse(request);
         Element element = document.getDocumentElement();
         response= XMLUtils.convertNodeToXMLString(send(element, endpointURI));
     } catch (Exception ex) { 
@@ -118,5 +110,115 @@ public class RMITransport implements Transport
     return response;
   }
   
+  private Node invoke(URI endpointURI, Element request) throws Exception
+  {
+    Stub stub = getStub(endpointURI);
+    //Calling that method
+    return (Node) stub.method.invoke(stub.requestHandler, request);
+  }
+  
+  /**
+   * Returns the cached stub for the endpoint, looking it up in JNDI on first use.
+   */
+  private Stub getStub(URI endpointURI) throws Exception
+  {
+    Stub stub = stubs.get(endpointURI);
+    if (stub == null) {
+    	String service    = endpointURI.getPath();
+    	String className  = endpointURI.getQuery();
+    	String methodName = endpointURI.getFragment();
+    	log.debug("Looking up service=" + service + ", Class = " + className + ", Method=" + methodName);
+    	//Looking up the object (i.e. Publish)
+    	Object requestHandler;
+    	for (;;) {
+    		InitialContext context = getContext(endpointURI);
+    		synchronized (context) {
+    			//A context that was invalidated meanwhile is closed, so get a new one
+    			if (contexts.get(getProviderURL(endpointURI)) == context) {
+    				requestHandler = context.lookup(service);
+    				break;
+    			}
+    		}
+    	}
+    	//Loading up the stub
+    	Class<?> c = Class.forName(className);
+    	//Getting a handle to method we want to call (i.e. publish.publish(Element element))
+    	Method method = c.getMethod(methodName, Element.class);
+    	stub = new Stub(requestHandler, method);
+    	stubs.put(endpointURI, stub);
+    }
+    return stub;
+  }
+  
+  private InitialContext getContext(URI endpointURI) throws NamingException
+  {
+    String providerURL = getProviderURL(endpointURI);
+    InitialContext context = contexts.get(providerURL);
+    if (context == null) {
+    	Properties env    = new Properties();
+    	//It be a lot nicer if this is configured through properties, but for now
+    	//I'd like to keep the changes localized, so this seems pretty reasonable.
+    	String factoryInitial = SecurityActions.getProperty("java.naming.factory.initial");
+        if (factoryInitial==null) factoryInitial = "org.jnp.interfaces.NamingContextFactory";
+        String factoryURLPkgs = SecurityActions.getProperty("java.naming.factory.url.pkgs");
+        if (factoryURLPkgs==null) factoryURLPkgs = "org.jboss.naming";
+        env.setProperty("java.naming.factory.initial", factoryInitial);
+        env.setProperty("java.naming.factory.url.pkgs", factoryURLPkgs);
+    	env.setProperty("java.naming.provider.url", providerURL);
+    	log.debug("Initial Context using env=" + env.toString());
+    	context = new InitialContext(env);
+    	InitialContext existing = contexts.putIfAbsent(providerURL, context);
+    	if (existing != null) {
+    		context.close();
+    		context = existing;
+    	}
+    }
+    return context;
+  }
+  
+  private static String getProviderURL(URI endpointURI)
+  {
+    return endpointURI.getScheme() + "://" + endpointURI.getHost() + ":" + endpointURI.getPort();
+  }
+  
+  /**
+   * @return true if the error indicates the stub no longer refers to a live server object.
+   */
+  private boolean isStale(Throwable t)
+  {
+    return t instanceof NoSuchObjectException
+        || t instanceof ConnectException
+        || t instanceof ConnectIOException;
+  }
+  
+  /**
+   * Drops the cached stub and naming context for the endpoint so the next
+   * call looks them up again. The context is closed once no lookup is using it.
+   */
+  private void invalidate(URI endpointURI)
+  {
+    stubs.remove(endpointURI);
+    String providerURL = getProviderURL(endpointURI);
+    InitialContext context = contexts.remove(providerURL);
+    if (context != null) {
+    	synchronized (context) {
+    		try {
+    			context.close();
+    		} catch (NamingException e) {
+    			log.debug("Could not close the InitialContext for " + providerURL, e);
+    		}
+    	}
+    }
+  }
   
+  private static class Stub
+  {
+    final Object requestHandler;
+    final Method method;
+    
+    Stub(Object requestHandler, Method method) {
+    	this.requestHandler = requestHandler;
+    	this.method = method;
+    }
+  }
 }
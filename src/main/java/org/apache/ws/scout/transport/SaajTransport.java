@@ -25,15 +25,14 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ws.scout.registry.RegistryException;
 import org.apache.ws.scout.transport.Transport;
+import org.apache.ws.scout.util.Deadline;
 import org.apache.ws.scout.util.XMLUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.soap.MessageFactory;
 import javax.xml.soap.Name;
 import javax.xml.soap.SOAPBody;
@@ -46,8 +45,12 @@ import javax.xml.soap.SOAPFactory;
 import javax.xml.soap.SOAPFault;
 import javax.xml.soap.SOAPMessage;
 import javax.xml.soap.SOAPPart;
-import java.io.StringReader;
+import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
 
 /**
  * Transport based on SAAJ
@@ -73,7 +76,7 @@ public class SaajTransport implements Transport {
             //Make the SAAJ Call now
             SOAPConnectionFactory soapConnectionFactory = SOAPConnectionFactory.newInstance();
             SOAPConnection connection = soapConnectionFactory.createConnection();
-            SOAPMessage soapResponse = connection.call(message, endpointURL.toURL());
+            SOAPMessage soapResponse = connection.call(message, toURL(endpointURL));
 
             SOAPBody soapBody = soapResponse.getSOAPBody();
             boolean hasFault = soapBody.hasFault();
@@ -101,6 +104,27 @@ public class SaajTransport implements Transport {
         return XMLUtils.convertNodeToXMLString(respEl);
     }
 
+    /**
+     * @return the URL of the endpoint, whose connections time out at the
+     * deadline of the current thread.
+     */
+    private static URL toURL(URI endpointURI) throws MalformedURLException {
+        long remaining = Deadline.remaining();
+        if (remaining < 0) {
+            return endpointURI.toURL();
+        }
+        // a timeout of 0 would be none at all
+        final int timeout = (int) Math.min(Math.max(remaining, 1), Integer.MAX_VALUE);
+        return new URL(null, endpointURI.toString(), new URLStreamHandler() {
+            protected URLConnection openConnection(URL url) throws IOException {
+                URLConnection connection = new URL(url.toString()).openConnection();
+                connection.setConnectTimeout(timeout);
+                connection.setReadTimeout(timeout);
+                return connection;
+            }
+        });
+    }
+
     private SOAPMessage createSOAPMessage(Element elem) throws Exception {
         String prefix = "";
         MessageFactory msgFactory = MessageFactory.newInstance();
@@ -160,8 +184,7 @@ public class SaajTransport implements Transport {
         Document doc = null;
         Element reqElement = null;
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            doc = factory.newDocumentBuilder().parse(new InputSource(new StringReader(xmlFrag)));
+            doc = XMLUtils.parse(xmlFrag);
             reqElement = doc.getDocumentElement();
         } catch (Exception ex) {
             log.error("Exception:" + ex.getMessage(), ex);
@@ -1,5 +1,8 @@
 package org.apache.ws.scout.transport;
 
+import org.apache.ws.scout.registry.RegistryException;
+import org.uddi.v3_service.DispositionReportFaultMessage;
+
 public class TransportException extends Exception {
 	
 	private static final long serialVersionUID = -3024629866231364359L;
@@ -7,4 +10,21 @@ public class TransportException extends Exception {
 	public TransportException(Exception e) {
 		super(e);
 	}
+
+	public TransportException(String message) {
+		super(message);
+	}
+
+	/**
+	 * @return true if the registry answered with a fault, rather than
+	 * the request not reaching it or its answer getting lost.
+	 */
+	public boolean isFault() {
+		for (Throwable t = getCause(); t != null; t = t.getCause()) {
+			if (t instanceof RegistryException || t instanceof DispositionReportFaultMessage) {
+				return true;
+			}
+		}
+		return false;
+	}
 }
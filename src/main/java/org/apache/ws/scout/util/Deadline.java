@@ -0,0 +1,108 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.util;
+
+/**
+ * The time by which the work of the current thread must be done. A JAXR
+ * operation binds its deadline before making its registry calls, each call
+ * binds its own shorter one, and the transports take their timeouts from
+ * the deadline bound when they send.
+ *
+ * <p>A deadline is bound to the current thread with {@link #enter(long)}
+ * and released with {@link #exit(Deadline)}. An inner deadline never
+ * extends an outer one. Work that is handed to other threads joins the
+ * deadline with {@link #join(Deadline)}.</p>
+ */
+public final class Deadline {
+
+	private static final ThreadLocal<Deadline> current = new ThreadLocal<Deadline>();
+
+	private final long expires;
+	private final Deadline previous;
+
+	private Deadline(long expires, Deadline previous) {
+		this.expires = expires;
+		this.previous = previous;
+	}
+
+	/**
+	 * Binds a deadline the given time from now to the current thread,
+	 * unless a deadline that expires earlier is bound already.
+	 * @param timeout - in milliseconds, 0 or less for none.
+	 * @return the deadline to pass to {@link #exit(Deadline)}, or null if
+	 * nothing was bound.
+	 */
+	public static Deadline enter(long timeout) {
+		if (timeout <= 0) return null;
+		return bind(System.currentTimeMillis() + timeout);
+	}
+
+	/**
+	 * @return the deadline bound to the current thread, or null.
+	 */
+	public static Deadline current() {
+		return current.get();
+	}
+
+	/**
+	 * Binds a deadline taken from another thread to the current one.
+	 * @param deadline - the deadline of the work, may be null.
+	 * @return the binding to pass to {@link #exit(Deadline)}, or null if
+	 * there was nothing to bind.
+	 */
+	public static Deadline join(Deadline deadline) {
+		if (deadline == null) return null;
+		return bind(deadline.expires);
+	}
+
+	private static Deadline bind(long expires) {
+		Deadline outer = current.get();
+		if (outer != null && outer.expires <= expires) return null;
+		Deadline deadline = new Deadline(expires, outer);
+		current.set(deadline);
+		return deadline;
+	}
+
+	/**
+	 * Restores the deadline that was bound before the matching enter or join.
+	 * @param deadline - the value returned by enter or join, may be null.
+	 */
+	public static void exit(Deadline deadline) {
+		if (deadline == null) return;
+		if (deadline.previous == null) {
+			current.remove();
+		} else {
+			current.set(deadline.previous);
+		}
+	}
+
+	/**
+	 * @return the milliseconds left before the deadline of the current
+	 * thread, 0 once it has passed, or -1 when no deadline is bound.
+	 */
+	public static long remaining() {
+		Deadline deadline = current.get();
+		if (deadline == null) return -1;
+		return Math.max(0, deadline.expires - System.currentTimeMillis());
+	}
+
+	/**
+	 * @return true if the deadline of the current thread has passed.
+	 */
+	public static boolean expired() {
+		return remaining() == 0;
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.util;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.registry.JAXRException;
+import javax.xml.registry.LifeCycleManager;
+import javax.xml.registry.infomodel.ClassificationScheme;
+import javax.xml.registry.infomodel.Key;
+
+import org.apache.ws.scout.registry.infomodel.ClassificationSchemeImpl;
+import org.apache.ws.scout.registry.infomodel.KeyImpl;
+
+/**
+ * Interning table used by the UDDI to JAXR converters, so that a large
+ * query result refers to one String, Locale and ClassificationScheme stub
+ * per tModel key instead of building a copy for every keyedReference.
+ *
+ * <p>A table is bound to the current thread for the duration of a query with
+ * {@link #enter(InternTable)} and {@link #exit(InternTable)}. Outside of a
+ * query the converters allocate new objects as before. A table can also be
+ * kept for the lifetime of a connection, in which case it stops growing once
+ * it holds {@link #MAX_ENTRIES} values of a kind.</p>
+ *
+ * <p>The ClassificationScheme stubs only carry a key and are shared by all
+ * classifications and external identifiers of the query. Unlike Strings and
+ * Locales they are mutable, so they are kept in the {@link QueryScope} of
+ * the query instead of in the table, and never shared between queries.</p>
+ */
+public class InternTable {
+
+	public static final int MAX_ENTRIES = 10000;
+
+	private static final String SCHEME_STUB = "ClassificationSchemeStub";
+
+	private static final ThreadLocal<InternTable> current = new ThreadLocal<InternTable>();
+
+	private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<String, String>();
+	private final ConcurrentMap<String, Locale> locales = new ConcurrentHashMap<String, Locale>();
+
+	/**
+	 * Binds a table to the current thread, unless one is bound already.
+	 * @param table - the table to bind, or null to bind a new per-query table.
+	 * @return the table that was bound before, to be passed to {@link #exit(InternTable)}.
+	 */
+	public static InternTable enter(InternTable table) {
+		InternTable previous = current.get();
+		if (previous == null) {
+			current.set(table != null ? table : new InternTable());
+		}
+		return previous;
+	}
+
+	/**
+	 * Restores the binding that was in place before the matching {@link #enter(InternTable)}.
+	 * @param previous - the value returned by enter.
+	 */
+	public static void exit(InternTable previous) {
+		if (previous == null) {
+			current.remove();
+		}
+	}
+
+	/**
+	 * @return the table bound to the current thread, or null.
+	 */
+	public static InternTable current() {
+		return current.get();
+	}
+
+	/**
+	 * @return the canonical copy of the given String, or the String itself
+	 * when no table is bound.
+	 */
+	public static String string(String value) {
+		InternTable table = current.get();
+		return (table == null || value == null) ? value : table.intern(table.strings, value, value);
+	}
+
+	/**
+	 * @return the Locale for a UDDI xml:lang value; null or blank maps to the default Locale.
+	 */
+	public static Locale locale(String lang) {
+		if (lang == null || lang.trim().length() == 0) {
+			return Locale.getDefault();
+		} else if (lang.equalsIgnoreCase(Locale.getDefault().getLanguage())) {
+			return Locale.getDefault();
+		}
+		InternTable table = current.get();
+		if (table == null) return new Locale(lang);
+		Locale locale = table.locales.get(lang);
+		return locale != null ? locale : table.intern(table.locales, lang, new Locale(lang));
+	}
+
+	/**
+	 * @return a ClassificationScheme stub carrying only the given tModel key,
+	 * shared within the current query scope.
+	 */
+	public static ClassificationScheme scheme(String tModelKey, LifeCycleManager lifeCycleManager)
+		throws JAXRException {
+		ClassificationScheme scheme = (ClassificationScheme) QueryScope.lookup(SCHEME_STUB, tModelKey);
+		if (scheme == null) {
+			scheme = QueryScope.register(SCHEME_STUB, tModelKey, newScheme(string(tModelKey), lifeCycleManager));
+		}
+		return scheme;
+	}
+
+	private static ClassificationScheme newScheme(String tModelKey, LifeCycleManager lifeCycleManager)
+		throws JAXRException {
+		ClassificationScheme scheme = new ClassificationSchemeImpl(lifeCycleManager);
+		Key key = new KeyImpl(tModelKey);
+		scheme.setKey(key);
+		return scheme;
+	}
+
+	private <T> T intern(ConcurrentMap<String, T> map, String key, T value) {
+		if (map.size() >= MAX_ENTRIES) {
+			T existing = map.get(key);
+			return existing != null ? existing : value;
+		}
+		T existing = map.putIfAbsent(key, value);
+		return existing != null ? existing : value;
+	}
+}
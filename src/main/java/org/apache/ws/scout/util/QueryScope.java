@@ -0,0 +1,119 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.util;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * State shared by everything that runs on behalf of one query: the
+ * {@link InternTable} used by the converters, and an identity map of the
+ * registry objects built so far. Within a query, asking twice for the same
+ * key and object type returns the same instance, so nested lookups do not
+ * go back to the registry and the resulting object graph is consistent.
+ *
+ * <p>A scope is bound to the current thread with {@link #enter(InternTable)}
+ * and released with {@link #exit(QueryScope)}. Nested queries join the
+ * scope that is already bound, and registry calls that a query hands to
+ * other threads join it with {@link #join(QueryScope)}. Outside of a scope
+ * nothing is cached.</p>
+ */
+public final class QueryScope {
+
+	private static final ThreadLocal<QueryScope> current = new ThreadLocal<QueryScope>();
+
+	private final InternTable previousTable;
+	private final InternTable table;
+	private final ConcurrentMap<String, Object> objects;
+
+	private QueryScope(InternTable previousTable, ConcurrentMap<String, Object> objects) {
+		this.previousTable = previousTable;
+		this.table = InternTable.current();
+		this.objects = objects;
+	}
+
+	/**
+	 * Starts a query scope on the current thread, unless one is bound already.
+	 * @param table - the connection's interning table, or null to use one per query.
+	 * @return the new scope, or null if the query joined an outer scope.
+	 */
+	public static QueryScope enter(InternTable table) {
+		if (current.get() != null) return null;
+		QueryScope scope = new QueryScope(InternTable.enter(table), new ConcurrentHashMap<String, Object>());
+		current.set(scope);
+		return scope;
+	}
+
+	/**
+	 * @return the scope bound to the current thread, or null.
+	 */
+	public static QueryScope current() {
+		return current.get();
+	}
+
+	/**
+	 * Binds a scope that was started on another thread to the current one,
+	 * sharing its identity map and interning table.
+	 * @param scope - the scope of the query, may be null.
+	 * @return the binding to pass to {@link #exit(QueryScope)}, or null if
+	 * there was nothing to bind.
+	 */
+	public static QueryScope join(QueryScope scope) {
+		if (scope == null || current.get() != null) return null;
+		QueryScope joined = new QueryScope(InternTable.enter(scope.table), scope.objects);
+		current.set(joined);
+		return joined;
+	}
+
+	/**
+	 * Ends the scope returned by the matching {@link #enter(InternTable)}.
+	 * @param scope - the value returned by enter, may be null.
+	 */
+	public static void exit(QueryScope scope) {
+		if (scope == null) return;
+		current.remove();
+		InternTable.exit(scope.previousTable);
+	}
+
+	/**
+	 * @return the object built earlier in this query for the given type and
+	 * key, or null.
+	 */
+	public static Object lookup(String objectType, String key) {
+		QueryScope scope = current.get();
+		if (scope == null || objectType == null || key == null) return null;
+		return scope.objects.get(identity(objectType, key));
+	}
+
+	/**
+	 * Remembers an object for the rest of the query.
+	 * @return the object registered first for the type and key, which is the
+	 * given object unless another one was registered in the meantime.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T register(String objectType, String key, T object) {
+		QueryScope scope = current.get();
+		if (scope == null || objectType == null || key == null || object == null) return object;
+		Object existing = scope.objects.putIfAbsent(identity(objectType, key), object);
+		return existing != null ? (T) existing : object;
+	}
+
+	// UDDI keys are case insensitive
+	private static String identity(String objectType, String key) {
+		return (objectType + '|' + key).toLowerCase(Locale.ENGLISH);
+	}
+}
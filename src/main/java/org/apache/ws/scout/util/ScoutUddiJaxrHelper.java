@@ -72,7 +72,6 @@ import org.apache.ws.scout.model.uddi.v2.TModelInstanceDetails;
 import org.apache.ws.scout.model.uddi.v2.TModelInstanceInfo;
 import org.apache.ws.scout.registry.infomodel.AssociationImpl;
 import org.apache.ws.scout.registry.infomodel.ClassificationImpl;
-import org.apache.ws.scout.registry.infomodel.ClassificationSchemeImpl;
 import org.apache.ws.scout.registry.infomodel.ConceptImpl;
 import org.apache.ws.scout.registry.infomodel.EmailAddressImpl;
 import org.apache.ws.scout.registry.infomodel.ExternalIdentifierImpl;
@@ -206,7 +205,18 @@ public class ScoutUddiJaxrHelper
 		if (bizEntityList.size() != 1) {
 			throw new JAXRException("Unexpected count of organizations in BusinessDetail: " + bizEntityList.size());
 		}
-		BusinessEntity entity = bizEntityList.get(0);
+		return getOrganizationDetail(bizEntityList.get(0), lifeCycleManager);
+	}
+
+	/**
+	 * Converts a business entity returned by get_businessDetail, including
+	 * the use type, email addresses, postal addresses and phone numbers of
+	 * its contacts.
+	 */
+	public static Organization getOrganizationDetail(BusinessEntity entity,
+			LifeCycleManager lifeCycleManager)
+	throws JAXRException
+	{
 		List<Name> namesList = entity.getName();
 		List<Description> descriptionList = entity.getDescription();
 
@@ -238,9 +248,11 @@ public class ScoutUddiJaxrHelper
 
 		//Set Services also
 		BusinessServices services = entity.getBusinessServices();
-		List<BusinessService> bizServiceList = services.getBusinessService();
-		for (BusinessService businessService : bizServiceList) {
-			org.addService(getService(businessService, lifeCycleManager));
+		if (services != null) {
+			List<BusinessService> bizServiceList = services.getBusinessService();
+			for (BusinessService businessService : bizServiceList) {
+				org.addService(getService(businessService, lifeCycleManager));
+			}
 		}
 
 		/*
@@ -253,7 +265,7 @@ public class ScoutUddiJaxrHelper
 		 *  depend on that behavior
 		 */
 		Contacts contacts = entity.getContacts();
-		List<Contact> contactList = contacts.getContact();
+		List<Contact> contactList = contacts != null ? contacts.getContact() : new ArrayList<Contact>();
 		boolean isFirst=true;
 		for (Contact contact : contactList) {
 			User user = new UserImpl(null);
@@ -368,9 +380,11 @@ public class ScoutUddiJaxrHelper
 	public static Service getService(BusinessService businessService, LifeCycleManager lifeCycleManager)
 	throws JAXRException
 	{
-		Service serve = new ServiceImpl(lifeCycleManager);
-
 		String keystr = businessService.getServiceKey();
+		Service cached = (Service) QueryScope.lookup(LifeCycleManager.SERVICE, keystr);
+		if (cached != null) return cached;
+
+		Service serve = new ServiceImpl(lifeCycleManager);
 
 		if (keystr != null)
 		{
@@ -411,7 +425,7 @@ public class ScoutUddiJaxrHelper
 		}
 		serve.addClassifications(getClassifications(businessService.getCategoryBag(), lifeCycleManager));
 
-		return serve;
+		return QueryScope.register(LifeCycleManager.SERVICE, keystr, serve);
 	}
 
 	public static Service getService(ServiceInfo serviceInfo, LifeCycleManager lifeCycleManager)
@@ -525,6 +539,9 @@ public class ScoutUddiJaxrHelper
 	public static Concept getConcept(TModel tmodel, LifeCycleManager lifeCycleManager)
 	throws JAXRException
 	{
+		Concept cached = (Concept) QueryScope.lookup(LifeCycleManager.CONCEPT, tmodel.getTModelKey());
+		if (cached != null) return cached;
+
 		Concept concept = new ConceptImpl(lifeCycleManager);
 		concept.setKey(lifeCycleManager.createKey(tmodel.getTModelKey()));
 		concept.setName(lifeCycleManager.createInternationalString(getLocale(tmodel.getName().getLang()),
@@ -539,7 +556,7 @@ public class ScoutUddiJaxrHelper
 		concept.addExternalIdentifiers(getExternalIdentifiers(tmodel.getIdentifierBag(), lifeCycleManager));
 		concept.addClassifications(getClassifications(tmodel.getCategoryBag(), lifeCycleManager));
 
-		return concept;
+		return QueryScope.register(LifeCycleManager.CONCEPT, tmodel.getTModelKey(), concept);
 	}
 
 	public static Concept getConcept(TModelInfo tModelInfo, LifeCycleManager lifeCycleManager)
@@ -575,12 +592,11 @@ public class ScoutUddiJaxrHelper
 			List<KeyedReference> keyedReferenceList = categoryBag.getKeyedReference();
 			for (KeyedReference keyedReference : keyedReferenceList) {
 				Classification classification = new ClassificationImpl(lifeCycleManager);
-				classification.setValue(keyedReference.getKeyValue());
-				classification.setName(new InternationalStringImpl(keyedReference.getKeyName()));
+				classification.setValue(InternTable.string(keyedReference.getKeyValue()));
+				classification.setName(new InternationalStringImpl(InternTable.string(keyedReference.getKeyName())));
 				String tmodelKey = keyedReference.getTModelKey();
 				if (tmodelKey != null) {
-					ClassificationScheme scheme = new ClassificationSchemeImpl(lifeCycleManager);
-					scheme.setKey(new KeyImpl(tmodelKey));
+					ClassificationScheme scheme = InternTable.scheme(tmodelKey, lifeCycleManager);
 					classification.setClassificationScheme(scheme);
 				}
 				classifications.add(classification);
@@ -622,13 +638,12 @@ public class ScoutUddiJaxrHelper
 			List<KeyedReference> keyedReferenceList = identifierBag.getKeyedReference();
 			for (KeyedReference keyedReference : keyedReferenceList) {
 				ExternalIdentifier extId = new ExternalIdentifierImpl(lifeCycleManager);
-				extId.setValue(keyedReference.getKeyValue());
-				extId.setName(new InternationalStringImpl(keyedReference.getKeyName()));
+				extId.setValue(InternTable.string(keyedReference.getKeyValue()));
+				extId.setName(new InternationalStringImpl(InternTable.string(keyedReference.getKeyName())));
 
 				String tmodelKey = keyedReference.getTModelKey();
 				if (tmodelKey != null) {
-					ClassificationScheme scheme = new ClassificationSchemeImpl(lifeCycleManager);
-					scheme.setKey(new KeyImpl(tmodelKey));
+					ClassificationScheme scheme = InternTable.scheme(tmodelKey, lifeCycleManager);
 					extId.setIdentificationScheme(scheme);
 				}
 				extidentifiers.add(extId);
@@ -638,13 +653,7 @@ public class ScoutUddiJaxrHelper
 	}
 
 	private static Locale getLocale(String lang) {
-		if (lang == null || lang.trim().length() == 0) {
-			return Locale.getDefault();
-		} else if (lang.equalsIgnoreCase(Locale.getDefault().getLanguage())) {
-			return Locale.getDefault();
-		} else {
-			return new Locale(lang);
-		} 
+		return InternTable.locale(lang);
 	}
 
 }
\ No newline at end of file
@@ -45,7 +45,6 @@ import javax.xml.registry.infomodel.User;
 import org.uddi.api_v3.*;
 import org.apache.ws.scout.registry.infomodel.AssociationImpl;
 import org.apache.ws.scout.registry.infomodel.ClassificationImpl;
-import org.apache.ws.scout.registry.infomodel.ClassificationSchemeImpl;
 import org.apache.ws.scout.registry.infomodel.ConceptImpl;
 import org.apache.ws.scout.registry.infomodel.EmailAddressImpl;
 import org.apache.ws.scout.registry.infomodel.ExternalIdentifierImpl;
@@ -180,11 +179,22 @@ public class ScoutUddiV3JaxrHelper
 	throws JAXRException
 	{
 		List<BusinessEntity> bizEntityList = bizdetail.getBusinessEntity();
-		Organization org = new OrganizationImpl(lifeCycleManager);
 		if (bizEntityList.size() != 1) {
 			throw new JAXRException("Unexpected count of organizations in BusinessDetail: " + bizEntityList.size());
 		}
-		BusinessEntity entity = bizEntityList.get(0);
+		return getOrganizationDetail(bizEntityList.get(0), lifeCycleManager);
+	}
+
+	/**
+	 * Converts a business entity returned by get_businessDetail, including
+	 * the use type, email addresses, postal addresses and phone numbers of
+	 * its contacts.
+	 */
+	public static Organization getOrganizationDetail(BusinessEntity entity,
+			LifeCycleManager lifeCycleManager)
+	throws JAXRException
+	{
+		Organization org = new OrganizationImpl(lifeCycleManager);
 		List<Name> namesList = entity.getName();
 		if ((namesList != null) && (namesList.size() > 0)) {
 			InternationalString is = null;
@@ -352,9 +362,11 @@ public class ScoutUddiV3JaxrHelper
 	public static Service getService(BusinessService businessService, LifeCycleManager lifeCycleManager)
 	throws JAXRException
 	{
-		Service serve = new ServiceImpl(lifeCycleManager);
-
 		String keystr = businessService.getServiceKey();
+		Service cached = (Service) QueryScope.lookup(LifeCycleManager.SERVICE, keystr);
+		if (cached != null) return cached;
+
+		Service serve = new ServiceImpl(lifeCycleManager);
 
 		if (keystr != null)
 		{
@@ -393,7 +405,7 @@ public class ScoutUddiV3JaxrHelper
 		}
 		serve.addClassifications(getClassifications(businessService.getCategoryBag(), lifeCycleManager));
 
-		return serve;
+		return QueryScope.register(LifeCycleManager.SERVICE, keystr, serve);
 	}
 
 	public static Service getService(ServiceInfo serviceInfo, LifeCycleManager lifeCycleManager)
@@ -508,6 +520,9 @@ public class ScoutUddiV3JaxrHelper
 	public static Concept getConcept(TModel tmodel, LifeCycleManager lifeCycleManager)
 	throws JAXRException
 	{
+		Concept cached = (Concept) QueryScope.lookup(LifeCycleManager.CONCEPT, tmodel.getTModelKey());
+		if (cached != null) return cached;
+
 		Concept concept = new ConceptImpl(lifeCycleManager);
 		concept.setKey(lifeCycleManager.createKey(tmodel.getTModelKey()));
 		concept.setName(lifeCycleManager.createInternationalString(getLocale(tmodel.getName().getLang()),
@@ -522,7 +537,7 @@ public class ScoutUddiV3JaxrHelper
 		concept.addExternalIdentifiers(getExternalIdentifiers(tmodel.getIdentifierBag(), lifeCycleManager));
 		concept.addClassifications(getClassifications(tmodel.getCategoryBag(), lifeCycleManager));
 
-		return concept;
+		return QueryScope.register(LifeCycleManager.CONCEPT, tmodel.getTModelKey(), concept);
 	}
 
 	public static Concept getConcept(TModelInfo tModelInfo, LifeCycleManager lifeCycleManager)
@@ -558,12 +573,11 @@ public class ScoutUddiV3JaxrHelper
 			List<KeyedReference> keyedReferenceList = categoryBag.getKeyedReference();
 			for (KeyedReference keyedReference : keyedReferenceList) {
 				Classification classification = new ClassificationImpl(lifeCycleManager);
-				classification.setValue(keyedReference.getKeyValue());
-				classification.setName(new InternationalStringImpl(keyedReference.getKeyName()));
+				classification.setValue(InternTable.string(keyedReference.getKeyValue()));
+				classification.setName(new InternationalStringImpl(InternTable.string(keyedReference.getKeyName())));
 				String tmodelKey = keyedReference.getTModelKey();
 				if (tmodelKey != null) {
-					ClassificationScheme scheme = new ClassificationSchemeImpl(lifeCycleManager);
-					scheme.setKey(new KeyImpl(tmodelKey));
+					ClassificationScheme scheme = InternTable.scheme(tmodelKey, lifeCycleManager);
 					classification.setClassificationScheme(scheme);
 				}
 				classifications.add(classification);
@@ -609,13 +623,12 @@ public class ScoutUddiV3JaxrHelper
 			List<KeyedReference> keyedReferenceList = identifierBag.getKeyedReference();
 			for (KeyedReference keyedReference : keyedReferenceList) {
 				ExternalIdentifier extId = new ExternalIdentifierImpl(lifeCycleManager);
-				extId.setValue(keyedReference.getKeyValue());
-				extId.setName(new InternationalStringImpl(keyedReference.getKeyName()));
+				extId.setValue(InternTable.string(keyedReference.getKeyValue()));
+				extId.setName(new InternationalStringImpl(InternTable.string(keyedReference.getKeyName())));
 
 				String tmodelKey = keyedReference.getTModelKey();
 				if (tmodelKey != null) {
-					ClassificationScheme scheme = new ClassificationSchemeImpl(lifeCycleManager);
-					scheme.setKey(new KeyImpl(tmodelKey));
+					ClassificationScheme scheme = InternTable.scheme(tmodelKey, lifeCycleManager);
 					extId.setIdentificationScheme(scheme);
 				}
 				extidentifiers.add(extId);
@@ -625,13 +638,7 @@ public class ScoutUddiV3JaxrHelper
 	}
 
 	private static Locale getLocale(String lang) {
-		if (lang == null || lang.trim().length() == 0) {
-			return Locale.getDefault();
-		} else if (lang.equalsIgnoreCase(Locale.getDefault().getLanguage())) {
-			return Locale.getDefault();
-		} else {
-			return new Locale(lang);
-		} 
+		return InternTable.locale(lang);
 	}
 
 }
\ No newline at end of file
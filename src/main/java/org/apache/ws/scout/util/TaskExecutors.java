@@ -0,0 +1,149 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Creates the executors that run the registry calls Scout makes on behalf
+ * of a caller: the concurrent calls of a query, the queries sent to the
+ * members of a federation and the hedged requests.
+ *
+ * <p>The calls block on the network, so on a JVM with virtual threads they
+ * may run on one virtual thread each instead of on a pool of platform
+ * threads. Virtual threads are looked up by reflection, and platform
+ * threads are used when the JVM has none.</p>
+ */
+public final class TaskExecutors {
+
+	private static Log log = LogFactory.getLog(TaskExecutors.class);
+
+	// Thread.ofVirtual(), Thread.Builder.name(String, long), Thread.Builder.factory()
+	// and Executors.newThreadPerTaskExecutor(ThreadFactory), or null
+	private static final Method ofVirtual;
+	private static final Method name;
+	private static final Method factory;
+	private static final Method newThreadPerTaskExecutor;
+
+	static {
+		Method[] methods = null;
+		try {
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			methods = new Method[] {
+				Thread.class.getMethod("ofVirtual"),
+				builder.getMethod("name", String.class, long.class),
+				builder.getMethod("factory"),
+				java.util.concurrent.Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+			};
+			// a preview release throws unless previews are enabled
+			methods[0].invoke(null);
+		} catch (Exception e) {
+			methods = null;
+		}
+		ofVirtual = methods == null ? null : methods[0];
+		name = methods == null ? null : methods[1];
+		factory = methods == null ? null : methods[2];
+		newThreadPerTaskExecutor = methods == null ? null : methods[3];
+	}
+
+	private TaskExecutors() {
+	}
+
+	/**
+	 * @return true if the JVM has virtual threads.
+	 */
+	public static boolean isVirtualAvailable() {
+		return ofVirtual != null;
+	}
+
+	/**
+	 * @param prefix - the name of the threads, followed by their number.
+	 * @param virtual - whether to use virtual threads when the JVM has them.
+	 * @return a factory of virtual threads, or of platform daemon threads.
+	 */
+	public static ThreadFactory newThreadFactory(final String prefix, boolean virtual) {
+		if (virtual && isVirtualAvailable()) {
+			try {
+				return (ThreadFactory) factory.invoke(name.invoke(ofVirtual.invoke(null), prefix, 1L));
+			} catch (Exception e) {
+				log.warn("Cannot create virtual threads, using platform threads: " + e);
+			}
+		}
+		return new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, prefix + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	/**
+	 * @return an executor that runs each task on a new virtual thread, or
+	 * a pool of up to the given number of platform threads that queues the
+	 * tasks while all of them are busy. The platform threads stop after a
+	 * minute of idling. A virtual thread executor does not limit the number
+	 * of tasks run at once.
+	 */
+	public static ExecutorService newFixed(String prefix, int threads, boolean virtual) {
+		ExecutorService executor = newVirtual(prefix, virtual);
+		if (executor != null) {
+			return executor;
+		}
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), newThreadFactory(prefix, false));
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	/**
+	 * @return an executor that runs each task on a new virtual thread, or a
+	 * pool of up to the given number of platform threads that stop after a
+	 * minute of idling, and that rejects tasks while all of them are busy.
+	 */
+	public static ExecutorService newCached(String prefix, int maxThreads, boolean virtual) {
+		ExecutorService executor = newVirtual(prefix, virtual);
+		if (executor != null) {
+			return executor;
+		}
+		return new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), newThreadFactory(prefix, false));
+	}
+
+	private static ExecutorService newVirtual(String prefix, boolean virtual) {
+		if (!virtual || !isVirtualAvailable()) {
+			return null;
+		}
+		try {
+			return (ExecutorService) newThreadPerTaskExecutor.invoke(null, newThreadFactory(prefix, true));
+		} catch (Exception e) {
+			log.warn("Cannot create a virtual thread executor, using platform threads: " + e);
+			return null;
+		}
+	}
+}
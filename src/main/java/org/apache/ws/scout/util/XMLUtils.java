@@ -1,7 +1,17 @@
 package org.apache.ws.scout.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
@@ -12,15 +22,32 @@ import javax.xml.transform.stream.StreamResult;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.w3c.dom.Document;
 import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
 /**
  * Utilies for covertion between w3c formats and XML.
+ *
+ * <p>The TransformerFactory lookup is done once, and each thread keeps its own
+ * identity Transformer, since Transformer instances are not thread-safe. In
+ * the same way a single namespace-aware DocumentBuilderFactory is shared, and
+ * each thread reuses its own DocumentBuilder.</p>
+ *
  * @author Kurt Stam (kurt.stam@jboss.com)
  */
 public class XMLUtils {
 	private static Log log = LogFactory.getLog(XMLUtils.class);
-	
+
+	private static final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+
+	private static final ThreadLocal<Transformer> transformers = new ThreadLocal<Transformer>();
+
+	private static final DocumentBuilderFactory documentBuilderFactory = createDocumentBuilderFactory();
+
+	private static final ThreadLocal<DocumentBuilder> documentBuilders = new ThreadLocal<DocumentBuilder>();
+
 	/**
 	 * Convert a org.w3c.dom.Node into an XML representation.
 	 * @param node - containing an xml tree.
@@ -30,12 +57,8 @@ public class XMLUtils {
 	  {
 		  String xml=null;
 		  try {
-		      Source source = new DOMSource(node);
 		      StringWriter stringWriter = new StringWriter();
-		      javax.xml.transform.Result result = new StreamResult(stringWriter);
-		      TransformerFactory factory = TransformerFactory.newInstance();
-		      Transformer transformer = factory.newTransformer();
-		      transformer.transform(source, result);
+		      transform(node, new StreamResult(stringWriter));
 		      xml=stringWriter.getBuffer().toString();
 		  } catch (TransformerConfigurationException e) {
 		      log.error("Could not obtain the XML. ", e);
@@ -44,4 +67,119 @@ public class XMLUtils {
 		  }
 		  return xml;
 	  }
+
+	/**
+	 * Write the XML representation of a org.w3c.dom.Node to a Writer,
+	 * without building an intermediate String.
+	 * @param node - containing an xml tree.
+	 * @param writer - the Writer to serialize to.
+	 * @throws TransformerException
+	 */
+	public static void writeNode(Node node, Writer writer) throws TransformerException
+	{
+		transform(node, new StreamResult(writer));
+	}
+
+	/**
+	 * Write the XML representation of a org.w3c.dom.Node to an OutputStream,
+	 * without building an intermediate String.
+	 * @param node - containing an xml tree.
+	 * @param out - the OutputStream to serialize to.
+	 * @throws TransformerException
+	 */
+	public static void writeNode(Node node, OutputStream out) throws TransformerException
+	{
+		transform(node, new StreamResult(out));
+	}
+
+	private static void transform(Node node, Result result) throws TransformerException
+	{
+		Source source = new DOMSource(node);
+		Transformer transformer = getTransformer();
+		try {
+			transformer.transform(source, result);
+		} finally {
+			transformer.reset();
+		}
+	}
+
+	/**
+	 * @return the identity Transformer bound to the current thread.
+	 * @throws TransformerConfigurationException
+	 */
+	private static Transformer getTransformer() throws TransformerConfigurationException
+	{
+		Transformer transformer = transformers.get();
+		if (transformer == null) {
+			// TransformerFactory is not guaranteed to be thread-safe
+			synchronized (transformerFactory) {
+				transformer = transformerFactory.newTransformer();
+			}
+			transformers.set(transformer);
+		}
+		return transformer;
+	}
+
+	/**
+	 * Parse an XML String into a namespace-aware org.w3c.dom.Document.
+	 * @param xml - String containing the XML.
+	 * @return - the parsed Document.
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 */
+	public static Document parse(String xml)
+		throws ParserConfigurationException, SAXException, IOException
+	{
+		return getDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+	}
+
+	/**
+	 * Parse an XML stream into a namespace-aware org.w3c.dom.Document.
+	 * @param in - InputStream containing the XML.
+	 * @return - the parsed Document.
+	 * @throws ParserConfigurationException
+	 * @throws SAXException
+	 * @throws IOException
+	 */
+	public static Document parse(InputStream in)
+		throws ParserConfigurationException, SAXException, IOException
+	{
+		return getDocumentBuilder().parse(in);
+	}
+
+	/**
+	 * Returns the namespace-aware DocumentBuilder bound to the current thread,
+	 * reset to its initial state. The builder must not be handed to other threads.
+	 * @return a DocumentBuilder
+	 * @throws ParserConfigurationException
+	 */
+	public static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException
+	{
+		DocumentBuilder builder = documentBuilders.get();
+		if (builder == null) {
+			synchronized (documentBuilderFactory) {
+				builder = documentBuilderFactory.newDocumentBuilder();
+			}
+			documentBuilders.set(builder);
+		} else {
+			builder.reset();
+		}
+		return builder;
+	}
+
+	private static DocumentBuilderFactory createDocumentBuilderFactory()
+	{
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		factory.setExpandEntityReferences(false);
+		try {
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			// UDDI messages never carry a DTD
+			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+		} catch (ParserConfigurationException e) {
+			log.debug("Parser does not support secure processing features: " + e.getMessage());
+		}
+		return factory;
+	}
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.PasswordAuthentication;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import javax.xml.registry.BulkResponse;
+import javax.xml.registry.BusinessLifeCycleManager;
+import javax.xml.registry.DeleteException;
+import javax.xml.registry.JAXRResponse;
+import javax.xml.registry.infomodel.Key;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.model.uddi.v2.AssertionStatusItem;
+import org.apache.ws.scout.model.uddi.v2.AssertionStatusReport;
+import org.apache.ws.scout.model.uddi.v2.AuthToken;
+import org.apache.ws.scout.model.uddi.v2.DispositionReport;
+import org.apache.ws.scout.model.uddi.v2.PublisherAssertion;
+import org.apache.ws.scout.model.uddi.v2.Result;
+import org.apache.ws.scout.registry.infomodel.KeyImpl;
+
+/**
+ * Verifies that deleting an organization clears the publisher assertions
+ * in bounded calls, renews a rejected auth token once, and reports a
+ * failure in the response.
+ */
+public class AssertionDeletionTest extends TestCase {
+
+    private static final String KEY = "uuid:5B1E2F0A-3C4D-4E5F-8A9B-0C1D2E3F4A5B";
+    private static final int ASSERTIONS = 2 * BusinessLifeCycleManagerImpl.MAX_DELETE_ASSERTIONS + 1;
+
+    private final List<Integer> deletes = new ArrayList<Integer>();
+    private final List<String> authInfos = new ArrayList<String>();
+    private int tokens;
+    /** The number of calls rejected before the registry answers */
+    private int rejections;
+    private BusinessLifeCycleManager blcm;
+
+    protected void setUp() throws Exception {
+        IRegistry registry = (IRegistry) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] { IRegistry.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("getAuthToken")) {
+                            AuthToken token = new AuthToken();
+                            token.setAuthInfo("token" + ++tokens);
+                            return token;
+                        }
+                        authInfos.add((String) args[0]);
+                        if (rejections > 0) {
+                            rejections--;
+                            throw new RegistryException("E_authTokenExpired", 10110, "expired");
+                        }
+                        if (method.getName().equals("getAssertionStatusReport")) {
+                            return getAssertionStatusReport();
+                        }
+                        if (method.getName().equals("deletePublisherAssertions")) {
+                            deletes.add(((PublisherAssertion[]) args[1]).length);
+                            return success();
+                        }
+                        if (method.getName().equals("deleteBusiness")) {
+                            return success();
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        ConnectionImpl connection = new ConnectionImpl(new Properties(), null, null);
+        // a user of its own, as the auth tokens are cached per user
+        connection.setCredentials(Collections.singleton(
+                new PasswordAuthentication(getClass().getName() + "." + getName(), new char[0])));
+        RegistryServiceImpl service = new RegistryServiceImpl(registry, null, -1, "2.0");
+        service.setConnection(connection);
+        blcm = service.getBusinessLifeCycleManager();
+    }
+
+    private static AssertionStatusReport getAssertionStatusReport() {
+        AssertionStatusReport report = new AssertionStatusReport();
+        for (int i = 0; i < ASSERTIONS; i++) {
+            AssertionStatusItem item = new AssertionStatusItem();
+            item.setFromKey(KEY);
+            item.setToKey("uuid:" + i);
+            report.getAssertionStatusItem().add(item);
+        }
+        return report;
+    }
+
+    private static DispositionReport success() {
+        DispositionReport report = new DispositionReport();
+        report.getResult().add(new Result());
+        return report;
+    }
+
+    private BulkResponse deleteOrganization() throws Exception {
+        return blcm.deleteOrganizations(Collections.<Key>singleton(new KeyImpl(KEY)));
+    }
+
+    public void testAssertionsAreDeletedInChunks() throws Exception {
+        BulkResponse response = deleteOrganization();
+        assertEquals(JAXRResponse.STATUS_SUCCESS, response.getStatus());
+        List<Integer> expected = new ArrayList<Integer>();
+        expected.add(BusinessLifeCycleManagerImpl.MAX_DELETE_ASSERTIONS);
+        expected.add(BusinessLifeCycleManagerImpl.MAX_DELETE_ASSERTIONS);
+        expected.add(1);
+        assertEquals(expected, deletes);
+    }
+
+    public void testExpiredTokenIsRenewedOnce() throws Exception {
+        rejections = 1;
+        BulkResponse response = deleteOrganization();
+        assertEquals(JAXRResponse.STATUS_SUCCESS, response.getStatus());
+        assertEquals(2, tokens);
+        assertEquals(3, deletes.size());
+        // all but the rejected call used the new token
+        assertEquals("token1", authInfos.get(0));
+        for (String authInfo : authInfos.subList(1, authInfos.size())) {
+            assertEquals("token2", authInfo);
+        }
+    }
+
+    public void testFailureIsReported() throws Exception {
+        rejections = 2;
+        BulkResponse response = deleteOrganization();
+        assertEquals(JAXRResponse.STATUS_FAILURE, response.getStatus());
+        assertEquals(1, response.getExceptions().size());
+        assertTrue(response.getExceptions().iterator().next() instanceof DeleteException);
+        assertEquals(2, tokens);
+        assertTrue(deletes.isEmpty());
+    }
+}
@@ -22,7 +22,6 @@ import javax.xml.registry.Connection;
 import javax.xml.registry.ConnectionFactory;
 import javax.xml.registry.InvalidRequestException;
 import javax.xml.registry.JAXRException;
-import javax.xml.registry.UnsupportedCapabilityException;
 
 import junit.framework.TestCase;
 
@@ -164,11 +163,24 @@ public class ConnectionFactoryTest extends TestCase {
         }
     }
 
+    public void testCreateConnectionWithInvalidEndpointPolicy() throws JAXRException {
+        Properties properties = new Properties();
+        properties.setProperty(ConnectionFactoryImpl.QUERYMANAGER_PROPERTY, "http://localhost/one http://localhost/two");
+        properties.setProperty(ConnectionFactoryImpl.ENDPOINT_POLICY_PROPERTY, "fastest");
+        factory.setProperties(properties);
+        try {
+            factory.createConnection().close();
+            fail("should have thrown an InvalidRequestException");
+        } catch (InvalidRequestException ire) {
+            assertTrue(ire.getMessage().indexOf(ConnectionFactoryImpl.ENDPOINT_POLICY_PROPERTY) > -1);
+        }
+    }
+
     public void testCreateFederatedConnection() {
         try {
             factory.createFederatedConnection(null);
             fail("did not get expected Exception");
-        } catch (UnsupportedCapabilityException e) {
+        } catch (InvalidRequestException e) {
             // OK
         } catch (JAXRException e) {
             fail("threw JAXRException");
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+/**
+ * Verifies that pooled connections share their registry client.
+ */
+public class ConnectionPoolTest extends TestCase {
+
+    private Properties properties(String url) {
+        Properties properties = new Properties();
+        properties.setProperty(ConnectionFactoryImpl.QUERYMANAGER_PROPERTY, url);
+        properties.setProperty(ConnectionFactoryImpl.POOL_MAX_SIZE_PROPERTY, "1");
+        return properties;
+    }
+
+    public void testSharedClient() throws Exception {
+        ConnectionPool pool = new ConnectionPool();
+        Properties properties = properties("http://localhost/uddi/inquiry");
+        ConnectionImpl first = pool.createConnection(properties);
+        ConnectionImpl second = pool.createConnection(properties);
+        assertNotSame(first, second);
+        assertSame(((RegistryServiceImpl) first.getRegistryService()).getRegistry(),
+                ((RegistryServiceImpl) second.getRegistryService()).getRegistry());
+
+        // the client stays in the pool after its connections are closed
+        first.close();
+        second.close();
+        assertTrue(second.isClosed());
+        assertEquals(1, pool.size());
+        ConnectionImpl third = pool.createConnection(properties);
+        ConnectionImpl fourth = pool.createConnection(properties);
+        assertSame(((RegistryServiceImpl) third.getRegistryService()).getRegistry(),
+                ((RegistryServiceImpl) fourth.getRegistryService()).getRegistry());
+        third.close();
+        fourth.close();
+    }
+
+    public void testBoundedSize() throws Exception {
+        ConnectionPool pool = new ConnectionPool();
+        ConnectionImpl first = pool.createConnection(properties("http://localhost/one"));
+        // the only slot is in use, so the second connection owns its client
+        ConnectionImpl second = pool.createConnection(properties("http://localhost/two"));
+        assertEquals(1, pool.size());
+        second.close();
+
+        // an idle client gives up its slot
+        first.close();
+        ConnectionImpl third = pool.createConnection(properties("http://localhost/two"));
+        assertEquals(1, pool.size());
+        third.close();
+    }
+
+    public void testIdleEviction() throws Exception {
+        ConnectionPool pool = new ConnectionPool();
+        Properties properties = properties("http://localhost/uddi/inquiry");
+        properties.setProperty(ConnectionFactoryImpl.POOL_IDLE_TIMEOUT_PROPERTY, "0");
+        pool.createConnection(properties).close();
+        assertEquals(1, pool.size());
+        Properties other = properties("http://localhost/other");
+        other.setProperty(ConnectionFactoryImpl.POOL_IDLE_TIMEOUT_PROPERTY, "0");
+        ConnectionImpl connection = pool.createConnection(other);
+        assertEquals(1, pool.size());
+        connection.close();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.util.Deadline;
+
+/**
+ * Verifies that single key lookups are gathered into one call, and that
+ * each caller gets its own entry.
+ */
+public class DetailBatcherTest extends TestCase {
+
+    /**
+     * Answers with the keys asked for, and fails for the key "unknown".
+     */
+    private static class StubBatcher extends DetailBatcher<List<String>> {
+        final List<List<String>> calls = Collections.synchronizedList(new ArrayList<List<String>>());
+
+        StubBatcher(long window, int maxKeys) {
+            super(window, maxKeys);
+        }
+
+        List<String> fetch(String[] keys) throws Exception {
+            calls.add(Arrays.asList(keys));
+            if (Arrays.asList(keys).contains("unknown")) {
+                throw new RegistryException("E_invalidKeyPassed");
+            }
+            return Arrays.asList(keys);
+        }
+
+        List<String> select(List<String> detail, String key) {
+            return detail.contains(key) ? Collections.singletonList(key) : Collections.<String>emptyList();
+        }
+    }
+
+    private static List<Future<List<String>>> getAll(final StubBatcher batcher, ExecutorService executor,
+                                                     String... keys) {
+        List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+        for (final String key : keys) {
+            futures.add(executor.submit(new Callable<List<String>>() {
+                public List<String> call() throws Exception {
+                    return batcher.get(key);
+                }
+            }));
+        }
+        return futures;
+    }
+
+    public void testKeysAreBatched() throws Exception {
+        StubBatcher batcher = new StubBatcher(5000L, 3);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            long start = System.currentTimeMillis();
+            List<Future<List<String>>> futures = getAll(batcher, executor, "a", "b", "c");
+            assertEquals(Collections.singletonList("a"), futures.get(0).get(5, TimeUnit.SECONDS));
+            assertEquals(Collections.singletonList("b"), futures.get(1).get(5, TimeUnit.SECONDS));
+            assertEquals(Collections.singletonList("c"), futures.get(2).get(5, TimeUnit.SECONDS));
+            // a full batch does not wait for the window
+            assertTrue(System.currentTimeMillis() - start < 5000);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, batcher.calls.size());
+        assertEquals(3, batcher.calls.get(0).size());
+    }
+
+    public void testWindow() throws Exception {
+        StubBatcher batcher = new StubBatcher(10L, 50);
+        assertEquals(Collections.singletonList("a"), batcher.get("a"));
+        assertEquals(Collections.singletonList("b"), batcher.get("b"));
+        assertEquals(2, batcher.calls.size());
+    }
+
+    public void testFaultFallsBackToSingleKeys() throws Exception {
+        StubBatcher batcher = new StubBatcher(5000L, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<List<String>>> futures = getAll(batcher, executor, "a", "unknown");
+            Future<List<String>> good = futures.get(0);
+            Future<List<String>> bad = futures.get(1);
+            assertEquals(Collections.singletonList("a"), good.get(5, TimeUnit.SECONDS));
+            try {
+                bad.get(5, TimeUnit.SECONDS);
+                fail("unknown key should have failed");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().getCause() instanceof RegistryException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(3, batcher.calls.size());
+    }
+
+    public void testWaitEndsAtDeadline() throws Exception {
+        StubBatcher batcher = new StubBatcher(5000L, 50);
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            getAll(batcher, executor, "a");
+            // give the batch of a time to open, it stays open for its window
+            Thread.sleep(100);
+            long start = System.currentTimeMillis();
+            Deadline deadline = Deadline.enter(100L);
+            try {
+                batcher.get("b");
+                fail("Expected a TimeoutException");
+            } catch (TimeoutException e) {
+                assertTrue(System.currentTimeMillis() - start < 5000);
+            } finally {
+                Deadline.exit(deadline);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import javax.xml.registry.BulkResponse;
+import javax.xml.registry.BusinessQueryManager;
+import javax.xml.registry.Connection;
+import javax.xml.registry.JAXRException;
+import javax.xml.registry.RegistryService;
+import javax.xml.registry.infomodel.Organization;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.registry.infomodel.KeyImpl;
+import org.apache.ws.scout.registry.infomodel.OrganizationImpl;
+
+/**
+ * Verifies that a federated query merges the results of its members and
+ * reports the members that failed.
+ */
+public class FederatedConnectionTest extends TestCase {
+
+    private static Organization organization(String key) {
+        OrganizationImpl organization = new OrganizationImpl(null);
+        organization.setKey(new KeyImpl(key));
+        return organization;
+    }
+
+    /**
+     * @return a connection whose queries return the given organizations
+     * after a delay, or throw when there are none. A lookup of a single
+     * object finds nothing.
+     */
+    private static Connection member(final long delay, final Organization... organizations) {
+        final BusinessQueryManager queryManager = (BusinessQueryManager) proxy(BusinessQueryManager.class,
+            new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    Thread.sleep(delay);
+                    if (organizations.length == 0) {
+                        throw new JAXRException("unavailable");
+                    }
+                    if (method.getReturnType() != BulkResponse.class) {
+                        return null;
+                    }
+                    BulkResponseImpl response = new BulkResponseImpl();
+                    response.setCollection(new ArrayList<Organization>(Arrays.asList(organizations)));
+                    return response;
+                }
+            });
+        final RegistryService registryService = (RegistryService) proxy(RegistryService.class,
+            new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    return queryManager;
+                }
+            });
+        return (Connection) proxy(Connection.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return registryService;
+            }
+        });
+    }
+
+    private static Object proxy(Class<?> type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class[] { type }, handler);
+    }
+
+    private static BulkResponse find(FederatedConnectionImpl connection) throws JAXRException {
+        return connection.getRegistryService().getBusinessQueryManager()
+            .findOrganizations(null, null, null, null, null, null);
+    }
+
+    public void testMergeByKey() throws Exception {
+        List<Connection> members = new ArrayList<Connection>();
+        members.add(member(0, organization("uuid:A"), organization("uuid:B")));
+        members.add(member(0, organization("UUID:b"), organization("uuid:C")));
+        FederatedConnectionImpl connection = new FederatedConnectionImpl(members, new Properties());
+        try {
+            BulkResponse response = find(connection);
+            assertFalse(response.isPartialResponse());
+            assertNull(response.getExceptions());
+            List<String> keys = new ArrayList<String>();
+            for (Object o : response.getCollection()) {
+                keys.add(((Organization) o).getKey().getId());
+            }
+            assertEquals(Arrays.asList("uuid:A", "uuid:B", "uuid:C"), keys);
+        } finally {
+            connection.close();
+        }
+    }
+
+    public void testPartialResponse() throws Exception {
+        List<Connection> members = new ArrayList<Connection>();
+        members.add(member(0, organization("uuid:A")));
+        members.add(member(0));
+        members.add(member(5000, organization("uuid:C")));
+        Properties properties = new Properties();
+        properties.setProperty(ConnectionFactoryImpl.FEDERATION_TIMEOUT_PROPERTY, "200");
+        FederatedConnectionImpl connection = new FederatedConnectionImpl(members, properties);
+        try {
+            long start = System.currentTimeMillis();
+            BulkResponse response = find(connection);
+            assertTrue(System.currentTimeMillis() - start < 5000);
+            assertTrue(response.isPartialResponse());
+            assertEquals(1, response.getCollection().size());
+            assertEquals(2, response.getExceptions().size());
+        } finally {
+            connection.close();
+        }
+    }
+
+    public void testLookupReportsFailures() throws Exception {
+        List<Connection> members = new ArrayList<Connection>();
+        members.add(member(0, organization("uuid:A")));
+        members.add(member(0));
+        FederatedConnectionImpl connection = new FederatedConnectionImpl(members, new Properties());
+        try {
+            // not found by the first member, and maybe in the failed one
+            connection.getRegistryService().getBusinessQueryManager().getRegistryObject("uuid:B");
+            fail("Expected a JAXRException");
+        } catch (JAXRException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("1 of 2 member registries failed"));
+        } finally {
+            connection.close();
+        }
+    }
+}
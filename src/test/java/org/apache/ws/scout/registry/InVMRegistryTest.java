@@ -0,0 +1,133 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import javax.xml.bind.JAXBElement;
+
+import junit.framework.TestCase;
+
+import org.apache.juddi.v3.client.transport.Transport;
+import org.apache.juddi.v3_service.JUDDIApiPortType;
+import org.uddi.api_v3.BusinessList;
+import org.uddi.api_v3.DispositionReport;
+import org.uddi.api_v3.FindBusiness;
+import org.uddi.api_v3.ObjectFactory;
+import org.uddi.api_v3.Result;
+import org.uddi.v3_service.DispositionReportFaultMessage;
+import org.uddi.v3_service.UDDICustodyTransferPortType;
+import org.uddi.v3_service.UDDIInquiryPortType;
+import org.uddi.v3_service.UDDIPublicationPortType;
+import org.uddi.v3_service.UDDISecurityPortType;
+import org.uddi.v3_service.UDDISubscriptionListenerPortType;
+import org.uddi.v3_service.UDDISubscriptionPortType;
+
+/**
+ * Verifies that in-VM calls hand the request objects straight to the
+ * juddi-client port types, and map their faults.
+ */
+public class InVMRegistryTest extends TestCase {
+
+    private final ObjectFactory objectFactory = new ObjectFactory();
+    private final List<Object> requests = new ArrayList<Object>();
+    private final BusinessList businessList = new BusinessList();
+    private boolean faulty;
+
+    private final UDDIInquiryPortType inquiryPort = (UDDIInquiryPortType) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class[] { UDDIInquiryPortType.class }, new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    requests.add(args[0]);
+                    if (faulty) {
+                        Result result = new Result();
+                        result.setErrno(RegistryV3Exception.E_INVALID_KEY_PASSED);
+                        DispositionReport report = new DispositionReport();
+                        report.getResult().add(result);
+                        throw new DispositionReportFaultMessage("E_invalidKeyPassed", report);
+                    }
+                    return businessList;
+                }
+            });
+
+    private final Transport juddiTransport = new Transport() {
+        public UDDIInquiryPortType getUDDIInquiryService(String endpointURL) {
+            return inquiryPort;
+        }
+
+        public UDDISecurityPortType getUDDISecurityService(String endpointURL) {
+            throw new UnsupportedOperationException();
+        }
+
+        public UDDIPublicationPortType getUDDIPublishService(String endpointURL) {
+            throw new UnsupportedOperationException();
+        }
+
+        public UDDISubscriptionPortType getUDDISubscriptionService(String endpointURL) {
+            throw new UnsupportedOperationException();
+        }
+
+        public UDDICustodyTransferPortType getUDDICustodyTransferService(String endpointURL) {
+            throw new UnsupportedOperationException();
+        }
+
+        public UDDISubscriptionListenerPortType getUDDISubscriptionListenerService(String endpointURL) {
+            throw new UnsupportedOperationException();
+        }
+
+        public JUDDIApiPortType getJUDDIApiService(String endpointURL) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private RegistryV3Impl newRegistry() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(ConnectionFactoryImpl.INVM_PROPERTY, "true");
+        props.setProperty(ConnectionFactoryImpl.COALESCE_INQUIRIES_PROPERTY, "true");
+        return new RegistryV3Impl(props, "default", "scout-test") {
+            Transport getJUDDITransport() {
+                return juddiTransport;
+            }
+        };
+    }
+
+    public void testRequestIsPassedThrough() throws Exception {
+        RegistryV3Impl registry = newRegistry();
+        FindBusiness request = new FindBusiness();
+        JAXBElement<?> response = registry.execute(objectFactory.createFindBusiness(request),
+                registry.getInquiryURI());
+        assertSame(businessList, response.getValue());
+        assertEquals(1, requests.size());
+        assertSame(request, requests.get(0));
+    }
+
+    public void testFault() throws Exception {
+        RegistryV3Impl registry = newRegistry();
+        faulty = true;
+        try {
+            registry.execute(objectFactory.createFindBusiness(new FindBusiness()), registry.getInquiryURI());
+            fail("Expected a RegistryV3Exception");
+        } catch (RegistryV3Exception e) {
+            assertTrue(e.hasErrno(RegistryV3Exception.E_INVALID_KEY_PASSED));
+        }
+        // a fault is not retried
+        assertEquals(1, requests.size());
+    }
+}
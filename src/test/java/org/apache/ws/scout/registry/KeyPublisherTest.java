@@ -0,0 +1,185 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Verifies that a publisher gets no more details than its subscriber has
+ * requested, completes an empty result at once, and stops when the
+ * subscriber cancels or fails.
+ */
+public class KeyPublisherTest extends TestCase {
+
+    /**
+     * Finds the keys a to e, and knows all of them but c.
+     */
+    private static class StubPublisher extends KeyPublisher<String> {
+        int finds;
+        final List<List<String>> fetches = new ArrayList<List<String>>();
+
+        StubPublisher() {
+            super(3);
+        }
+
+        String[] find() {
+            finds++;
+            return new String[] { "a", "b", "c", "d", "e" };
+        }
+
+        List<String> fetch(String[] keys) {
+            fetches.add(Arrays.asList(keys));
+            List<String> found = new ArrayList<String>(Arrays.asList(keys));
+            found.remove("c");
+            return found;
+        }
+    }
+
+    private static class StubSubscriber implements RegistryFlow.Subscriber<String> {
+        RegistryFlow.Subscription subscription;
+        final List<String> items = new ArrayList<String>();
+        boolean complete;
+        Throwable error;
+
+        public void onSubscribe(RegistryFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        public void onNext(String item) {
+            items.add(item);
+        }
+
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        public void onComplete() {
+            complete = true;
+        }
+    }
+
+    public void testDemandIsRespected() {
+        StubPublisher publisher = new StubPublisher();
+        StubSubscriber subscriber = new StubSubscriber();
+        publisher.subscribe(subscriber);
+        assertEquals(1, publisher.finds);
+        assertTrue(publisher.fetches.isEmpty());
+
+        subscriber.subscription.request(2);
+        assertEquals(Arrays.asList("a", "b"), subscriber.items);
+        assertEquals(1, publisher.fetches.size());
+
+        // the unknown key c does not count against the demand
+        subscriber.subscription.request(2);
+        assertEquals(Arrays.asList("a", "b", "d", "e"), subscriber.items);
+        // the last batch completes the stream without another request
+        assertTrue(subscriber.complete);
+        assertEquals(3, publisher.fetches.size());
+
+        subscriber.subscription.request(1);
+        assertEquals(3, publisher.fetches.size());
+        assertEquals(1, publisher.finds);
+        assertNull(subscriber.error);
+    }
+
+    public void testRequestFromOnNext() {
+        StubPublisher publisher = new StubPublisher();
+        StubSubscriber subscriber = new StubSubscriber() {
+            public void onNext(String item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertEquals(Arrays.asList("a", "b", "d", "e"), subscriber.items);
+        assertTrue(subscriber.complete);
+    }
+
+    public void testEmptyResult() {
+        StubPublisher publisher = new StubPublisher() {
+            String[] find() {
+                finds++;
+                return new String[0];
+            }
+        };
+        StubSubscriber subscriber = new StubSubscriber();
+        publisher.subscribe(subscriber);
+        // complete without a request
+        assertTrue(subscriber.complete);
+        assertTrue(publisher.fetches.isEmpty());
+        subscriber.subscription.request(1);
+        assertEquals(1, publisher.finds);
+    }
+
+    public void testCancel() {
+        StubPublisher publisher = new StubPublisher();
+        StubSubscriber subscriber = new StubSubscriber() {
+            public void onNext(String item) {
+                super.onNext(item);
+                subscription.cancel();
+            }
+        };
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(Arrays.asList("a"), subscriber.items);
+        subscriber.subscription.request(10);
+        assertEquals(1, publisher.fetches.size());
+        assertFalse(subscriber.complete);
+    }
+
+    public void testSubscriberFailure() {
+        StubPublisher publisher = new StubPublisher();
+        final RuntimeException failure = new IllegalStateException("subscriber failed");
+        StubSubscriber subscriber = new StubSubscriber() {
+            public void onNext(String item) {
+                super.onNext(item);
+                if (item.equals("b")) {
+                    throw failure;
+                }
+            }
+        };
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(Arrays.asList("a", "b"), subscriber.items);
+        assertSame(failure, subscriber.error);
+        // the subscription is cancelled
+        subscriber.subscription.request(1);
+        assertEquals(1, publisher.fetches.size());
+        assertFalse(subscriber.complete);
+    }
+
+    public void testFailure() {
+        KeyPublisher<String> publisher = new StubPublisher() {
+            String[] find() {
+                throw new IllegalStateException("registry down");
+            }
+        };
+        StubSubscriber subscriber = new StubSubscriber();
+        // the keys are found on subscribing
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.error instanceof IllegalStateException);
+
+        subscriber = new StubSubscriber();
+        new StubPublisher().subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+}
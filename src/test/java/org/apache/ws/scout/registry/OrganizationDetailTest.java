@@ -0,0 +1,190 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.registry.BulkResponse;
+import javax.xml.registry.BusinessQueryManager;
+import javax.xml.registry.InvalidRequestException;
+import javax.xml.registry.LifeCycleManager;
+import javax.xml.registry.UnsupportedCapabilityException;
+import javax.xml.registry.infomodel.EmailAddress;
+import javax.xml.registry.infomodel.Key;
+import javax.xml.registry.infomodel.Organization;
+import javax.xml.registry.infomodel.PostalAddress;
+import javax.xml.registry.infomodel.TelephoneNumber;
+import javax.xml.registry.infomodel.User;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.model.uddi.v2.Address;
+import org.apache.ws.scout.model.uddi.v2.AddressLine;
+import org.apache.ws.scout.model.uddi.v2.BusinessDetail;
+import org.apache.ws.scout.model.uddi.v2.BusinessEntity;
+import org.apache.ws.scout.model.uddi.v2.BusinessInfo;
+import org.apache.ws.scout.model.uddi.v2.BusinessInfos;
+import org.apache.ws.scout.model.uddi.v2.BusinessList;
+import org.apache.ws.scout.model.uddi.v2.Contact;
+import org.apache.ws.scout.model.uddi.v2.Contacts;
+import org.apache.ws.scout.model.uddi.v2.Email;
+import org.apache.ws.scout.model.uddi.v2.Name;
+import org.apache.ws.scout.model.uddi.v2.Phone;
+import org.apache.ws.scout.registry.infomodel.ExternalLinkImpl;
+import org.apache.ws.scout.registry.infomodel.KeyImpl;
+
+/**
+ * Verifies that organizations fetched by key carry the same contact
+ * details as those found by name, that unknown keys are reported, and
+ * that streaming organizations by external links is rejected.
+ */
+public class OrganizationDetailTest extends TestCase {
+
+    private static final String KEY = "uuid:5B1E2F0A-3C4D-4E5F-8A9B-0C1D2E3F4A5B";
+    private static final String MISSING_KEY = "uuid:00000000-0000-0000-0000-000000000000";
+
+    private final Map<String, BusinessEntity> entities = new HashMap<String, BusinessEntity>();
+    private BusinessQueryManager bqm;
+
+    protected void setUp() throws Exception {
+        BusinessEntity entity = new BusinessEntity();
+        entity.setBusinessKey(KEY);
+        Name name = new Name();
+        name.setValue("Apache");
+        entity.getName().add(name);
+
+        Contact contact = new Contact();
+        contact.setUseType("Technical");
+        contact.setPersonName("Jane Doe");
+        Email email = new Email();
+        email.setValue("jane@apache.org");
+        contact.getEmail().add(email);
+        Phone phone = new Phone();
+        phone.setUseType("Office");
+        phone.setValue("555-0100");
+        contact.getPhone().add(phone);
+        Address address = new Address();
+        AddressLine street = new AddressLine();
+        street.setKeyName("STREET");
+        street.setKeyValue("Main Street");
+        address.getAddressLine().add(street);
+        contact.getAddress().add(address);
+        entity.setContacts(new Contacts());
+        entity.getContacts().getContact().add(contact);
+        entities.put(KEY, entity);
+
+        IRegistry registry = (IRegistry) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] { IRegistry.class }, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("findBusiness")) {
+                            return findBusiness();
+                        }
+                        if (method.getName().equals("getBusinessDetail")) {
+                            return args[0] instanceof String
+                                ? getBusinessDetail(new String[] { (String) args[0] })
+                                : getBusinessDetail((String[]) args[0]);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        bqm = new RegistryServiceImpl(registry, null, -1, "2.0").getBusinessQueryManager();
+    }
+
+    private BusinessList findBusiness() {
+        BusinessList list = new BusinessList();
+        list.setBusinessInfos(new BusinessInfos());
+        for (String key : entities.keySet()) {
+            BusinessInfo info = new BusinessInfo();
+            info.setBusinessKey(key);
+            list.getBusinessInfos().getBusinessInfo().add(info);
+        }
+        return list;
+    }
+
+    private BusinessDetail getBusinessDetail(String[] keys) throws RegistryException {
+        BusinessDetail detail = new BusinessDetail();
+        for (String key : keys) {
+            BusinessEntity entity = entities.get(key);
+            if (entity == null) {
+                // a registry rejects the whole call
+                throw new RegistryException("E_invalidKeyPassed", RegistryException.E_INVALID_KEY_PASSED, key);
+            }
+            detail.getBusinessEntity().add(entity);
+        }
+        return detail;
+    }
+
+    private Organization getByKey(Collection<Key> keys) throws Exception {
+        BulkResponse response = bqm.getRegistryObjects(keys, LifeCycleManager.ORGANIZATION);
+        assertEquals(1, response.getCollection().size());
+        return (Organization) response.getCollection().iterator().next();
+    }
+
+    public void testContactsMatchFindOrganizations() throws Exception {
+        BulkResponse found = bqm.findOrganizations(null, Collections.singleton("%"), null, null, null, null);
+        User expected = ((Organization) found.getCollection().iterator().next()).getPrimaryContact();
+        User actual = getByKey(Collections.<Key>singleton(new KeyImpl(KEY))).getPrimaryContact();
+
+        assertEquals("Technical", actual.getType());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getPersonName().getFullName(), actual.getPersonName().getFullName());
+
+        EmailAddress email = (EmailAddress) actual.getEmailAddresses().iterator().next();
+        assertEquals("jane@apache.org", email.getAddress());
+        assertEquals(expected.getEmailAddresses().size(), actual.getEmailAddresses().size());
+
+        TelephoneNumber phone = (TelephoneNumber) actual.getTelephoneNumbers(null).iterator().next();
+        assertEquals("555-0100", phone.getNumber());
+        assertEquals("Office", phone.getType());
+        assertEquals(expected.getTelephoneNumbers(null).size(), actual.getTelephoneNumbers(null).size());
+
+        PostalAddress address = (PostalAddress) actual.getPostalAddresses().iterator().next();
+        assertEquals("Main Street", address.getStreet());
+        assertEquals(expected.getPostalAddresses().size(), actual.getPostalAddresses().size());
+    }
+
+    public void testMissingKeyIsReported() throws Exception {
+        List<Key> keys = new ArrayList<Key>();
+        keys.add(new KeyImpl(KEY));
+        keys.add(new KeyImpl(MISSING_KEY));
+        BulkResponse response = bqm.getRegistryObjects(keys, LifeCycleManager.ORGANIZATION);
+
+        assertEquals(1, response.getCollection().size());
+        assertEquals(KEY, ((Organization) response.getCollection().iterator().next()).getKey().getId());
+        assertEquals(1, response.getExceptions().size());
+        Exception e = (Exception) response.getExceptions().iterator().next();
+        assertTrue(e instanceof InvalidRequestException);
+        assertTrue(e.getMessage().indexOf(MISSING_KEY) > -1);
+    }
+
+    public void testPublishByExternalLinkIsRejected() throws Exception {
+        try {
+            ((PublishingQueryManager) bqm).publishOrganizations(null, Collections.singleton("%"), null, null, null,
+                    Collections.singleton(new ExternalLinkImpl(null)));
+            fail("Expected an UnsupportedCapabilityException");
+        } catch (UnsupportedCapabilityException e) {
+            // UDDI cannot find organizations by their external links
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.model.uddi.v2.BusinessEntity;
+import org.apache.ws.scout.model.uddi.v2.BusinessService;
+import org.apache.ws.scout.model.uddi.v2.BusinessServices;
+import org.apache.ws.scout.model.uddi.v2.DeleteBusiness;
+import org.apache.ws.scout.model.uddi.v2.SaveBusiness;
+import org.apache.ws.scout.transport.TransportException;
+
+/**
+ * Verifies which failed registry calls are retried, and that the retries
+ * stay within their budget.
+ */
+public class RetryPolicyTest extends TestCase {
+
+    private static final RegistryException LOST =
+        new RegistryException(new TransportException(new IOException("Connection reset")));
+    private static final RegistryException FAULT =
+        new RegistryException(new TransportException(new RegistryException("E_invalidKeyPassed")));
+
+    public void testClassification() {
+        RetryPolicy policy = new RetryPolicy(3, 100L, 1000L, 0.1);
+        assertTrue(policy.retry(1, LOST, false, true));
+        assertFalse(policy.retry(1, LOST, false, false));
+        assertFalse(policy.retry(1, FAULT, false, true));
+        // a busy registry did not apply the call
+        assertTrue(policy.retry(1, FAULT, true, false));
+        assertFalse(policy.retry(3, LOST, false, true));
+    }
+
+    public void testBudget() {
+        RetryPolicy policy = new RetryPolicy(3, 100L, 1000L, 0.5);
+        int retries = 0;
+        while (policy.retry(1, LOST, false, true)) {
+            retries++;
+        }
+        assertEquals(10, retries);
+        policy.called();
+        assertFalse(policy.retry(1, LOST, false, true));
+        policy.called();
+        assertTrue(policy.retry(1, LOST, false, true));
+    }
+
+    public void testBackoff() {
+        RetryPolicy policy = new RetryPolicy(10, 100L, 1000L, 0.1);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(policy.backoff(1) < 100L);
+            assertTrue(policy.backoff(8) < 1000L);
+        }
+    }
+
+    public void testIdempotentPublish() {
+        SaveBusiness save = new SaveBusiness();
+        BusinessEntity business = new BusinessEntity();
+        business.setBusinessKey("uuid:2E5C3A1B-7F4D-4B8A-9C6E-1D0F2A3B4C5D");
+        save.getBusinessEntity().add(business);
+        assertTrue(RegistryImpl.isIdempotent(save));
+
+        // a new service would be created again
+        business.setBusinessServices(new BusinessServices());
+        business.getBusinessServices().getBusinessService().add(new BusinessService());
+        assertFalse(RegistryImpl.isIdempotent(save));
+
+        assertFalse(RegistryImpl.isIdempotent(new DeleteBusiness()));
+    }
+}
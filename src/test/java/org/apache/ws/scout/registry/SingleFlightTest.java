@@ -0,0 +1,133 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.util.Deadline;
+
+/**
+ * Verifies that concurrent identical calls are made once, and that later
+ * calls are made again.
+ */
+public class SingleFlightTest extends TestCase {
+
+    public void testConcurrentCallsShareResult() throws Exception {
+        final SingleFlight<String, String> flight = new SingleFlight<String, String>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<String> call = new Callable<String>() {
+            public String call() throws Exception {
+                calls.incrementAndGet();
+                release.await();
+                return "result";
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(new Callable<String>() {
+                    public String call() throws Exception {
+                        return flight.execute("find_business", call);
+                    }
+                });
+            }
+            while (calls.get() == 0) {
+                Thread.sleep(10);
+            }
+            // give the other callers time to join the call in flight
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<?> future : futures) {
+                assertEquals("result", future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, flight.size());
+
+        flight.execute("find_business", call);
+        assertEquals(2, calls.get());
+    }
+
+    public void testFailureIsNotKept() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<String, String>();
+        try {
+            flight.execute("get_businessDetail", new Callable<String>() {
+                public String call() throws Exception {
+                    throw new RegistryException("E_busy");
+                }
+            });
+            fail("call should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RegistryException);
+        }
+        assertEquals("ok", flight.execute("get_businessDetail", new Callable<String>() {
+            public String call() {
+                return "ok";
+            }
+        }));
+    }
+
+    public void testWaitEndsAtDeadline() throws Exception {
+        final SingleFlight<String, String> flight = new SingleFlight<String, String>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            executor.submit(new Callable<String>() {
+                public String call() throws Exception {
+                    return flight.execute("find_business", new Callable<String>() {
+                        public String call() throws Exception {
+                            started.countDown();
+                            release.await();
+                            return "result";
+                        }
+                    });
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Deadline deadline = Deadline.enter(100L);
+            try {
+                flight.execute("find_business", new Callable<String>() {
+                    public String call() {
+                        return "not shared";
+                    }
+                });
+                fail("Expected a TimeoutException");
+            } catch (TimeoutException e) {
+                assertEquals(1, flight.size());
+            } finally {
+                Deadline.exit(deadline);
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
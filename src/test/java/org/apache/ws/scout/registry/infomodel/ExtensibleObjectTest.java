@@ -88,6 +88,15 @@ public class ExtensibleObjectTest extends TestCase {
         assertTrue(slots.contains(slot3));
     }
 
+    public void testNoSlots() throws JAXRException {
+        ExtensibleObject empty = new TestObject();
+        assertTrue(empty.getSlots().isEmpty());
+        assertNull(empty.getSlot("MockSlot"));
+        empty.removeSlot("MockSlot");
+        empty.addSlot(slot2);
+        assertEquals(slot2, empty.getSlot("MockSlot2"));
+    }
+
     public void setUp() throws Exception {
         super.setUp();
         eo = new TestObject();
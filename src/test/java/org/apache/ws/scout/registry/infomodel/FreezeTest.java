@@ -0,0 +1,123 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.registry.infomodel;
+
+import java.util.Locale;
+
+import javax.xml.registry.JAXRException;
+import javax.xml.registry.infomodel.Classification;
+
+import junit.framework.TestCase;
+
+/**
+ * Verifies that frozen infomodel objects reject changes and can be thawed.
+ */
+public class FreezeTest extends TestCase {
+    private OrganizationImpl org;
+    private ServiceImpl service;
+    private ClassificationImpl classification;
+
+    public void testFrozenObjectRejectsChanges() throws JAXRException {
+        org.freeze();
+        assertTrue(org.isFrozen());
+        assertTrue(service.isFrozen());
+        assertTrue(classification.isFrozen());
+        try {
+            org.setName(new InternationalStringImpl("other"));
+            fail();
+        } catch (FrozenObjectException e) {
+        }
+        try {
+            org.getName().setValue("other");
+            fail();
+        } catch (FrozenObjectException e) {
+        }
+        try {
+            service.addServiceBinding(new ServiceBindingImpl(null));
+            fail();
+        } catch (FrozenObjectException e) {
+        }
+        try {
+            org.getServices().clear();
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+        // a description that was never set is still readable
+        assertTrue(org.getDescription().getLocalizedStrings().isEmpty());
+    }
+
+    public void testThaw() throws JAXRException {
+        org.freeze();
+        OrganizationImpl copy = (OrganizationImpl) org.thaw();
+        assertNotSame(org, copy);
+        assertFalse(copy.isFrozen());
+        assertEquals(org, copy);
+
+        copy.setName(new InternationalStringImpl("copy"));
+        copy.addService(new ServiceImpl(null));
+        assertEquals(2, copy.getServices().size());
+        assertEquals(1, org.getServices().size());
+        assertEquals("org", org.getName().getValue());
+
+        // the held objects are shared and stay frozen
+        assertTrue(copy.getClassifications().contains(classification));
+        assertTrue(classification.isFrozen());
+        Classification thawed = (Classification) classification.thaw();
+        thawed.setValue("other");
+        assertEquals("1", classification.getValue());
+    }
+
+    public void testThawedCopyIsEditedInPlace() throws JAXRException {
+        ExternalIdentifierImpl externalId = new ExternalIdentifierImpl(null);
+        org.addExternalIdentifier(externalId);
+        org.freeze();
+        OrganizationImpl copy = (OrganizationImpl) org.thaw();
+
+        copy.getName().setValue("copy");
+        assertEquals("copy", copy.getName().getValue());
+        assertEquals("org", org.getName().getValue());
+        copy.getDescription().setValue("description");
+        assertTrue(org.getDescription().getLocalizedStrings().isEmpty());
+
+        // the shared identifier keeps pointing at the frozen original
+        copy.removeExternalIdentifier(externalId);
+        assertTrue(copy.getExternalIdentifiers().isEmpty());
+        assertEquals(1, org.getExternalIdentifiers().size());
+        assertSame(org, externalId.getRegistryObject());
+    }
+
+    public void testThawInternationalString() throws JAXRException {
+        InternationalStringImpl is = new InternationalStringImpl(Locale.US, "USA", "UTF-8");
+        is.freeze();
+        InternationalStringImpl copy = is.thaw();
+        copy.setValue(Locale.UK, "England");
+        assertEquals(2, copy.getLocalizedStrings().size());
+        assertEquals(1, is.getLocalizedStrings().size());
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        org = new OrganizationImpl(null);
+        org.setKey(new KeyImpl("org-key"));
+        org.setName(new InternationalStringImpl("org"));
+        service = new ServiceImpl(null);
+        org.addService(service);
+        classification = new ClassificationImpl(null);
+        classification.setExternal(true);
+        classification.setValue("1");
+        org.addClassification(classification);
+    }
+}
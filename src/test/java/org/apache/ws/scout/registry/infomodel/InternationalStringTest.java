@@ -147,6 +147,20 @@ public class InternationalStringTest extends TestCase {
         assertNull(is.getLocalizedString(Locale.US, "US-ASCII"));
     }
 
+    public void testSingleLocalizedString() throws JAXRException {
+        InternationalString is = new InternationalStringImpl();
+        assertTrue(is.getLocalizedStrings().isEmpty());
+        assertNull(is.getValue(Locale.US));
+        is.addLocalizedString(usString);
+        is.setValue(Locale.US, "foo");
+        assertEquals(1, is.getLocalizedStrings().size());
+        assertEquals("foo", is.getValue(Locale.US));
+        is.removeLocalizedString(ukString);
+        assertEquals(1, is.getLocalizedStrings().size());
+        is.removeLocalizedString(usString);
+        assertTrue(is.getLocalizedStrings().isEmpty());
+    }
+
     protected void setUp() throws Exception {
         super.setUp();
         defaultLocale = Locale.getDefault();
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.transport;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.registry.ConnectionFactoryImpl;
+import org.w3c.dom.Element;
+
+/**
+ * Verifies that the CircuitBreakerTransport fails fast once an endpoint
+ * keeps failing, and lets it back in after the open time.
+ */
+public class CircuitBreakerTransportTest extends TestCase {
+
+    private static final URI INQUIRY = URI.create("http://localhost/uddi/inquiry");
+
+    private static class StubTransport implements Transport {
+        boolean dead;
+        int sent;
+
+        public Element send(Element request, URI endpointURI) throws TransportException {
+            throw new UnsupportedOperationException();
+        }
+
+        public String send(String request, URI endpointURI) throws TransportException {
+            sent++;
+            if (dead) {
+                throw new TransportException(new IOException("Connection refused"));
+            }
+            return request;
+        }
+    }
+
+    private static void sendQuietly(Transport transport) {
+        try {
+            transport.send("<find_business/>", INQUIRY);
+        } catch (TransportException e) {
+            // expected
+        }
+    }
+
+    public void testOpenAndClose() throws Exception {
+        StubTransport stub = new StubTransport();
+        CircuitBreakerTransport transport = new CircuitBreakerTransport(stub, 0.5, 4, 10000L, 100L, 0);
+        CircuitBreakerTransport.Breaker breaker = transport.getBreaker(INQUIRY);
+
+        stub.dead = true;
+        for (int i = 0; i < 4; i++) {
+            sendQuietly(transport);
+        }
+        assertEquals(CircuitBreakerTransport.State.OPEN, breaker.getState());
+        sendQuietly(transport);
+        assertEquals(4, stub.sent);
+        assertEquals(1, breaker.getRejected());
+
+        // a successful trial closes the breaker
+        Thread.sleep(150);
+        stub.dead = false;
+        assertEquals("<find_business/>", transport.send("<find_business/>", INQUIRY));
+        assertEquals(CircuitBreakerTransport.State.CLOSED, breaker.getState());
+        assertEquals(0.0, breaker.getFailureRate());
+    }
+
+    public void testOnlyTheTrialCloses() throws Exception {
+        CircuitBreakerTransport transport = new CircuitBreakerTransport(new StubTransport(), 1.0, 1, 10000L, 100L, 2);
+        CircuitBreakerTransport.Breaker breaker = transport.getBreaker(INQUIRY);
+        long later = System.currentTimeMillis() + 1000;
+
+        // a call sent before the breaker opens
+        assertFalse(breaker.acquire(0));
+        breaker.release(breaker.acquire(0), true, 0);
+        assertEquals(CircuitBreakerTransport.State.OPEN, breaker.getState());
+        assertEquals(1, breaker.getLimit());
+
+        // a call rejected by the concurrency limit is not the trial
+        try {
+            breaker.acquire(later);
+            fail("Expected a TransportException");
+        } catch (TransportException e) {
+            assertEquals(CircuitBreakerTransport.State.HALF_OPEN, breaker.getState());
+        }
+        breaker.release(false, false, 0);
+        assertEquals(CircuitBreakerTransport.State.HALF_OPEN, breaker.getState());
+
+        assertTrue(breaker.acquire(later));
+        breaker.release(true, false, 0);
+        assertEquals(CircuitBreakerTransport.State.CLOSED, breaker.getState());
+    }
+
+    public void testConcurrencyLimit() throws Exception {
+        StubTransport stub = new StubTransport();
+        CircuitBreakerTransport transport = new CircuitBreakerTransport(stub, 1.0, 100, 10000L, 100L, 8);
+        CircuitBreakerTransport.Breaker breaker = transport.getBreaker(INQUIRY);
+        assertEquals(8, breaker.getLimit());
+
+        stub.dead = true;
+        sendQuietly(transport);
+        sendQuietly(transport);
+        assertEquals(2, breaker.getLimit());
+        stub.dead = false;
+        for (int i = 0; i < 10; i++) {
+            transport.send("<find_business/>", INQUIRY);
+        }
+        assertTrue(breaker.getLimit() > 2);
+        assertEquals(0, breaker.getInFlight());
+    }
+
+    public void testDisabledByDefault() {
+        StubTransport stub = new StubTransport();
+        assertSame(stub, CircuitBreakerTransport.wrap(stub, new Properties()));
+        Properties properties = new Properties();
+        properties.setProperty(ConnectionFactoryImpl.CIRCUIT_BREAKER_PROPERTY, "true");
+        assertTrue(CircuitBreakerTransport.wrap(stub, properties) instanceof CircuitBreakerTransport);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.transport;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.registry.RegistryException;
+import org.w3c.dom.Element;
+
+/**
+ * Verifies that the FailoverTransport spreads requests over its endpoints
+ * and ejects the endpoints that fail.
+ */
+public class FailoverTransportTest extends TestCase {
+
+    private static final URI INQUIRY = URI.create("http://localhost/uddi/inquiry");
+
+    /**
+     * Answers with the URI it was sent to, and fails for the dead URIs.
+     */
+    private static class StubTransport implements Transport {
+        final Set<URI> dead = new HashSet<URI>();
+        final Set<URI> faulty = new HashSet<URI>();
+        final List<URI> sent = new ArrayList<URI>();
+
+        public Element send(Element request, URI endpointURI) throws TransportException {
+            throw new UnsupportedOperationException();
+        }
+
+        public synchronized String send(String request, URI endpointURI) throws TransportException {
+            sent.add(endpointURI);
+            if (dead.contains(endpointURI)) {
+                throw new TransportException(new IOException("Connection refused"));
+            }
+            if (faulty.contains(endpointURI)) {
+                throw new TransportException(new RegistryException("E_invalidKeyPassed"));
+            }
+            return endpointURI.toString();
+        }
+    }
+
+    private StubTransport stub;
+    private List<URI> uris;
+
+    protected void setUp() throws Exception {
+        stub = new StubTransport();
+        uris = FailoverTransport.parseURIs("http://a/uddi/inquiry, http://b/uddi/inquiry");
+    }
+
+    private FailoverTransport transport(FailoverTransport.Policy policy, boolean retry) {
+        FailoverTransport transport = new FailoverTransport(stub, policy, 2, 60000L);
+        List<FailoverTransport.Endpoint> endpoints = new ArrayList<FailoverTransport.Endpoint>();
+        for (URI uri : uris) {
+            endpoints.add(new FailoverTransport.Endpoint(stub, uri));
+        }
+        transport.setEndpoints(INQUIRY, endpoints, retry);
+        return transport;
+    }
+
+    public void testRoundRobin() throws Exception {
+        Transport transport = transport(FailoverTransport.Policy.ROUND_ROBIN, true);
+        Set<String> answers = new HashSet<String>();
+        for (int i = 0; i < 4; i++) {
+            answers.add(transport.send("<find_business/>", INQUIRY));
+        }
+        assertEquals(2, answers.size());
+        // other URIs go straight to the transport
+        assertEquals("http://localhost/admin", transport.send("<x/>", URI.create("http://localhost/admin")));
+    }
+
+    public void testFailoverAndEjection() throws Exception {
+        Transport transport = transport(FailoverTransport.Policy.LEAST_OUTSTANDING, true);
+        stub.dead.add(uris.get(0));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(uris.get(1).toString(), transport.send("<find_business/>", INQUIRY));
+        }
+        // the dead endpoint is no longer tried once it has failed twice
+        int tries = 0;
+        for (URI uri : stub.sent) {
+            if (uri.equals(uris.get(0))) tries++;
+        }
+        assertEquals(2, tries);
+    }
+
+    public void testNoRetry() throws Exception {
+        Transport transport = transport(FailoverTransport.Policy.ROUND_ROBIN, false);
+        stub.dead.add(uris.get(0));
+        stub.dead.add(uris.get(1));
+        try {
+            transport.send("<save_business/>", INQUIRY);
+            fail("did not get expected Exception");
+        } catch (TransportException e) {
+            // OK
+        }
+        assertEquals(1, stub.sent.size());
+    }
+
+    public void testFaultIsAnAnswer() throws Exception {
+        Transport transport = transport(FailoverTransport.Policy.ROUND_ROBIN, true);
+        stub.faulty.addAll(uris);
+        try {
+            transport.send("<get_businessDetail/>", INQUIRY);
+            fail("did not get expected Exception");
+        } catch (TransportException e) {
+            assertTrue(e.getCause() instanceof RegistryException);
+        }
+        assertEquals(1, stub.sent.size());
+    }
+}
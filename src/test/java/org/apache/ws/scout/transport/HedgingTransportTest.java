@@ -0,0 +1,135 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.transport;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.util.XMLUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Verifies that a slow inquiry is sent a second time, and that other
+ * requests never are.
+ */
+public class HedgingTransportTest extends TestCase {
+
+    private static final URI INQUIRY = URI.create("http://localhost/uddi/inquiry");
+    private static final URI PUBLISH = URI.create("http://localhost/uddi/publish");
+
+    /**
+     * Sends the first request after stall() slowly.
+     */
+    private static class StubTransport implements Transport {
+        final AtomicInteger sent = new AtomicInteger();
+        final List<Document> documents = Collections.synchronizedList(new ArrayList<Document>());
+        volatile boolean stall;
+        volatile long stallTime = 5000;
+
+        public Element send(Element request, URI endpointURI) throws TransportException {
+            documents.add(request.getOwnerDocument());
+            send(request.getLocalName(), endpointURI);
+            return request;
+        }
+
+        public String send(String request, URI endpointURI) throws TransportException {
+            sent.incrementAndGet();
+            if (stall) {
+                stall = false;
+                try {
+                    Thread.sleep(stallTime);
+                } catch (InterruptedException e) {
+                    return "cancelled";
+                }
+                return "slow";
+            }
+            return "fast";
+        }
+    }
+
+    private static void warmUp(Transport transport) throws Exception {
+        for (int i = 0; i < HedgingTransport.MIN_SAMPLES; i++) {
+            transport.send("<find_service/>", INQUIRY);
+        }
+    }
+
+    public void testSlowInquiryIsHedged() throws Exception {
+        StubTransport stub = new StubTransport();
+        HedgingTransport transport = new HedgingTransport(stub, Collections.singleton(INQUIRY), 95, 50L);
+        for (int i = 0; i < HedgingTransport.MIN_SAMPLES; i++) {
+            assertEquals(-1, transport.getDelay(INQUIRY));
+            transport.send("<find_service/>", INQUIRY);
+        }
+        assertEquals(50L, transport.getDelay(INQUIRY));
+
+        stub.stall = true;
+        long start = System.currentTimeMillis();
+        assertEquals("fast", transport.send("<find_service/>", INQUIRY));
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(1, transport.getHedged());
+    }
+
+    public void testHedgedElementHasItsOwnDocument() throws Exception {
+        StubTransport stub = new StubTransport();
+        HedgingTransport transport = new HedgingTransport(stub, Collections.singleton(INQUIRY), 95, 50L);
+        warmUp(transport);
+
+        stub.stall = true;
+        Element request = XMLUtils.parse("<find_service xmlns=\"urn:uddi-org:api_v2\"/>").getDocumentElement();
+        transport.send(request, INQUIRY);
+        assertEquals(1, transport.getHedged());
+        assertEquals(2, stub.documents.size());
+        assertNotSame(stub.documents.get(0), stub.documents.get(1));
+    }
+
+    public void testPublishToTheInquiryURIIsNotHedged() throws Exception {
+        StubTransport stub = new StubTransport();
+        HedgingTransport transport = new HedgingTransport(stub, Collections.singleton(INQUIRY), 95, 50L);
+        warmUp(transport);
+
+        stub.stallTime = 200;
+        stub.stall = true;
+        assertEquals("slow", transport.send("<?xml version=\"1.0\"?><uddi:save_service xmlns:uddi=\"urn:uddi-org:api_v2\"/>", INQUIRY));
+        assertEquals(0, transport.getHedged());
+        assertEquals(HedgingTransport.MIN_SAMPLES + 1, stub.sent.get());
+    }
+
+    public void testIsInquiry() {
+        assertTrue(HedgingTransport.isInquiry("find_business"));
+        assertTrue(HedgingTransport.isInquiry("get_businessDetailExt"));
+        assertTrue(HedgingTransport.isInquiry("get_operationalInfo"));
+        assertFalse(HedgingTransport.isInquiry("get_authToken"));
+        assertFalse(HedgingTransport.isInquiry("get_assertionStatusReport"));
+        assertFalse(HedgingTransport.isInquiry("delete_business"));
+    }
+
+    public void testPublishIsNotHedged() throws Exception {
+        StubTransport stub = new StubTransport();
+        HedgingTransport transport = new HedgingTransport(stub, Collections.singleton(INQUIRY), 95, 0L);
+        for (int i = 0; i < HedgingTransport.MIN_SAMPLES; i++) {
+            transport.send("<save_service/>", PUBLISH);
+        }
+        assertEquals(-1, transport.getDelay(PUBLISH));
+        assertEquals(0, transport.getHedged());
+        assertEquals(HedgingTransport.MIN_SAMPLES, stub.sent.get());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.transport;
+
+import java.net.URI;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.util.XMLUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Verifies that the LocalTransport resolves its request handler once per
+ * endpoint instead of on every call.
+ */
+public class LocalTransportTest extends TestCase {
+
+    private static final String ENDPOINT = CountingHandler.class.getName() + "#echo";
+
+    public static class CountingHandler {
+        static int instances = 0;
+
+        public CountingHandler() {
+            instances++;
+        }
+
+        public Node echo(Element request) throws Exception {
+            Document doc = XMLUtils.getDocumentBuilder().newDocument();
+            doc.appendChild(doc.importNode(request, true));
+            return doc;
+        }
+    }
+
+    public void testHandlerIsReused() throws Exception {
+        URI endpoint = new URI(ENDPOINT);
+        Element request = XMLUtils.parse("<find_business xmlns=\"urn:uddi-org:api_v3\"/>").getDocumentElement();
+
+        Transport transport = new LocalTransport();
+        for (int i = 0; i < 100; i++) {
+            Element response = transport.send(request, endpoint);
+            assertEquals("find_business", response.getLocalName());
+        }
+        // a second transport for the same endpoint shares the resolved handler
+        new LocalTransport().send(request, endpoint);
+        assertEquals(1, CountingHandler.instances);
+    }
+
+    public void testSendString() throws Exception {
+        String response = new LocalTransport().send("<get_tModelDetail xmlns=\"urn:uddi-org:api_v3\"/>", new URI(ENDPOINT));
+        assertTrue(response.indexOf("get_tModelDetail") > -1);
+    }
+}
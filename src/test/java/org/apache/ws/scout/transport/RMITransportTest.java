@@ -0,0 +1,142 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.transport;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.util.Hashtable;
+
+import javax.naming.Context;
+import javax.naming.spi.InitialContextFactory;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.util.XMLUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Verifies that the RMITransport looks a stub up once, and looks it up
+ * again in a new naming context when the server no longer knows it.
+ */
+public class RMITransportTest extends TestCase {
+
+    private static final String FACTORY_PROPERTY = "java.naming.factory.initial";
+
+    static int lookups;
+    static int closes;
+    /** What the next looked up handlers throw, or null */
+    static RemoteException failure;
+
+    private String factory;
+
+    public static class Handler {
+        private final RemoteException error;
+
+        Handler(RemoteException error) {
+            this.error = error;
+        }
+
+        public Node handle(Element request) throws Exception {
+            if (error != null) {
+                throw error;
+            }
+            Document doc = XMLUtils.getDocumentBuilder().newDocument();
+            doc.appendChild(doc.importNode(request, true));
+            return doc;
+        }
+    }
+
+    public static class Factory implements InitialContextFactory {
+        public Context getInitialContext(Hashtable<?, ?> environment) {
+            return (Context) Proxy.newProxyInstance(Factory.class.getClassLoader(), new Class[] { Context.class },
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("lookup")) {
+                            lookups++;
+                            Handler handler = new Handler(failure);
+                            failure = null;
+                            return handler;
+                        }
+                        if (method.getName().equals("close")) {
+                            closes++;
+                        }
+                        return null;
+                    }
+                });
+        }
+    }
+
+    protected void setUp() {
+        factory = System.getProperty(FACTORY_PROPERTY);
+        System.setProperty(FACTORY_PROPERTY, Factory.class.getName());
+        lookups = 0;
+        closes = 0;
+        failure = null;
+    }
+
+    protected void tearDown() {
+        if (factory == null) {
+            System.clearProperty(FACTORY_PROPERTY);
+        } else {
+            System.setProperty(FACTORY_PROPERTY, factory);
+        }
+    }
+
+    private static URI endpoint(int port) throws Exception {
+        return new URI("jnp://localhost:" + port + "/inquiry?" + Handler.class.getName() + "#handle");
+    }
+
+    private static Element request() throws Exception {
+        return XMLUtils.parse("<find_business xmlns=\"urn:uddi-org:api_v2\"/>").getDocumentElement();
+    }
+
+    public void testStubIsCached() throws Exception {
+        URI endpoint = endpoint(11099);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("find_business", new RMITransport().send(request(), endpoint).getLocalName());
+        }
+        assertEquals(1, lookups);
+    }
+
+    public void testStaleStubIsLookedUpAgain() throws Exception {
+        URI endpoint = endpoint(11100);
+        failure = new NoSuchObjectException("the server was restarted");
+        assertEquals("find_business", new RMITransport().send(request(), endpoint).getLocalName());
+        assertEquals(2, lookups);
+        // the context of the stale stub was closed and replaced
+        assertEquals(1, closes);
+
+        new RMITransport().send(request(), endpoint);
+        assertEquals(2, lookups);
+    }
+
+    public void testOtherFailureIsNotRetried() throws Exception {
+        URI endpoint = endpoint(11101);
+        failure = new RemoteException("E_invalidKeyPassed");
+        try {
+            new RMITransport().send(request(), endpoint);
+            fail("Expected a TransportException");
+        } catch (TransportException e) {
+            assertEquals(1, lookups);
+        }
+    }
+}
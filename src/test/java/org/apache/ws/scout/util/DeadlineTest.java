@@ -0,0 +1,120 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.util;
+
+import java.net.URI;
+import java.util.concurrent.TimeoutException;
+
+import junit.framework.TestCase;
+
+import org.apache.ws.scout.transport.LocalTransport;
+import org.apache.ws.scout.transport.TransportException;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Verifies that an inner deadline never extends an outer one, that
+ * exiting restores the outer deadline, and that a local call is given up
+ * when the deadline passes.
+ */
+public class DeadlineTest extends TestCase {
+
+    public static class HangingHandler {
+        static volatile boolean interrupted;
+
+        public Node hang(Element request) {
+            try {
+                Thread.sleep(60000);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            return null;
+        }
+    }
+
+    public void testNoDeadlineBound() {
+        assertNull(Deadline.enter(0));
+        assertEquals(-1, Deadline.remaining());
+        assertFalse(Deadline.expired());
+    }
+
+    public void testNesting() {
+        Deadline operation = Deadline.enter(60000);
+        try {
+            assertTrue(Deadline.remaining() > 50000);
+
+            Deadline call = Deadline.enter(1000);
+            assertNotNull(call);
+            assertTrue(Deadline.remaining() <= 1000);
+            // a longer deadline inside a shorter one changes nothing
+            assertNull(Deadline.enter(5000));
+            Deadline.exit(call);
+
+            assertTrue(Deadline.remaining() > 50000);
+        } finally {
+            Deadline.exit(operation);
+        }
+        assertNull(Deadline.current());
+    }
+
+    public void testLocalCallIsBounded() throws Exception {
+        URI endpoint = new URI(HangingHandler.class.getName() + "#hang");
+        Element request = XMLUtils.parse("<find_business xmlns=\"urn:uddi-org:api_v3\"/>").getDocumentElement();
+        long start = System.currentTimeMillis();
+        Deadline operation = Deadline.enter(100);
+        try {
+            new LocalTransport().send(request, endpoint);
+            fail();
+        } catch (TransportException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        } finally {
+            Deadline.exit(operation);
+        }
+        assertTrue(System.currentTimeMillis() - start < 10000);
+        // the handler is interrupted once the call is given up
+        for (int i = 0; i < 100 && !HangingHandler.interrupted; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(HangingHandler.interrupted);
+    }
+
+    public void testJoinAndExpiry() throws Exception {
+        Deadline operation = Deadline.enter(1);
+        try {
+            final Deadline deadline = Deadline.current();
+            final boolean[] expired = new boolean[1];
+            Thread worker = new Thread() {
+                public void run() {
+                    Deadline joined = Deadline.join(deadline);
+                    try {
+                        Thread.sleep(20);
+                        expired[0] = Deadline.expired();
+                    } catch (InterruptedException e) {
+                        // expired stays false
+                    } finally {
+                        Deadline.exit(joined);
+                    }
+                }
+            };
+            worker.start();
+            worker.join();
+            assertTrue(expired[0]);
+            assertTrue(Deadline.expired());
+        } finally {
+            Deadline.exit(operation);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.util;
+
+import javax.xml.registry.infomodel.ClassificationScheme;
+
+import junit.framework.TestCase;
+
+/**
+ * Verifies that converter values are shared only while a table is bound,
+ * and scheme stubs only within a query.
+ */
+public class InternTableTest extends TestCase {
+
+    private static final String TMODEL_KEY = "uuid:C1ACF26D-9672-4404-9D70-39B756E62AB4";
+
+    public void testNoTableBound() throws Exception {
+        assertNull(InternTable.current());
+        assertNotSame(InternTable.scheme(TMODEL_KEY, null), InternTable.scheme(TMODEL_KEY, null));
+        String value = new String("US");
+        assertSame(value, InternTable.string(value));
+    }
+
+    public void testQueryScope() throws Exception {
+        QueryScope scope = QueryScope.enter(null);
+        try {
+            ClassificationScheme scheme = InternTable.scheme(TMODEL_KEY, null);
+            assertSame(scheme, InternTable.scheme(new String(TMODEL_KEY), null));
+            assertEquals(TMODEL_KEY, scheme.getKey().getId());
+            assertSame(InternTable.string("US"), InternTable.string(new String("US")));
+            assertSame(InternTable.locale("nl"), InternTable.locale(new String("nl")));
+
+            // a nested query keeps using the outer table
+            InternTable nested = InternTable.enter(null);
+            assertSame(scheme, InternTable.scheme(TMODEL_KEY, null));
+            InternTable.exit(nested);
+            assertNotNull(InternTable.current());
+        } finally {
+            QueryScope.exit(scope);
+        }
+        assertNull(InternTable.current());
+    }
+
+    public void testConnectionScope() throws Exception {
+        InternTable shared = new InternTable();
+        ClassificationScheme scheme;
+        String value;
+        QueryScope scope = QueryScope.enter(shared);
+        try {
+            scheme = InternTable.scheme(TMODEL_KEY, null);
+            value = InternTable.string(new String("US"));
+        } finally {
+            QueryScope.exit(scope);
+        }
+        scope = QueryScope.enter(shared);
+        try {
+            assertSame(value, InternTable.string(new String("US")));
+            // the mutable stubs are not shared with another query
+            assertNotSame(scheme, InternTable.scheme(TMODEL_KEY, null));
+        } finally {
+            QueryScope.exit(scope);
+        }
+    }
+}
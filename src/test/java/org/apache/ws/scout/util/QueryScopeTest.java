@@ -0,0 +1,88 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.util;
+
+import javax.xml.registry.LifeCycleManager;
+
+import junit.framework.TestCase;
+
+/**
+ * Verifies that registry objects are shared by key only within a query scope.
+ */
+public class QueryScopeTest extends TestCase {
+
+    private static final String SERVICE_KEY = "uuid:6A1F4D2E-1B3C-4E5F-8A9B-0C1D2E3F4A5B";
+
+    public void testNoScopeBound() {
+        Object service = new Object();
+        assertSame(service, QueryScope.register(LifeCycleManager.SERVICE, SERVICE_KEY, service));
+        assertNull(QueryScope.lookup(LifeCycleManager.SERVICE, SERVICE_KEY));
+    }
+
+    public void testIdentityWithinScope() {
+        QueryScope scope = QueryScope.enter(null);
+        try {
+            assertNotNull(InternTable.current());
+            Object service = new Object();
+            assertSame(service, QueryScope.register(LifeCycleManager.SERVICE, SERVICE_KEY, service));
+            // the first registration wins, and keys are case insensitive
+            assertSame(service, QueryScope.register(LifeCycleManager.SERVICE, SERVICE_KEY.toLowerCase(), new Object()));
+            assertSame(service, QueryScope.lookup(LifeCycleManager.SERVICE, SERVICE_KEY.toLowerCase()));
+            assertNull(QueryScope.lookup(LifeCycleManager.ORGANIZATION, SERVICE_KEY));
+
+            // a nested query joins the outer scope
+            QueryScope nested = QueryScope.enter(null);
+            assertNull(nested);
+            assertSame(service, QueryScope.lookup(LifeCycleManager.SERVICE, SERVICE_KEY));
+            QueryScope.exit(nested);
+            assertSame(service, QueryScope.lookup(LifeCycleManager.SERVICE, SERVICE_KEY));
+        } finally {
+            QueryScope.exit(scope);
+        }
+        assertNull(QueryScope.lookup(LifeCycleManager.SERVICE, SERVICE_KEY));
+        assertNull(InternTable.current());
+    }
+
+    public void testJoinFromAnotherThread() throws Exception {
+        final QueryScope scope = QueryScope.enter(null);
+        try {
+            final Object service = QueryScope.register(LifeCycleManager.SERVICE, SERVICE_KEY, new Object());
+            final InternTable table = InternTable.current();
+            final Object[] seen = new Object[3];
+            Thread worker = new Thread() {
+                public void run() {
+                    QueryScope joined = QueryScope.join(scope);
+                    try {
+                        seen[0] = QueryScope.lookup(LifeCycleManager.SERVICE, SERVICE_KEY);
+                        seen[1] = InternTable.current();
+                    } finally {
+                        QueryScope.exit(joined);
+                    }
+                    seen[2] = InternTable.current();
+                }
+            };
+            worker.start();
+            worker.join();
+            assertSame(service, seen[0]);
+            assertSame(table, seen[1]);
+            assertNull(seen[2]);
+            // the calling thread keeps its own binding
+            assertSame(scope, QueryScope.current());
+        } finally {
+            QueryScope.exit(scope);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.util;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.ws.scout.transport.LocalTransport;
+import org.apache.ws.scout.transport.Transport;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Measures how many concurrent registry calls one client sustains when
+ * they run on a fixed pool of platform threads, and when they run on
+ * virtual threads. Each call goes through a {@link LocalTransport} to a
+ * handler that blocks for a fixed delay, like a registry on the network.
+ *
+ * <p>Not a test; run it with
+ * <code>java org.apache.ws.scout.util.TaskExecutorsBenchmark [calls] [delay ms] [platform threads]</code>.
+ * The virtual thread run is skipped on a JVM without virtual threads.</p>
+ */
+public class TaskExecutorsBenchmark {
+
+    private static final String ENDPOINT = DelayedHandler.class.getName() + "#delay";
+
+    public static class DelayedHandler {
+        static long delay;
+
+        public Node delay(Element request) throws Exception {
+            Thread.sleep(delay);
+            Document doc = XMLUtils.getDocumentBuilder().newDocument();
+            doc.appendChild(doc.importNode(request, true));
+            return doc;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        DelayedHandler.delay = args.length > 1 ? Long.parseLong(args[1]) : 50L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        System.out.println(calls + " calls of " + DelayedHandler.delay + " ms each");
+        run("platform (" + threads + " threads)", TaskExecutors.newFixed("scout-bench-", threads, false), calls);
+        if (TaskExecutors.isVirtualAvailable()) {
+            run("virtual", TaskExecutors.newFixed("scout-bench-", threads, true), calls);
+        } else {
+            System.out.println("virtual: skipped, the JVM has no virtual threads");
+        }
+    }
+
+    private static void run(String mode, ExecutorService executor, int calls) throws Exception {
+        final Transport transport = new LocalTransport();
+        final URI endpoint = new URI(ENDPOINT);
+        final String request = "<find_business xmlns=\"urn:uddi-org:api_v3\"/>";
+        try {
+            // resolves the handler and starts the threads
+            send(executor, transport, endpoint, request, 100);
+
+            long start = System.nanoTime();
+            send(executor, transport, endpoint, request, calls);
+            long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+            System.out.println(mode + ": " + millis + " ms, " + (calls * 1000L / millis) + " calls/s");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void send(ExecutorService executor, final Transport transport, final URI endpoint,
+            final String request, int calls) throws Exception {
+        List<Future<String>> futures = new ArrayList<Future<String>>(calls);
+        for (int i = 0; i < calls; i++) {
+            futures.add(executor.submit(new Callable<String>() {
+                public String call() throws Exception {
+                    return transport.send(request, endpoint);
+                }
+            }));
+        }
+        for (Future<String> future : futures) {
+            future.get();
+        }
+    }
+}
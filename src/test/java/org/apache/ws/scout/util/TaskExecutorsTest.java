@@ -0,0 +1,67 @@
+/*
+ * Copyright 2001-2004 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.ws.scout.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Verifies that the executors run their tasks on the kind of threads
+ * asked for, falling back to platform threads.
+ */
+public class TaskExecutorsTest extends TestCase {
+
+    private static final Callable<Thread> CURRENT = new Callable<Thread>() {
+        public Thread call() {
+            return Thread.currentThread();
+        }
+    };
+
+    public void testPlatformThreads() throws Exception {
+        ExecutorService executor = TaskExecutors.newFixed("scout-test-", 2, false);
+        try {
+            Thread thread = executor.submit(CURRENT).get(5, TimeUnit.SECONDS);
+            assertEquals("scout-test-1", thread.getName());
+            assertTrue(thread.isDaemon());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testVirtualThreads() throws Exception {
+        ExecutorService executor = TaskExecutors.newCached("scout-test-", 2, true);
+        try {
+            Thread thread = executor.submit(CURRENT).get(5, TimeUnit.SECONDS);
+            assertEquals("scout-test-1", thread.getName());
+            // virtual threads are always daemon threads
+            assertTrue(thread.isDaemon());
+            assertEquals(TaskExecutors.isVirtualAvailable(), isVirtual(thread));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}